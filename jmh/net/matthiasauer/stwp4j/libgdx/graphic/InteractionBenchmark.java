@@ -0,0 +1,131 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.utils.viewport.ScreenViewport;
+
+import net.matthiasauer.stwp4j.Channel;
+import net.matthiasauer.stwp4j.ChannelInPort;
+import net.matthiasauer.stwp4j.ChannelOutPort;
+import net.matthiasauer.stwp4j.Scheduler;
+import net.matthiasauer.stwp4j.libgdx.graphic.RenderProcess.PickingEngine;
+import net.matthiasauer.stwp4j.libgdx.utils.HeadlessEnvironment;
+
+/**
+ * Searches the touched RenderData of pointer events in scenes of different
+ * sizes - half of the RenderData is rotated.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class InteractionBenchmark {
+    private static final int EVENTS_PER_FRAME = 4;
+    private static final int SCREEN_WIDTH = 1280;
+    private static final int SCREEN_HEIGHT = 720;
+
+    @Param({ "1000", "10000", "100000" })
+    public int sceneSize;
+
+    @Param({ "Geometric", "PickBuffer" })
+    public PickingEngine pickingEngine;
+
+    private final Random random = new Random(22);
+    private RenderData[] renderData;
+    private float[] bounds;
+    private InteractionSubProcess interactionSubProcess;
+    private ChannelOutPort<InputTouchEvent> outPort;
+    private ChannelInPort<InputTouchEvent> inPort;
+
+    @Setup
+    public void setup() {
+        HeadlessEnvironment.initialize();
+
+        final OrthographicCamera camera = new OrthographicCamera(SCREEN_WIDTH, SCREEN_HEIGHT);
+        final ScreenViewport viewport = new ScreenViewport(camera);
+        final Channel<InputTouchEvent> channel = new Scheduler().createMultiplexChannel("#input",
+                InputTouchEvent.class, false, false);
+
+        viewport.update(SCREEN_WIDTH, SCREEN_HEIGHT, true);
+
+        this.outPort = channel.createOutPort();
+        this.inPort = channel.createInPort();
+        this.interactionSubProcess = new InteractionSubProcess(camera, viewport,
+                new RenderTextureArchiveSystem(null, 0, null), true,
+                new RenderProcessSettings().setPickingEngine(this.pickingEngine), new RenderStatistics());
+        this.renderData = new RenderData[this.sceneSize];
+        this.bounds = new float[this.sceneSize * 4];
+
+        for (int i = 0; i < this.sceneSize; i++) {
+            final float rotation = (i % 2 == 0) ? 0 : this.random.nextFloat() * 360;
+
+            // the alpha masks aren't part of this benchmark
+            this.renderData[i] = new SpriteRenderData("id" + i, 0, 0, rotation, RenderPositionUnit.Pixels, null, 0,
+                    true, "texture").setInteractionMode(InteractionMode.BoundingBox);
+            this.bounds[i * 4] = this.random.nextFloat() * SCREEN_WIDTH - SCREEN_WIDTH / 2;
+            this.bounds[i * 4 + 1] = this.random.nextFloat() * SCREEN_HEIGHT - SCREEN_HEIGHT / 2;
+            this.bounds[i * 4 + 2] = 20 + this.random.nextFloat() * 40;
+            this.bounds[i * 4 + 3] = 20 + this.random.nextFloat() * 40;
+        }
+
+        this.collectScene();
+    }
+
+    private void collectScene() {
+        this.interactionSubProcess.preIteration();
+
+        for (int i = 0; i < this.sceneSize; i++) {
+            this.interactionSubProcess.addRenderedData(this.interactionSubProcess.obtainRenderedData().set(
+                    this.bounds[i * 4], this.bounds[i * 4 + 1], this.bounds[i * 4 + 2], this.bounds[i * 4 + 3], 1,
+                    this.renderData[i], null));
+        }
+    }
+
+    private InputTouchEvent publish() {
+        this.interactionSubProcess.postIteration(this.outPort);
+
+        InputTouchEvent event = null;
+        InputTouchEvent last = null;
+
+        while ((event = this.inPort.poll()) != null) {
+            last = event;
+        }
+
+        return last;
+    }
+
+    /**
+     * the scene doesn't change, the pointer moves every frame
+     */
+    @Benchmark
+    public InputTouchEvent pickMovingPointer() {
+        this.interactionSubProcess.mouseMoved(this.random.nextInt(SCREEN_WIDTH), this.random.nextInt(SCREEN_HEIGHT));
+
+        return this.publish();
+    }
+
+    /**
+     * the scene is collected again and several events are picked
+     */
+    @Benchmark
+    public InputTouchEvent collectAndPickFrame() {
+        this.collectScene();
+
+        for (int i = 0; i < EVENTS_PER_FRAME; i++) {
+            this.interactionSubProcess.mouseMoved(this.random.nextInt(SCREEN_WIDTH),
+                    this.random.nextInt(SCREEN_HEIGHT));
+        }
+
+        return this.publish();
+    }
+}
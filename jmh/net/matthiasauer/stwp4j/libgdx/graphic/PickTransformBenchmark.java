@@ -0,0 +1,199 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.viewport.ScreenViewport;
+import com.badlogic.gdx.utils.viewport.Viewport;
+
+/**
+ * Compares a frame of adding RenderedData and picking events against rotated
+ * rectangles the way the InteractionSubProcess did it before the
+ * PickTransform (the pick position is calculated per event, the position is
+ * rotated with Vector2.rotate for every rotated rectangle) with the
+ * precomputed PickTransform and the inverse rotation cached by the
+ * RenderedData. Half of the rectangles aren't rotated.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PickTransformBenchmark {
+    private static final int RECTANGLES = 2000;
+    private static final int EVENTS = 200;
+    private final OrthographicCamera camera = new OrthographicCamera();
+    private final Viewport viewPort = new ScreenViewport(this.camera);
+    private final Rectangle[] rectangles = new Rectangle[RECTANGLES];
+    private final SpriteRenderData[] renderData = new SpriteRenderData[RECTANGLES];
+    private final RenderedData[] renderedData = new RenderedData[RECTANGLES];
+    private final InputTouchEvent[] events = new InputTouchEvent[EVENTS];
+    private final PickTransform pickTransform = new PickTransform();
+    private final Vector2 pickPosition = new Vector2();
+    private final Vector2 position = new Vector2();
+    private final Vector2 screenPosition = new Vector2();
+    private final Vector2 center = new Vector2();
+    private final Rectangle rectangle = new Rectangle();
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(19);
+
+        this.viewPort.setScreenBounds(0, 0, 1280, 720);
+        this.viewPort.setWorldSize(1280, 720);
+        // only the fields are used, updating the matrices requires the natives
+        this.camera.viewportWidth = 1280;
+        this.camera.viewportHeight = 720;
+        this.camera.position.set(100, 50, 0);
+        this.camera.zoom = 1.5f;
+
+        for (int i = 0; i < RECTANGLES; i++) {
+            final float rotation = (i % 2 == 0) ? 0 : random.nextFloat() * 360;
+
+            this.rectangles[i] = new Rectangle(random.nextFloat() * 1280 - 640, random.nextFloat() * 720 - 360,
+                    random.nextFloat() * 100, random.nextFloat() * 100);
+            this.renderData[i] = new SpriteRenderData("" + i, 0, 0, rotation, RenderPositionUnit.Pixels, null, 0,
+                    true, "texture");
+            this.renderedData[i] = new RenderedData();
+        }
+
+        for (int i = 0; i < EVENTS; i++) {
+            final Vector2 unprojected = new Vector2(random.nextFloat() * 1280 - 640, random.nextFloat() * 720 - 360);
+            final Vector2 projected = new Vector2(unprojected).scl(this.camera.zoom).add(this.camera.position.x,
+                    this.camera.position.y);
+
+            this.events[i] = new InputTouchEvent((int) unprojected.x + 640, 360 - (int) unprojected.y,
+                    InputTouchEventType.Moved, 0, false, projected, unprojected);
+        }
+    }
+
+    /**
+     * the pick position as it was calculated for every event and space
+     */
+    private boolean parentPickPosition(InputTouchEvent eventData, boolean isProjected, Vector2 position) {
+        position.set(eventData.getPosition(isProjected));
+        boolean isHeightStretched = Math.abs(this.viewPort.getWorldHeight() - this.viewPort.getScreenHeight()) > 2;
+        boolean isWidthStretched = Math.abs(this.viewPort.getWorldWidth() - this.viewPort.getScreenWidth()) > 2;
+        boolean isStretched = isHeightStretched || isWidthStretched;
+        boolean aspectRatioKept = (this.viewPort.getScreenX() != 0) || (this.viewPort.getScreenY() != 0);
+
+        if (!isStretched || !isProjected || aspectRatioKept) {
+            if (!(isProjected && isStretched && aspectRatioKept)) {
+                position.x /= this.viewPort.getScreenWidth() / this.viewPort.getWorldWidth();
+                position.y /= this.viewPort.getScreenHeight() / this.viewPort.getWorldHeight();
+            }
+
+            Vector2 unProjectedPosition = this.screenPosition.set(eventData.getPosition(false));
+            unProjectedPosition.x /= this.viewPort.getScreenWidth() / this.viewPort.getWorldWidth();
+            unProjectedPosition.y /= this.viewPort.getScreenHeight() / this.viewPort.getWorldHeight();
+
+            if ((Math.abs(unProjectedPosition.x) > Math.abs(this.camera.viewportWidth / 2))
+                    || (Math.abs(unProjectedPosition.y) > Math.abs(this.camera.viewportHeight / 2))) {
+                return false;
+            }
+        }
+
+        if (isProjected) {
+            float realX = this.viewPort.getScreenX() * 2 + this.viewPort.getScreenWidth();
+            float realY = this.viewPort.getScreenY() * 2 + this.viewPort.getScreenHeight();
+
+            position.x -= this.camera.position.x;
+            position.y -= this.camera.position.y;
+            position.x /= this.viewPort.getScreenWidth() / realX;
+            position.y /= this.viewPort.getScreenHeight() / realY;
+            position.x += this.camera.position.x;
+            position.y += this.camera.position.y;
+        }
+
+        return true;
+    }
+
+    @Benchmark
+    public int parent() {
+        int hits = 0;
+
+        // the RenderedData didn't cache the rotation
+        for (int i = 0; i < RECTANGLES; i++) {
+            final Rectangle bounds = this.rectangles[i];
+
+            this.renderedData[i].getRenderedTarget().set(bounds);
+        }
+
+        for (int event = 0; event < EVENTS; event++) {
+            if (!this.parentPickPosition(this.events[event], true, this.pickPosition)) {
+                continue;
+            }
+
+            for (int i = 0; i < RECTANGLES; i++) {
+                final float rotation = this.renderData[i].getRotation();
+
+                this.rectangle.set(this.renderedData[i].getRenderedTarget());
+                this.position.set(this.pickPosition);
+
+                if (rotation != 0) {
+                    this.rectangle.getCenter(this.center);
+                    this.position.sub(this.center).rotate(360 - rotation).add(this.center);
+                }
+
+                if (this.rectangle.contains(this.position)) {
+                    hits++;
+                }
+            }
+        }
+
+        return hits;
+    }
+
+    @Benchmark
+    public int precomputed() {
+        int hits = 0;
+
+        for (int i = 0; i < RECTANGLES; i++) {
+            final Rectangle bounds = this.rectangles[i];
+
+            this.renderedData[i].set(bounds.x, bounds.y, bounds.width, bounds.height, 1, this.renderData[i], null);
+        }
+
+        this.pickTransform.update(this.camera, this.viewPort);
+
+        for (int event = 0; event < EVENTS; event++) {
+            if (!this.pickTransform.apply(this.events[event], true, this.pickPosition)) {
+                continue;
+            }
+
+            for (int i = 0; i < RECTANGLES; i++) {
+                final RenderedData data = this.renderedData[i];
+                final Rectangle target = data.getRenderedTarget();
+                float x = this.pickPosition.x;
+                float y = this.pickPosition.y;
+
+                if (this.renderData[i].getRotation() != 0) {
+                    final float centerX = target.x + target.width / 2;
+                    final float centerY = target.y + target.height / 2;
+                    final float arrowX = x - centerX;
+                    final float arrowY = y - centerY;
+                    final float cos = data.getInverseRotationCos();
+                    final float sin = data.getInverseRotationSin();
+
+                    x = centerX + arrowX * cos - arrowY * sin;
+                    y = centerY + arrowX * sin + arrowY * cos;
+                }
+
+                if (target.contains(x, y)) {
+                    hits++;
+                }
+            }
+        }
+
+        return hits;
+    }
+}
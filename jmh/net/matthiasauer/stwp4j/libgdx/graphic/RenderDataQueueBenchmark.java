@@ -0,0 +1,62 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import net.matthiasauer.stwp4j.libgdx.graphic.RenderProcess.RenderOrdering;
+
+/**
+ * Orders the RenderData of a frame with the RenderDataQueue of each
+ * RenderOrdering.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RenderDataQueueBenchmark {
+    @Param({ "1000", "10000", "100000" })
+    public int renderDataCount;
+
+    @Param({ "BucketSort", "PriorityQueue" })
+    public RenderOrdering renderOrdering;
+
+    private RenderData[] renderData;
+    private RenderDataQueue queue;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(22);
+
+        this.renderData = new RenderData[this.renderDataCount];
+
+        for (int i = 0; i < this.renderDataCount; i++) {
+            // few layers, like a typical scene
+            this.renderData[i] = new SpriteRenderData("id" + i, 0, 0, 0, RenderPositionUnit.Pixels, null,
+                    random.nextInt(8), random.nextBoolean(), "texture");
+        }
+
+        this.queue = (this.renderOrdering == RenderOrdering.BucketSort) ? new BucketRenderDataQueue()
+                : new PriorityRenderDataQueue();
+    }
+
+    @Benchmark
+    public RenderData sortFrame() {
+        this.queue.beginFrame();
+
+        for (int i = 0; i < this.renderData.length; i++) {
+            this.queue.add(this.renderData[i]);
+        }
+
+        this.queue.sort();
+
+        return this.queue.get(this.queue.size() - 1);
+    }
+}
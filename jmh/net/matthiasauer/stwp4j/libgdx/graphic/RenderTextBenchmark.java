@@ -0,0 +1,83 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.utils.viewport.ScreenViewport;
+
+import net.matthiasauer.stwp4j.libgdx.utils.HeadlessEnvironment;
+
+/**
+ * Draws a frame of texts with the RenderTextSubSystem - texts with an id use
+ * the cached vertices of the TextCache, texts without an id are laid out
+ * using the GlyphLayoutCache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RenderTextBenchmark {
+    @Param({ "1000" })
+    public int textCount;
+
+    @Param({ "true", "false" })
+    public boolean withIds;
+
+    @Param({ "0", "45" })
+    public float rotation;
+
+    private TextRenderData[] texts;
+    private SpriteBatch spriteBatch;
+    private RenderTextSubSystem renderTextSubSystem;
+
+    @Setup
+    public void setup() {
+        HeadlessEnvironment.initialize();
+
+        final Random random = new Random(22);
+        final RenderProcessSettings settings = new RenderProcessSettings();
+        final RenderStatistics statistics = new RenderStatistics();
+        final OrthographicCamera camera = new OrthographicCamera(1280, 720);
+        final ScreenViewport viewport = new ScreenViewport(camera);
+
+        viewport.update(1280, 720, true);
+
+        this.spriteBatch = new SpriteBatch();
+        this.renderTextSubSystem = new RenderTextSubSystem(viewport, camera, this.spriteBatch,
+                new InteractionSubProcess(camera, viewport, new RenderTextureArchiveSystem(null, 0, null), false,
+                        settings, statistics),
+                new ViewportCuller(camera, statistics, false), statistics, settings.getTextCacheEvictionFrames(),
+                new GlyphLayoutCache(statistics, settings.getGlyphLayoutCacheEntries(),
+                        settings.getGlyphLayoutCacheBytes()));
+        this.texts = new TextRenderData[this.textCount];
+
+        for (int i = 0; i < this.textCount; i++) {
+            this.texts[i] = new TextRenderData(this.withIds ? ("text" + i) : null, random.nextFloat() * 1280 - 640,
+                    random.nextFloat() * 720 - 360, this.rotation, RenderPositionUnit.Pixels, null, 0, true,
+                    "score " + i, null);
+        }
+    }
+
+    @Benchmark
+    public void drawFrame() {
+        this.renderTextSubSystem.preIteration();
+        this.spriteBatch.begin();
+
+        for (int i = 0; i < this.texts.length; i++) {
+            this.renderTextSubSystem.drawText(this.texts[i]);
+        }
+
+        this.spriteBatch.end();
+        this.renderTextSubSystem.postIteration();
+    }
+}
@@ -0,0 +1,86 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.PixmapIO;
+
+import net.matthiasauer.stwp4j.libgdx.utils.HeadlessEnvironment;
+
+/**
+ * Looks up the regions of a generated atlas by their name and by their
+ * resolved handle.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TextureLoaderBenchmark {
+    private static final int REGIONS = 256;
+    private TextureLoader textureLoader;
+    private String[] names;
+    private int[] handles;
+
+    @Setup
+    public void setup() throws IOException {
+        HeadlessEnvironment.initialize();
+
+        final File directory = File.createTempFile("atlas", "");
+
+        directory.delete();
+        directory.mkdir();
+        directory.deleteOnExit();
+
+        final Pixmap pixmap = new Pixmap(256, 256, Pixmap.Format.RGBA8888);
+        final StringBuilder atlas = new StringBuilder("\npage.png\nformat: RGBA8888\nfilter: Nearest,Nearest\n"
+                + "repeat: none\n");
+
+        PixmapIO.writePNG(new FileHandle(new File(directory, "page.png")), pixmap);
+        pixmap.dispose();
+
+        this.names = new String[REGIONS];
+        this.handles = new int[REGIONS];
+
+        for (int i = 0; i < REGIONS; i++) {
+            this.names[i] = "region" + i;
+            atlas.append(this.names[i]).append("\n  rotate: false\n  xy: ").append((i % 16) * 16).append(", ")
+                    .append((i / 16) * 16).append("\n  size: 16, 16\n  orig: 16, 16\n  offset: 0, 0\n  index: -1\n");
+        }
+
+        final File atlasFile = new File(directory, "page.atlas");
+
+        new FileHandle(atlasFile).writeString(atlas.toString(), false);
+
+        this.textureLoader = new TextureLoader(Arrays.asList(atlasFile.getAbsolutePath()));
+
+        for (int i = 0; i < REGIONS; i++) {
+            this.handles[i] = this.textureLoader.resolve(this.names[i]);
+        }
+    }
+
+    @Benchmark
+    public void getTextureByName(Blackhole blackhole) {
+        for (int i = 0; i < REGIONS; i++) {
+            blackhole.consume(this.textureLoader.getTexture(this.names[i]));
+        }
+    }
+
+    @Benchmark
+    public void getTextureByHandle(Blackhole blackhole) {
+        for (int i = 0; i < REGIONS; i++) {
+            blackhole.consume(this.textureLoader.getTexture(this.handles[i]));
+        }
+    }
+}
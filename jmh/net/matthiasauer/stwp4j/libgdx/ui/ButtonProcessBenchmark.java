@@ -0,0 +1,111 @@
+package net.matthiasauer.stwp4j.libgdx.ui;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.badlogic.gdx.math.Vector2;
+
+import net.matthiasauer.stwp4j.Channel;
+import net.matthiasauer.stwp4j.ChannelInPort;
+import net.matthiasauer.stwp4j.ChannelOutPort;
+import net.matthiasauer.stwp4j.Scheduler;
+import net.matthiasauer.stwp4j.libgdx.graphic.InputTouchEvent;
+import net.matthiasauer.stwp4j.libgdx.graphic.InputTouchEventType;
+import net.matthiasauer.stwp4j.libgdx.graphic.RenderData;
+import net.matthiasauer.stwp4j.libgdx.graphic.RenderPositionUnit;
+import net.matthiasauer.stwp4j.libgdx.graphic.SpriteRenderData;
+
+/**
+ * Performs iterations of a Scheduler with ButtonProcesses that receive
+ * moves, presses and releases of two pointers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ButtonProcessBenchmark {
+    private static final int EVENTS_PER_ITERATION = 8;
+    private static final InputTouchEventType[] TYPES = { InputTouchEventType.TouchDown,
+            InputTouchEventType.TouchUp, InputTouchEventType.Moved, InputTouchEventType.Dragged };
+
+    @Param({ "10", "100" })
+    public int buttonCount;
+
+    private final Random random = new Random(22);
+    private final InputTouchEvent[] events = new InputTouchEvent[EVENTS_PER_ITERATION];
+    private String[] ids;
+    private Scheduler scheduler;
+    private ChannelOutPort<InputTouchEvent> touchOutput;
+    private ChannelInPort<RenderData> renderInput;
+    private ChannelInPort<ButtonClickEvent> buttonClickInput;
+
+    @Setup
+    public void setup() {
+        this.scheduler = new Scheduler();
+
+        final Channel<RenderData> renderChannel = this.scheduler.createMultiplexChannel("#render", RenderData.class,
+                false, false);
+        final Channel<InputTouchEvent> touchEventChannel = this.scheduler.createMultiplexChannel("#touch",
+                InputTouchEvent.class, false, false);
+        final Channel<ButtonClickEvent> buttonClickEventChannel = this.scheduler.createMultiplexChannel("#click",
+                ButtonClickEvent.class, false, true);
+
+        this.ids = new String[this.buttonCount];
+
+        for (int i = 0; i < this.buttonCount; i++) {
+            final String id = "button" + i;
+
+            this.ids[i] = id;
+
+            this.scheduler.addProcess(new ButtonProcess(renderChannel.createOutPort(),
+                    touchEventChannel.createInPort(), buttonClickEventChannel.createOutPort(),
+                    new SpriteRenderData(id, 0, 0, 0, RenderPositionUnit.Pixels, null, 0, true, "base"),
+                    new SpriteRenderData(id, 0, 0, 0, RenderPositionUnit.Pixels, null, 0, true, "over"),
+                    new SpriteRenderData(id, 0, 0, 0, RenderPositionUnit.Pixels, null, 0, true, "down")));
+        }
+
+        this.touchOutput = touchEventChannel.createOutPort();
+        this.renderInput = renderChannel.createInPort();
+        this.buttonClickInput = buttonClickEventChannel.createInPort();
+
+        for (int i = 0; i < EVENTS_PER_ITERATION; i++) {
+            this.events[i] = new InputTouchEvent();
+        }
+    }
+
+    @Benchmark
+    public void iteration(Blackhole blackhole) {
+        for (int i = 0; i < EVENTS_PER_ITERATION; i++) {
+            final int pointer = i % 2;
+            final InputTouchEventType type = TYPES[this.random.nextInt(TYPES.length)];
+            final boolean isTouched = (type == InputTouchEventType.TouchDown)
+                    || (type == InputTouchEventType.Dragged);
+
+            this.events[i].set(0, 0, type, 0, pointer, isTouched, Vector2.Zero, Vector2.Zero);
+            this.events[i].setTouchedRenderDataId(this.ids[this.random.nextInt(this.buttonCount)]);
+            this.touchOutput.offer(this.events[i]);
+        }
+
+        this.scheduler.performIteration();
+
+        RenderData renderData;
+        ButtonClickEvent buttonClickEvent;
+
+        while ((renderData = this.renderInput.poll()) != null) {
+            blackhole.consume(renderData);
+        }
+
+        while ((buttonClickEvent = this.buttonClickInput.poll()) != null) {
+            blackhole.consume(buttonClickEvent);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package net.matthiasauer.stwp4j.libgdx.utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.graphics.GL20;
+
+/**
+ * Starts the headless libGDX backend for the benchmarks. The OpenGL calls go
+ * to a GL20 mock, so textures, shaders and the SpriteBatch can be created on a
+ * machine without a GPU.
+ */
+public final class HeadlessEnvironment {
+    private static HeadlessApplication application = null;
+    /** the last handle returned by a glCreate* or glGen* call */
+    private static int lastHandle = 0;
+
+    private HeadlessEnvironment() {
+    }
+
+    /**
+     * starts the headless application once per JVM
+     */
+    public static synchronized void initialize() {
+        if (application != null) {
+            return;
+        }
+
+        application = new HeadlessApplication(new ApplicationAdapter() {
+        }, new HeadlessApplicationConfiguration());
+
+        final GL20 gl = createMockGL20();
+
+        Gdx.gl = gl;
+        Gdx.gl20 = gl;
+    }
+
+    /**
+     * @return a GL20 whose methods return the default value of their return
+     *         type - the queried integers (f.e. the compile status of a
+     *         shader) are 1, so the ShaderPrograms are valid. The created
+     *         objects (shaders, programs, textures, buffers...) get non zero
+     *         handles, because libGDX treats 0 as a failure
+     */
+    private static GL20 createMockGL20() {
+        return (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[] { GL20.class },
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        final String name = method.getName();
+
+                        if (name.startsWith("glCreate") || name.startsWith("glGen")) {
+                            return createHandles(method, args);
+                        }
+
+                        if ((args != null) && name.startsWith("glGet")) {
+                            for (Object arg : args) {
+                                if (arg instanceof IntBuffer) {
+                                    final IntBuffer buffer = (IntBuffer) arg;
+
+                                    buffer.put(buffer.position(), 1);
+                                }
+                            }
+                        }
+
+                        return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    /**
+     * @return the next handle if the method returns it, otherwise the
+     *         handles are written to the IntBuffer of the method (f.e.
+     *         glGenTextures(n, textures))
+     */
+    private static synchronized Object createHandles(Method method, Object[] args) {
+        if (method.getReturnType() == int.class) {
+            return ++lastHandle;
+        }
+
+        if ((args != null) && (args.length == 2) && (args[1] instanceof IntBuffer)) {
+            final IntBuffer buffer = (IntBuffer) args[1];
+            final int count = (Integer) args[0];
+
+            for (int i = 0; i < count; i++) {
+                buffer.put(buffer.position() + i, ++lastHandle);
+            }
+        }
+
+        return defaultValue(method.getReturnType());
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == int.class) {
+            return 0;
+        } else if (type == boolean.class) {
+            return false;
+        } else if (type == float.class) {
+            return 0f;
+        } else if (type == String.class) {
+            return "";
+        }
+
+        return null;
+    }
+}
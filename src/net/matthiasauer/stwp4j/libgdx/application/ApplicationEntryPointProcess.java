@@ -1,7 +1,7 @@
 package net.matthiasauer.stwp4j.libgdx.application;
 
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.ArrayList;
+import java.util.List;
 
 import com.badlogic.gdx.ApplicationListener;
 
@@ -9,17 +9,97 @@ import net.matthiasauer.stwp4j.Channel;
 import net.matthiasauer.stwp4j.ChannelOutPort;
 import net.matthiasauer.stwp4j.LightweightProcess;
 import net.matthiasauer.stwp4j.Scheduler;
+import net.matthiasauer.stwp4j.libgdx.utils.ObjectPool;
 
 public abstract class ApplicationEntryPointProcess extends LightweightProcess implements ApplicationListener {
     public static final String APPLICATION_EVENT_CHANNEL = "applicationevent-channel";
+    private static final double NANOS_PER_SECOND = 1000000000d;
     protected final Scheduler scheduler;
     protected final Channel<ApplicationEvent> applicationEventChannel;
-    private final Queue<ApplicationEvent> occuredEvents = new LinkedList<ApplicationEvent>();
+    private final ObjectPool<RenderApplicationEvent> renderApplicationEventPool = new ObjectPool<RenderApplicationEvent>() {
+        @Override
+        protected RenderApplicationEvent newObject() {
+            return new RenderApplicationEvent();
+        }
+    };
+    private final ObjectPool<ResizeApplicationEvent> resizeApplicationEventPool = new ObjectPool<ResizeApplicationEvent>() {
+        @Override
+        protected ResizeApplicationEvent newObject() {
+            return new ResizeApplicationEvent();
+        }
+    };
+    private final ObjectPool<SimpleApplicationEvent> simpleApplicationEventPool = new ObjectPool<SimpleApplicationEvent>() {
+        @Override
+        protected SimpleApplicationEvent newObject() {
+            return new SimpleApplicationEvent();
+        }
+    };
+    private final List<ApplicationEvent> occuredEvents = new ArrayList<ApplicationEvent>();
+    private List<ApplicationEvent> forwardedEvents = new ArrayList<ApplicationEvent>();
+    private List<ApplicationEvent> previouslyForwardedEvents = new ArrayList<ApplicationEvent>();
     private final ChannelOutPort<ApplicationEvent> applicationEventChannelOutPort;
-    private long lastTimestep = System.currentTimeMillis();
+    private final Scheduler simulationScheduler;
+    private final FixedTimestep fixedTimestep;
+    private final SimulationThread simulationThread;
+    private long lastTimestep = System.nanoTime();
 
     protected ApplicationEntryPointProcess(boolean applicationEventChannelMustBeEmptyAfterEachIteration,
             boolean applicationEventChannelAllowsMessagesWithoutHavingInPorts) {
+        this(applicationEventChannelMustBeEmptyAfterEachIteration,
+                applicationEventChannelAllowsMessagesWithoutHavingInPorts, null, null, null);
+    }
+
+    /**
+     * Creates the process with a fixed timestep - the processes of the game
+     * logic run in the simulationScheduler, one iteration per elapsed step.
+     * The render-only processes (f.e. the RenderProcess) run in the
+     * scheduler of this process, one iteration per rendered frame - also if
+     * no step elapsed. The RenderData is passed from the simulationScheduler
+     * to the RenderProcess by a RenderFrameProducerProcess and a
+     * RenderFrameBuffer. Like with a SimulationThread the processes of the
+     * simulationScheduler don't receive ApplicationEvents.
+     * 
+     * @param simulationScheduler
+     *            the Scheduler containing the processes of the simulation
+     * @param stepSeconds
+     *            the seconds simulated by each iteration of the
+     *            simulationScheduler
+     * @param maxStepsPerFrame
+     *            the maximum number of steps per rendered frame - the
+     *            simulation slows down instead of falling further behind
+     */
+    protected ApplicationEntryPointProcess(boolean applicationEventChannelMustBeEmptyAfterEachIteration,
+            boolean applicationEventChannelAllowsMessagesWithoutHavingInPorts, Scheduler simulationScheduler,
+            double stepSeconds, int maxStepsPerFrame) {
+        this(applicationEventChannelMustBeEmptyAfterEachIteration,
+                applicationEventChannelAllowsMessagesWithoutHavingInPorts,
+                checkNotNull(simulationScheduler, "simulationScheduler"),
+                new FixedTimestep(stepSeconds, maxStepsPerFrame), null);
+    }
+
+    /**
+     * Creates the process with a SimulationThread - the processes of the game
+     * logic run in the Scheduler of the thread, the render-only processes
+     * (f.e. the RenderProcess) run in the scheduler of this process on the GL
+     * thread, one iteration per rendered frame. The thread is started by
+     * create, stopped by dispose and its failure is thrown by render.
+     * 
+     * @param simulationThread
+     *            the thread that isn't started yet
+     */
+    protected ApplicationEntryPointProcess(boolean applicationEventChannelMustBeEmptyAfterEachIteration,
+            boolean applicationEventChannelAllowsMessagesWithoutHavingInPorts, SimulationThread simulationThread) {
+        this(applicationEventChannelMustBeEmptyAfterEachIteration,
+                applicationEventChannelAllowsMessagesWithoutHavingInPorts, null, null,
+                checkNotNull(simulationThread, "simulationThread"));
+    }
+
+    private ApplicationEntryPointProcess(boolean applicationEventChannelMustBeEmptyAfterEachIteration,
+            boolean applicationEventChannelAllowsMessagesWithoutHavingInPorts, Scheduler simulationScheduler,
+            FixedTimestep fixedTimestep, SimulationThread simulationThread) {
+        this.simulationScheduler = simulationScheduler;
+        this.fixedTimestep = fixedTimestep;
+        this.simulationThread = simulationThread;
         this.scheduler = new Scheduler();
         this.applicationEventChannel = this.scheduler.createSharedChannel(APPLICATION_EVENT_CHANNEL,
                 ApplicationEvent.class, applicationEventChannelMustBeEmptyAfterEachIteration,
@@ -28,42 +108,132 @@ public abstract class ApplicationEntryPointProcess extends LightweightProcess im
         this.scheduler.addProcess(this);
     }
 
+    private static <T> T checkNotNull(T value, String name) {
+        if (value == null) {
+            throw new NullPointerException(name + " mustn't be null !");
+        }
+
+        return value;
+    }
+
+    /**
+     * starts the SimulationThread (if any) - subclasses overriding create
+     * must call super.create()
+     */
+    @Override
+    public void create() {
+        if (this.simulationThread != null) {
+            this.simulationThread.start();
+        }
+    }
+
     @Override
     public final void resize(int width, int height) {
-        this.occuredEvents.add(new ResizeApplicationEvent().set(width, height));
+        this.occuredEvents.add(this.resizeApplicationEventPool.obtain().set(width, height));
     }
 
     @Override
     public final void render() {
-        long current = System.currentTimeMillis();
-        long difference = current - lastTimestep;
-        lastTimestep = current;
+        if (this.simulationThread != null) {
+            this.checkSimulationThread();
+        }
+
+        final long current = System.nanoTime();
+        final long difference = current - this.lastTimestep;
+        this.lastTimestep = current;
 
-        this.occuredEvents.add(new RenderApplicationEvent().set(difference / 1000d));
+        double alpha = 1;
 
+        if (this.fixedTimestep != null) {
+            final int steps = this.fixedTimestep.advance(difference);
+
+            // the render-only processes don't run for the steps
+            for (int i = 0; i < steps; i++) {
+                this.simulationScheduler.performIteration();
+            }
+
+            alpha = this.fixedTimestep.getAlpha();
+        }
+
+        this.occuredEvents.add(this.renderApplicationEventPool.obtain().set(difference / NANOS_PER_SECOND, alpha));
+
+        this.recycleForwardedEvents();
         this.scheduler.performIteration();
     }
 
+    /**
+     * @throws IllegalStateException
+     *             if the simulation failed or wasn't started
+     */
+    private void checkSimulationThread() {
+        // the failure is set before the thread stops running
+        if (!this.simulationThread.isRunning()) {
+            final Throwable failure = this.simulationThread.getFailure();
+
+            if (failure != null) {
+                throw new IllegalStateException("the simulation failed !", failure);
+            }
+
+            throw new IllegalStateException("the simulation isn't running - super.create() wasn't called !");
+        }
+    }
+
     @Override
     public final void pause() {
-        this.occuredEvents.add(new SimpleApplicationEvent().set(ApplicationEventType.PAUSE));
+        this.occuredEvents.add(this.simpleApplicationEventPool.obtain().set(ApplicationEventType.PAUSE));
     }
 
     @Override
     public final void resume() {
-        this.occuredEvents.add(new SimpleApplicationEvent().set(ApplicationEventType.RESUME));
+        this.occuredEvents.add(this.simpleApplicationEventPool.obtain().set(ApplicationEventType.RESUME));
     }
 
+    /**
+     * stops the SimulationThread (if any) and performs a last iteration of
+     * the scheduler - the processes receive the DISPOSE event to release
+     * their resources
+     */
     @Override
     public final void dispose() {
-        this.occuredEvents.add(new SimpleApplicationEvent().set(ApplicationEventType.DISPOSE));
+        if (this.simulationThread != null) {
+            try {
+                // the simulation doesn't publish frames while they are released
+                this.simulationThread.stop();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        this.occuredEvents.add(this.simpleApplicationEventPool.obtain().set(ApplicationEventType.DISPOSE));
+
+        this.recycleForwardedEvents();
+        this.scheduler.performIteration();
+    }
+
+    /**
+     * the events forwarded in the last iteration might still be polled in the
+     * current iteration - only the ones forwarded before are recycled
+     */
+    private void recycleForwardedEvents() {
+        for (int i = 0; i < this.previouslyForwardedEvents.size(); i++) {
+            this.previouslyForwardedEvents.get(i).recycle();
+        }
+
+        this.previouslyForwardedEvents.clear();
+
+        List<ApplicationEvent> temp = this.previouslyForwardedEvents;
+        this.previouslyForwardedEvents = this.forwardedEvents;
+        this.forwardedEvents = temp;
     }
 
     @Override
     protected final void execute() {
         // forward ALL events
-        for (ApplicationEvent applicationEvent : this.occuredEvents) {
+        for (int i = 0; i < this.occuredEvents.size(); i++) {
+            final ApplicationEvent applicationEvent = this.occuredEvents.get(i);
+
             applicationEventChannelOutPort.offer(applicationEvent);
+            this.forwardedEvents.add(applicationEvent);
         }
 
         this.occuredEvents.clear();
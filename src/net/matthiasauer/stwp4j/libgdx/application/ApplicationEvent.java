@@ -1,6 +1,13 @@
 package net.matthiasauer.stwp4j.libgdx.application;
 
-public abstract class ApplicationEvent {
+import net.matthiasauer.stwp4j.libgdx.utils.PooledObject;
+
+/**
+ * ApplicationEvents are recycled by the ApplicationEntryPointProcess after the
+ * iteration following the one they were forwarded in - consumers mustn't keep
+ * references to them
+ */
+public abstract class ApplicationEvent extends PooledObject {
     private ApplicationEventType applicationEventType;
     
     public ApplicationEventType getApplicationEventType() {
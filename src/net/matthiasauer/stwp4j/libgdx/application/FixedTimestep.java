@@ -0,0 +1,53 @@
+package net.matthiasauer.stwp4j.libgdx.application;
+
+/**
+ * Accumulates the elapsed time of the rendered frames and splits it into
+ * simulation steps of a fixed length
+ */
+final class FixedTimestep {
+    private static final double NANOS_PER_SECOND = 1000000000d;
+    private final long stepNanos;
+    private final int maxStepsPerFrame;
+    private long accumulatedNanos;
+
+    FixedTimestep(double stepSeconds, int maxStepsPerFrame) {
+        if (!(stepSeconds > 0)) {
+            throw new IllegalArgumentException("stepSeconds must be greater than 0 !");
+        }
+
+        if (maxStepsPerFrame < 1) {
+            throw new IllegalArgumentException("maxStepsPerFrame must be at least 1 !");
+        }
+
+        this.stepNanos = Math.max(1, Math.round(stepSeconds * NANOS_PER_SECOND));
+        this.maxStepsPerFrame = maxStepsPerFrame;
+    }
+
+    /**
+     * @return the number of steps that have to be simulated - if the elapsed
+     *         time exceeds maxStepsPerFrame steps the excess time is dropped,
+     *         otherwise slow steps would make the following frames even
+     *         slower
+     */
+    int advance(long elapsedNanos) {
+        this.accumulatedNanos += Math.max(0, elapsedNanos);
+
+        final int steps = (int) Math.min(this.accumulatedNanos / this.stepNanos, this.maxStepsPerFrame);
+
+        this.accumulatedNanos -= steps * this.stepNanos;
+
+        if (this.accumulatedNanos >= this.stepNanos) {
+            this.accumulatedNanos %= this.stepNanos;
+        }
+
+        return steps;
+    }
+
+    /**
+     * @return the fraction [0 - 1) of a step that has elapsed but wasn't
+     *         simulated yet
+     */
+    double getAlpha() {
+        return (double) this.accumulatedNanos / this.stepNanos;
+    }
+}
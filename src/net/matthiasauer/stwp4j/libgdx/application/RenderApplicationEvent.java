@@ -2,15 +2,35 @@ package net.matthiasauer.stwp4j.libgdx.application;
 
 public class RenderApplicationEvent extends ApplicationEvent {
     private double deltaTime;
+    private double alpha;
     
     public RenderApplicationEvent set(double deltaTime) {
+        return this.set(deltaTime, 1);
+    }
+    
+    public RenderApplicationEvent set(double deltaTime, double alpha) {
         this.setInternal(ApplicationEventType.RENDER);
         this.deltaTime = deltaTime;
+        this.alpha = alpha;
         
         return this;
     }
     
+    /**
+     * @return the seconds elapsed since the previous frame - with a fixed
+     *         timestep the simulation advances by whole steps instead
+     */
     public double getDeltaTime() {
         return this.deltaTime;
     }
+    
+    /**
+     * @return the fraction [0 - 1) of a fixed step that elapsed after the
+     *         last simulated step - the displayed state can be interpolated
+     *         between the previous and the current step with it. Always 1
+     *         without a fixed timestep.
+     */
+    public double getAlpha() {
+        return this.alpha;
+    }
 }
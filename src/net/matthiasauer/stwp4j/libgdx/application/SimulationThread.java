@@ -0,0 +1,120 @@
+package net.matthiasauer.stwp4j.libgdx.application;
+
+import java.util.concurrent.locks.LockSupport;
+
+import net.matthiasauer.stwp4j.Scheduler;
+
+/**
+ * Performs the iterations of a Scheduler on a dedicated thread at a fixed
+ * rate - the processes of the game logic run on it while the GL thread only
+ * draws the frames published to a RenderFrameBuffer by a
+ * RenderFrameProducerProcess. The processes of the Scheduler don't receive
+ * ApplicationEvents, each iteration simulates one step. Passed to an
+ * ApplicationEntryPointProcess it is started and stopped with the
+ * application.
+ */
+public final class SimulationThread {
+    private static final double NANOS_PER_SECOND = 1000000000d;
+    private final Scheduler scheduler;
+    private final long stepNanos;
+    private volatile boolean running;
+    private volatile Throwable failure;
+    private Thread thread;
+
+    /**
+     * @param scheduler
+     *            the Scheduler containing the processes of the simulation
+     * @param stepSeconds
+     *            the seconds between the starts of two iterations - an
+     *            iteration that takes longer delays the following ones
+     *            instead of being caught up
+     */
+    public SimulationThread(Scheduler scheduler, double stepSeconds) {
+        if (scheduler == null) {
+            throw new NullPointerException("scheduler mustn't be null !");
+        }
+
+        if (!(stepSeconds > 0)) {
+            throw new IllegalArgumentException("stepSeconds must be greater than 0 !");
+        }
+
+        this.scheduler = scheduler;
+        this.stepNanos = Math.max(1, Math.round(stepSeconds * NANOS_PER_SECOND));
+    }
+
+    public Scheduler getScheduler() {
+        return this.scheduler;
+    }
+
+    public synchronized void start() {
+        if (this.thread != null) {
+            throw new IllegalStateException("the simulation thread was already started !");
+        }
+
+        this.running = true;
+        this.thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                SimulationThread.this.simulate();
+            }
+        }, "simulation");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    private void simulate() {
+        long nextIteration = System.nanoTime();
+
+        try {
+            while (this.running) {
+                this.scheduler.performIteration();
+
+                nextIteration += this.stepNanos;
+                long remaining = nextIteration - System.nanoTime();
+
+                if (remaining < 0) {
+                    // don't catch up with the iterations that took too long
+                    nextIteration -= remaining;
+                }
+
+                // parking may return early
+                while ((remaining > 0) && this.running) {
+                    LockSupport.parkNanos(remaining);
+                    remaining = nextIteration - System.nanoTime();
+                }
+            }
+        } catch (RuntimeException e) {
+            this.failure = e;
+        } catch (Error e) {
+            this.failure = e;
+        } finally {
+            this.running = false;
+        }
+    }
+
+    /**
+     * Stops the simulation after the current iteration and waits for it
+     */
+    public synchronized void stop() throws InterruptedException {
+        this.running = false;
+
+        if (this.thread != null) {
+            LockSupport.unpark(this.thread);
+            this.thread.join();
+        }
+    }
+
+    /**
+     * @return false if the simulation was stopped or failed
+     */
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    /**
+     * @return the exception that stopped the simulation or null
+     */
+    public Throwable getFailure() {
+        return this.failure;
+    }
+}
@@ -0,0 +1,64 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Reads the garbage collections and the bytes allocated by the current
+ * thread from the management beans - the beans don't exist on every platform
+ * (f.e. Android) so creating the probe may throw a LinkageError.
+ */
+final class AllocationProbe {
+    private final GarbageCollectorMXBean[] collectors;
+    private final com.sun.management.ThreadMXBean threadBean;
+
+    AllocationProbe() {
+        this.collectors = ManagementFactory.getGarbageCollectorMXBeans().toArray(new GarbageCollectorMXBean[0]);
+
+        final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+        if ((threadBean instanceof com.sun.management.ThreadMXBean)
+                && ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported()) {
+            this.threadBean = (com.sun.management.ThreadMXBean) threadBean;
+
+            if (!this.threadBean.isThreadAllocatedMemoryEnabled()) {
+                this.threadBean.setThreadAllocatedMemoryEnabled(true);
+            }
+        } else {
+            this.threadBean = null;
+        }
+    }
+
+    long getGarbageCollections() {
+        long collections = 0;
+
+        for (GarbageCollectorMXBean collector : this.collectors) {
+            // -1 if the collector doesn't count
+            collections += Math.max(0, collector.getCollectionCount());
+        }
+
+        return collections;
+    }
+
+    long getGarbageCollectionMillis() {
+        long millis = 0;
+
+        for (GarbageCollectorMXBean collector : this.collectors) {
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+
+        return millis;
+    }
+
+    /**
+     * @return the bytes allocated by the current thread or -1 if unknown
+     */
+    long getAllocatedBytes() {
+        if (this.threadBean == null) {
+            return -1;
+        }
+
+        return this.threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,74 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.LongBuffer;
+
+/**
+ * One bit per pixel of a region, set if the pixel is visible
+ */
+final class AlphaMask {
+    private final int width;
+    private final int height;
+    private final LongBuffer bits;
+
+    AlphaMask(int width, int height) {
+        this(width, height, LongBuffer.wrap(new long[wordCount(width, height)]));
+    }
+
+    AlphaMask(int width, int height, LongBuffer bits) {
+        if (bits.capacity() < wordCount(width, height)) {
+            throw new IllegalArgumentException("bits are too small for the size of the mask !");
+        }
+
+        this.width = width;
+        this.height = height;
+        this.bits = bits;
+    }
+
+    static int wordCount(int width, int height) {
+        return (int) (((long) width * height + 63) >>> 6);
+    }
+
+    void setVisible(int x, int y) {
+        final int index = y * this.width + x;
+        final int word = index >>> 6;
+
+        this.bits.put(word, this.bits.get(word) | (1L << (index & 63)));
+    }
+
+    /**
+     * @return true if the pixel is visible, pixels outside of the mask are
+     *         not visible
+     */
+    public boolean isVisible(int x, int y) {
+        if ((x < 0) || (y < 0) || (x >= this.width) || (y >= this.height)) {
+            return false;
+        }
+
+        final int index = y * this.width + x;
+
+        return (this.bits.get(index >>> 6) & (1L << (index & 63))) != 0;
+    }
+
+    public int getWidth() {
+        return this.width;
+    }
+
+    public int getHeight() {
+        return this.height;
+    }
+
+    void writeTo(DataOutput output) throws IOException {
+        for (int i = 0; i < wordCount(this.width, this.height); i++) {
+            output.writeLong(this.bits.get(i));
+        }
+    }
+
+    /**
+     * @return the size of the bits in bytes
+     */
+    public int getBytes() {
+        return wordCount(this.width, this.height) * 8;
+    }
+}
@@ -0,0 +1,106 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The binary file of alpha masks written by AlphaMaskFileWriter. The layout
+ * is (big endian):
+ * 
+ * <pre>
+ * int    MAGIC
+ * int    VERSION
+ * int    number of regions
+ * per region :
+ *   int    length of the name in bytes
+ *   byte[] name (UTF-8)
+ *   int    width
+ *   int    height
+ *   int    offset of the bits in longs, relative to the start of the bits
+ * padding to a multiple of 8 bytes
+ * long[] bits of all regions
+ * </pre>
+ */
+final class AlphaMaskFile {
+    static final int MAGIC = 0x5354414D;
+    static final int VERSION = 1;
+    static final Charset NAME_CHARSET = Charset.forName("UTF-8");
+
+    private AlphaMaskFile() {
+    }
+
+    /**
+     * maps the file into memory - the AlphaMasks read their bits directly
+     * from the mapped file
+     * 
+     * @return the masks by the name of their region
+     */
+    static Map<String, AlphaMask> map(File file) throws IOException {
+        final MappedByteBuffer buffer;
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+
+        try {
+            // the mapping stays valid after the channel is closed
+            buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, randomAccessFile.length());
+        } finally {
+            randomAccessFile.close();
+        }
+
+        return read(buffer);
+    }
+
+    static Map<String, AlphaMask> read(ByteBuffer buffer) {
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("not an alpha mask file !");
+        }
+
+        final int version = buffer.getInt();
+
+        if (version != VERSION) {
+            throw new IllegalArgumentException("unsupported alpha mask file version : " + version);
+        }
+
+        final int regionCount = buffer.getInt();
+        final String[] names = new String[regionCount];
+        final int[] widths = new int[regionCount];
+        final int[] heights = new int[regionCount];
+        final int[] offsets = new int[regionCount];
+
+        for (int i = 0; i < regionCount; i++) {
+            final byte[] name = new byte[buffer.getInt()];
+
+            buffer.get(name);
+            names[i] = new String(name, NAME_CHARSET);
+            widths[i] = buffer.getInt();
+            heights[i] = buffer.getInt();
+            offsets[i] = buffer.getInt();
+        }
+
+        final int bitsStart = align(buffer.position());
+        final Map<String, AlphaMask> masks = new HashMap<String, AlphaMask>();
+
+        for (int i = 0; i < regionCount; i++) {
+            buffer.limit(bitsStart + (offsets[i] + AlphaMask.wordCount(widths[i], heights[i])) * 8);
+            buffer.position(bitsStart + offsets[i] * 8);
+
+            final LongBuffer bits = buffer.slice().asLongBuffer();
+
+            buffer.limit(buffer.capacity());
+            masks.put(names[i], new AlphaMask(widths[i], heights[i], bits));
+        }
+
+        return masks;
+    }
+
+    static int align(int position) {
+        return (position + 7) & ~7;
+    }
+}
@@ -0,0 +1,215 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import java.util.Arrays;
+
+/**
+ * Orders the RenderData in linear time using a stable counting sort on
+ * (renderOrder, renderProjected) - if the renderOrders span a range that is too
+ * big for the buckets a stable LSD radix sort is used instead. RenderData with
+ * the same renderOrder and renderProjected keep the order in which they were
+ * added. All arrays are reused between frames.
+ */
+final class BucketRenderDataQueue implements RenderDataQueue {
+    private static final int initialCapacity = 64;
+    /**
+     * the maximum number of buckets used by the counting sort - each
+     * renderOrder needs two buckets (unprojected and projected)
+     */
+    private static final int maximumCountingSortBuckets = 1 << 16;
+    private static final int radixBits = 8;
+    private static final int radixBuckets = 1 << radixBits;
+    private static final int radixMask = radixBuckets - 1;
+    private RenderData[] unsorted = new RenderData[initialCapacity];
+    private RenderData[] swap = new RenderData[initialCapacity];
+    private int[] orders = new int[initialCapacity];
+    private int[] swapOrders = new int[initialCapacity];
+    private int[] buckets = new int[radixBuckets + 1];
+    private RenderData[] sorted = this.unsorted;
+    private int size = 0;
+    private boolean isSorted = true;
+
+    @Override
+    public void beginFrame() {
+        // don't keep the RenderData of the last frame alive
+        Arrays.fill(this.unsorted, 0, this.size, null);
+        Arrays.fill(this.swap, 0, this.size, null);
+        this.sorted = this.unsorted;
+        this.size = 0;
+        this.isSorted = true;
+    }
+
+    @Override
+    public void add(RenderData data) {
+        if (this.size == this.unsorted.length) {
+            this.grow();
+        }
+
+        this.unsorted[this.size] = data;
+        this.orders[this.size] = data.getRenderOrder();
+        this.size++;
+        this.isSorted = false;
+    }
+
+    private void grow() {
+        final int capacity = this.unsorted.length * 2;
+
+        this.unsorted = Arrays.copyOf(this.unsorted, capacity);
+        this.swap = new RenderData[capacity];
+        this.orders = Arrays.copyOf(this.orders, capacity);
+        this.swapOrders = new int[capacity];
+    }
+
+    @Override
+    public void sort() {
+        if (this.isSorted) {
+            return;
+        }
+
+        int minimum = Integer.MAX_VALUE;
+        int maximum = Integer.MIN_VALUE;
+
+        for (int i = 0; i < this.size; i++) {
+            final int order = this.orders[i];
+
+            if (order < minimum) {
+                minimum = order;
+            }
+
+            if (order > maximum) {
+                maximum = order;
+            }
+        }
+
+        final long bucketCount = ((long) maximum - minimum + 1) * 2;
+
+        if (bucketCount <= maximumCountingSortBuckets) {
+            this.countingSort(minimum, (int) bucketCount);
+        } else {
+            this.radixSort();
+        }
+
+        this.isSorted = true;
+    }
+
+    private int[] getBuckets(int bucketCount) {
+        if (this.buckets.length < bucketCount + 1) {
+            this.buckets = new int[bucketCount + 1];
+        } else {
+            Arrays.fill(this.buckets, 0, bucketCount + 1, 0);
+        }
+
+        return this.buckets;
+    }
+
+    private static int bucket(RenderData data, int order, int minimumOrder) {
+        // unprojected RenderData is rendered before the projected one
+        return ((order - minimumOrder) << 1) | (data.isRenderProjected() ? 1 : 0);
+    }
+
+    private void countingSort(int minimumOrder, int bucketCount) {
+        final int[] counts = this.getBuckets(bucketCount);
+
+        for (int i = 0; i < this.size; i++) {
+            counts[bucket(this.unsorted[i], this.orders[i], minimumOrder) + 1]++;
+        }
+
+        // counts[bucket] becomes the index of the first element in the bucket
+        for (int i = 1; i <= bucketCount; i++) {
+            counts[i] += counts[i - 1];
+        }
+
+        for (int i = 0; i < this.size; i++) {
+            final RenderData data = this.unsorted[i];
+
+            this.swap[counts[bucket(data, this.orders[i], minimumOrder)]++] = data;
+        }
+
+        this.sorted = this.swap;
+    }
+
+    private void radixSort() {
+        RenderData[] source = this.unsorted;
+        RenderData[] target = this.swap;
+        int[] sourceOrders = this.orders;
+        int[] targetOrders = this.swapOrders;
+
+        // the least significant 'digit' is renderProjected
+        final int[] counts = this.getBuckets(2);
+
+        for (int i = 0; i < this.size; i++) {
+            counts[(source[i].isRenderProjected() ? 1 : 0) + 1]++;
+        }
+
+        counts[1] += counts[0];
+
+        for (int i = 0; i < this.size; i++) {
+            final int index = counts[source[i].isRenderProjected() ? 1 : 0]++;
+            target[index] = source[i];
+            targetOrders[index] = sourceOrders[i];
+        }
+
+        RenderData[] tempData = source;
+        source = target;
+        target = tempData;
+        int[] tempOrders = sourceOrders;
+        sourceOrders = targetOrders;
+        targetOrders = tempOrders;
+
+        // then the renderOrder, one byte after the other
+        for (int shift = 0; shift < Integer.SIZE; shift += radixBits) {
+            final int[] digitCounts = this.getBuckets(radixBuckets);
+
+            for (int i = 0; i < this.size; i++) {
+                digitCounts[digit(sourceOrders[i], shift) + 1]++;
+            }
+
+            if (digitCounts[digit(sourceOrders[0], shift) + 1] == this.size) {
+                // all share the same digit - nothing to do in this pass
+                continue;
+            }
+
+            for (int i = 1; i <= radixBuckets; i++) {
+                digitCounts[i] += digitCounts[i - 1];
+            }
+
+            for (int i = 0; i < this.size; i++) {
+                final int index = digitCounts[digit(sourceOrders[i], shift)]++;
+                target[index] = source[i];
+                targetOrders[index] = sourceOrders[i];
+            }
+
+            tempData = source;
+            source = target;
+            target = tempData;
+            tempOrders = sourceOrders;
+            sourceOrders = targetOrders;
+            targetOrders = tempOrders;
+        }
+
+        // the result is in source - keep it in unsorted so that RenderData
+        // added after sorting is appended to the sorted RenderData
+        if (source != this.unsorted) {
+            System.arraycopy(source, 0, this.unsorted, 0, this.size);
+            System.arraycopy(sourceOrders, 0, this.orders, 0, this.size);
+        }
+
+        this.sorted = this.unsorted;
+    }
+
+    /**
+     * flips the sign bit so that negative renderOrders come first
+     */
+    private static int digit(int order, int shift) {
+        return ((order ^ Integer.MIN_VALUE) >>> shift) & radixMask;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public RenderData get(int index) {
+        return this.sorted[index];
+    }
+}
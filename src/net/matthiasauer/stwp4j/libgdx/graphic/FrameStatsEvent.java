@@ -0,0 +1,120 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import net.matthiasauer.stwp4j.libgdx.graphic.RenderProcess.FramePhase;
+import net.matthiasauer.stwp4j.libgdx.utils.PooledObject;
+
+/**
+ * Published after each frame if the RenderProcess has a frame stats channel -
+ * the events are recycled after the frame following the one they were
+ * published in, consumers mustn't keep references to them
+ */
+public class FrameStatsEvent extends PooledObject {
+    private final long[] nanos = new long[FramePhase.values().length];
+    private long frame;
+    private int renderData;
+    private int sprites;
+    private int texts;
+    private int drawn;
+    private int culled;
+    private int renderCalls;
+    private int textureSwitches;
+    private int projectionSwitches;
+    private long garbageCollections;
+    private long garbageCollectionMillis;
+    private long allocatedBytes;
+
+    public FrameStatsEvent() {
+    }
+
+    /**
+     * @param nanos
+     *            the nanoseconds per FramePhase - they are copied
+     */
+    FrameStatsEvent set(long frame, long[] nanos, int renderData, int sprites, int texts,
+            RenderStatistics statistics, long garbageCollections, long garbageCollectionMillis,
+            long allocatedBytes) {
+        System.arraycopy(nanos, 0, this.nanos, 0, this.nanos.length);
+        this.frame = frame;
+        this.renderData = renderData;
+        this.sprites = sprites;
+        this.texts = texts;
+        this.drawn = statistics.getDrawn();
+        this.culled = statistics.getCulled();
+        this.renderCalls = statistics.getRenderCalls();
+        this.textureSwitches = statistics.getTextureSwitches();
+        this.projectionSwitches = statistics.getProjectionSwitches();
+        this.garbageCollections = garbageCollections;
+        this.garbageCollectionMillis = garbageCollectionMillis;
+        this.allocatedBytes = allocatedBytes;
+
+        return this;
+    }
+
+    /**
+     * @return the nanoseconds the phase took in this frame
+     */
+    public long getNanos(FramePhase phase) {
+        return this.nanos[phase.ordinal()];
+    }
+
+    public long getFrame() {
+        return this.frame;
+    }
+
+    public int getRenderData() {
+        return this.renderData;
+    }
+
+    public int getSprites() {
+        return this.sprites;
+    }
+
+    public int getTexts() {
+        return this.texts;
+    }
+
+    public int getDrawn() {
+        return this.drawn;
+    }
+
+    public int getCulled() {
+        return this.culled;
+    }
+
+    public int getRenderCalls() {
+        return this.renderCalls;
+    }
+
+    public int getTextureSwitches() {
+        return this.textureSwitches;
+    }
+
+    public int getProjectionSwitches() {
+        return this.projectionSwitches;
+    }
+
+    /**
+     * @return the number of garbage collections during the iteration or -1 if
+     *         the allocation probe isn't available
+     */
+    public long getGarbageCollections() {
+        return this.garbageCollections;
+    }
+
+    /**
+     * @return the milliseconds spent collecting garbage during the iteration
+     *         or -1 if the allocation probe isn't available
+     */
+    public long getGarbageCollectionMillis() {
+        return this.garbageCollectionMillis;
+    }
+
+    /**
+     * @return the bytes allocated by the rendering thread during the
+     *         iteration (also by other processes of the Scheduler) or -1 if
+     *         the allocation probe isn't available
+     */
+    public long getAllocatedBytes() {
+        return this.allocatedBytes;
+    }
+}
@@ -0,0 +1,185 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import net.matthiasauer.stwp4j.ChannelOutPort;
+import net.matthiasauer.stwp4j.libgdx.graphic.RenderProcess.FramePhase;
+import net.matthiasauer.stwp4j.libgdx.utils.ObjectPool;
+
+/**
+ * Measures the phases of the frames of the RenderProcess with
+ * System.nanoTime - if disabled every method returns after checking a final
+ * field.
+ */
+final class FrameStatsRecorder {
+    private static final FramePhase[] PHASES = FramePhase.values();
+    private final boolean enabled;
+    private final ChannelOutPort<FrameStatsEvent> channel;
+    private final FrameTimeHistogram[] histograms;
+    private final AllocationProbe allocationProbe;
+    private final long[] nanos = new long[PHASES.length];
+    private final ObjectPool<FrameStatsEvent> eventPool = new ObjectPool<FrameStatsEvent>() {
+        @Override
+        protected FrameStatsEvent newObject() {
+            return new FrameStatsEvent();
+        }
+    };
+    /** the event published after the previous frame */
+    private FrameStatsEvent publishedEvent;
+    private FramePhase currentPhase;
+    private long currentPhaseStart;
+    private long drawingStart;
+    private long frame;
+    private boolean frameEnded = true;
+    private long garbageCollectionsBefore;
+    private long garbageCollectionMillisBefore;
+    private long allocatedBytesBefore;
+
+    FrameStatsRecorder(RenderProcessSettings settings) {
+        this.channel = settings.getFrameStatsChannel();
+        this.enabled = settings.isFrameStats() || (this.channel != null);
+
+        if (this.enabled) {
+            this.histograms = new FrameTimeHistogram[PHASES.length];
+
+            for (int i = 0; i < PHASES.length; i++) {
+                this.histograms[i] = new FrameTimeHistogram(settings.getFrameStatsWindow());
+            }
+        } else {
+            this.histograms = null;
+        }
+
+        this.allocationProbe = (this.enabled && settings.isAllocationProbe()) ? createAllocationProbe() : null;
+    }
+
+    private static AllocationProbe createAllocationProbe() {
+        try {
+            return new AllocationProbe();
+        } catch (LinkageError e) {
+            // the management beans aren't available on this platform
+            return null;
+        } catch (UnsupportedOperationException e) {
+            return null;
+        } catch (SecurityException e) {
+            return null;
+        }
+    }
+
+    boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Called before the channels of the iteration are drained - the
+     * iterations that aren't drawn are added to the following frame
+     */
+    void beginFrame() {
+        if (!this.enabled || !this.frameEnded) {
+            return;
+        }
+
+        this.frameEnded = false;
+
+        for (int i = 0; i < this.nanos.length; i++) {
+            this.nanos[i] = 0;
+        }
+
+        this.currentPhase = null;
+
+        if (this.allocationProbe != null) {
+            this.garbageCollectionsBefore = this.allocationProbe.getGarbageCollections();
+            this.garbageCollectionMillisBefore = this.allocationProbe.getGarbageCollectionMillis();
+            this.allocatedBytesBefore = this.allocationProbe.getAllocatedBytes();
+        }
+    }
+
+    /**
+     * Called when the drawing of the frame starts
+     */
+    void beginDrawing() {
+        if (this.enabled) {
+            this.drawingStart = System.nanoTime();
+        }
+    }
+
+    /**
+     * Ends the current phase (if any) and starts the phase - entering the
+     * current phase again doesn't read the clock
+     */
+    void enter(FramePhase phase) {
+        if (!this.enabled || (phase == this.currentPhase)) {
+            return;
+        }
+
+        final long now = System.nanoTime();
+
+        if (this.currentPhase != null) {
+            this.nanos[this.currentPhase.ordinal()] += now - this.currentPhaseStart;
+        }
+
+        this.currentPhase = phase;
+        this.currentPhaseStart = now;
+    }
+
+    /**
+     * Ends the current phase
+     */
+    void exit() {
+        if (!this.enabled || (this.currentPhase == null)) {
+            return;
+        }
+
+        this.nanos[this.currentPhase.ordinal()] += System.nanoTime() - this.currentPhaseStart;
+        this.currentPhase = null;
+    }
+
+    /**
+     * Adds the frame to the histograms and publishes it
+     */
+    void endFrame(int renderData, int sprites, int texts, RenderStatistics statistics) {
+        if (!this.enabled) {
+            return;
+        }
+
+        this.exit();
+        this.frameEnded = true;
+        this.nanos[FramePhase.Total.ordinal()] = System.nanoTime() - this.drawingStart
+                + this.nanos[FramePhase.Drain.ordinal()];
+        this.frame++;
+
+        for (int i = 0; i < this.nanos.length; i++) {
+            this.histograms[i].add(this.nanos[i]);
+        }
+
+        if (this.channel != null) {
+            // the event of the previous frame has been consumed by now
+            if (this.publishedEvent != null) {
+                this.publishedEvent.recycle();
+            }
+
+            long garbageCollections = -1;
+            long garbageCollectionMillis = -1;
+            long allocatedBytes = -1;
+
+            if (this.allocationProbe != null) {
+                garbageCollections = this.allocationProbe.getGarbageCollections() - this.garbageCollectionsBefore;
+                garbageCollectionMillis = this.allocationProbe.getGarbageCollectionMillis()
+                        - this.garbageCollectionMillisBefore;
+
+                if (this.allocatedBytesBefore != -1) {
+                    allocatedBytes = this.allocationProbe.getAllocatedBytes() - this.allocatedBytesBefore;
+                }
+            }
+
+            this.publishedEvent = this.eventPool.obtain().set(this.frame, this.nanos, renderData, sprites, texts,
+                    statistics, garbageCollections, garbageCollectionMillis, allocatedBytes);
+            this.channel.offer(this.publishedEvent);
+        }
+    }
+
+    FrameTimeHistogram getHistogram(FramePhase phase) {
+        if (!this.enabled) {
+            throw new IllegalStateException("the frame stats are only recorded if they are enabled !");
+        }
+
+        return this.histograms[phase.ordinal()];
+    }
+}
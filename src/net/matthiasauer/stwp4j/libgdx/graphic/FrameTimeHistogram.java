@@ -0,0 +1,99 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+/**
+ * Histogram of the nanoseconds a FramePhase took in the last frames - the
+ * oldest frame is removed when a frame is added to a full window. The bucket
+ * of a value is accurate to 1/16 of the value.
+ */
+public final class FrameTimeHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    private final int[] counts = new int[BUCKETS];
+    private final int[] window;
+    private int next;
+    private int count;
+
+    FrameTimeHistogram(int windowFrames) {
+        if (windowFrames < 1) {
+            throw new IllegalArgumentException("windowFrames must be at least 1 !");
+        }
+
+        this.window = new int[windowFrames];
+    }
+
+    static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) Math.max(nanos, 0);
+        }
+
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+        final int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return the highest value that falls into the bucket
+     */
+    static long highestValue(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        final int shift = bucket / SUB_BUCKETS - 1;
+        final long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+
+        return lowest + (1L << shift) - 1;
+    }
+
+    void add(long nanos) {
+        final int bucket = bucket(nanos);
+
+        if (this.count == this.window.length) {
+            this.counts[this.window[this.next]]--;
+        } else {
+            this.count++;
+        }
+
+        this.counts[bucket]++;
+        this.window[this.next] = bucket;
+        this.next = (this.next + 1) % this.window.length;
+    }
+
+    /**
+     * @return the number of frames in the window
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * @param percentile
+     *            the percentage of frames (0 - 100] that took at most the
+     *            returned time - f.e. 50 for the median or 99
+     * @return the nanoseconds of the percentile or 0 if no frame was added
+     */
+    public long getPercentile(double percentile) {
+        if (!(percentile > 0) || (percentile > 100)) {
+            throw new IllegalArgumentException("percentile must be greater than 0 and at most 100 !");
+        }
+
+        if (this.count == 0) {
+            return 0;
+        }
+
+        final int rank = Math.max(1, (int) Math.ceil(percentile / 100 * this.count));
+        int seen = 0;
+
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += this.counts[bucket];
+
+            if (seen >= rank) {
+                return highestValue(bucket);
+            }
+        }
+
+        throw new IllegalStateException("the buckets don't contain all frames !");
+    }
+}
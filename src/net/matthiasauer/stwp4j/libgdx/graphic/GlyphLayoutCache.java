@@ -0,0 +1,253 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout.GlyphRun;
+
+/**
+ * Caches the GlyphLayouts of texts keyed by their font and text. The number
+ * of entries and their estimated size in bytes are bounded - if the cache is
+ * full, entries are evicted in CLOCK order (an entry that was used since the
+ * hand passed it last gets a second chance). Lookups don't allocate, evicted
+ * GlyphLayouts are reused for the new entries.
+ */
+class GlyphLayoutCache {
+    private static final int EMPTY = -1;
+    /** estimated size of a GlyphLayout without glyphs */
+    private static final int LAYOUT_BYTES = 64;
+    /** estimated size of a glyph within a GlyphLayout (reference + advance) */
+    private static final int GLYPH_BYTES = 8;
+    private final RenderStatistics statistics;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final int mask;
+    /** the index of the entry stored in the slot, or EMPTY */
+    private final int[] slots;
+    private final BitmapFont[] fonts;
+    private final String[] texts;
+    private final int[] hashes;
+    private final GlyphLayout[] layouts;
+    private final int[] bytes;
+    private final boolean[] referenced;
+    private int entries;
+    private long usedBytes;
+    private int hand;
+
+    public GlyphLayoutCache(RenderStatistics statistics, int maxEntries, long maxBytes) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1 !");
+        }
+
+        this.statistics = statistics;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+
+        // keep the load factor of the table at or below 0.5
+        int capacity = Integer.highestOneBit(maxEntries) << 2;
+        this.mask = capacity - 1;
+        this.slots = new int[capacity];
+
+        for (int i = 0; i < capacity; i++) {
+            this.slots[i] = EMPTY;
+        }
+
+        this.fonts = new BitmapFont[maxEntries];
+        this.texts = new String[maxEntries];
+        this.hashes = new int[maxEntries];
+        this.layouts = new GlyphLayout[maxEntries];
+        this.bytes = new int[maxEntries];
+        this.referenced = new boolean[maxEntries];
+    }
+
+    /**
+     * @return the GlyphLayout of the text - it is only valid until the next
+     *         call of this method
+     */
+    public GlyphLayout get(BitmapFont font, String text) {
+        final int hash = hash(font, text);
+        int slot = hash & this.mask;
+
+        while (this.slots[slot] != EMPTY) {
+            final int entry = this.slots[slot];
+
+            if ((this.hashes[entry] == hash) && (this.fonts[entry] == font) && this.texts[entry].equals(text)) {
+                this.referenced[entry] = true;
+                this.statistics.addGlyphLayoutCacheHit();
+
+                return this.layouts[entry];
+            }
+
+            slot = (slot + 1) & this.mask;
+        }
+
+        this.statistics.addGlyphLayoutCacheMiss();
+
+        return this.insert(slot, hash, font, text);
+    }
+
+    private GlyphLayout insert(int freeSlot, int hash, BitmapFont font, String text) {
+        final int entry;
+        GlyphLayout layout;
+
+        if (this.entries < this.maxEntries) {
+            entry = this.entries++;
+            layout = new GlyphLayout();
+        } else {
+            entry = this.evict(EMPTY);
+            layout = this.layouts[entry];
+            // the eviction may have moved the slots
+            freeSlot = this.findFreeSlot(hash);
+        }
+
+        layout.setText(font, text);
+
+        final int size = estimateBytes(layout);
+
+        this.fonts[entry] = font;
+        this.texts[entry] = text;
+        this.hashes[entry] = hash;
+        this.layouts[entry] = layout;
+        this.bytes[entry] = size;
+        this.referenced[entry] = false;
+        this.slots[freeSlot] = entry;
+        this.usedBytes += size;
+
+        this.evictExceedingBytes(entry);
+
+        return layout;
+    }
+
+    private void evictExceedingBytes(int inserted) {
+        while ((this.usedBytes > this.maxBytes) && (this.entries > 1)) {
+            // the inserted entry mustn't be evicted immediately
+            final int entry = this.evict(inserted);
+            final int last = this.entries - 1;
+
+            // keep the entries dense by moving the last one into the gap
+            if (entry != last) {
+                this.moveEntry(last, entry);
+            }
+
+            this.fonts[last] = null;
+            this.texts[last] = null;
+            this.layouts[last] = null;
+            this.entries--;
+
+            if (inserted == last) {
+                inserted = entry;
+            }
+
+            if (this.hand >= this.entries) {
+                this.hand = 0;
+            }
+        }
+    }
+
+    /**
+     * @param skipped
+     *            the index of the entry that mustn't be evicted or EMPTY
+     * @return the index of the evicted entry, its GlyphLayout can be reused
+     */
+    private int evict(int skipped) {
+        while ((this.hand == skipped) || this.referenced[this.hand]) {
+            if (this.hand != skipped) {
+                // second chance
+                this.referenced[this.hand] = false;
+            }
+
+            this.hand = (this.hand + 1) % this.entries;
+        }
+
+        final int entry = this.hand;
+
+        this.hand = (this.hand + 1) % this.entries;
+        this.removeSlot(entry);
+        this.usedBytes -= this.bytes[entry];
+        this.fonts[entry] = null;
+        this.texts[entry] = null;
+        this.statistics.addGlyphLayoutCacheEviction();
+
+        return entry;
+    }
+
+    private void moveEntry(int from, int to) {
+        int slot = this.hashes[from] & this.mask;
+
+        while (this.slots[slot] != from) {
+            slot = (slot + 1) & this.mask;
+        }
+
+        this.slots[slot] = to;
+        this.fonts[to] = this.fonts[from];
+        this.texts[to] = this.texts[from];
+        this.hashes[to] = this.hashes[from];
+        this.layouts[to] = this.layouts[from];
+        this.bytes[to] = this.bytes[from];
+        this.referenced[to] = this.referenced[from];
+    }
+
+    private int findFreeSlot(int hash) {
+        int slot = hash & this.mask;
+
+        while (this.slots[slot] != EMPTY) {
+            slot = (slot + 1) & this.mask;
+        }
+
+        return slot;
+    }
+
+    /**
+     * removes the slot of the entry and shifts the following slots back, so
+     * that linear probing still finds them
+     */
+    private void removeSlot(int entry) {
+        int slot = this.hashes[entry] & this.mask;
+
+        while (this.slots[slot] != entry) {
+            slot = (slot + 1) & this.mask;
+        }
+
+        int next = (slot + 1) & this.mask;
+
+        while (this.slots[next] != EMPTY) {
+            final int home = this.hashes[this.slots[next]] & this.mask;
+
+            // move the entry if its home isn't between the gap and its slot
+            if (((next - home) & this.mask) >= ((next - slot) & this.mask)) {
+                this.slots[slot] = this.slots[next];
+                slot = next;
+            }
+
+            next = (next + 1) & this.mask;
+        }
+
+        this.slots[slot] = EMPTY;
+    }
+
+    public int size() {
+        return this.entries;
+    }
+
+    public long getUsedBytes() {
+        return this.usedBytes;
+    }
+
+    private static int hash(BitmapFont font, String text) {
+        final int hash = System.identityHashCode(font) * 31 + text.hashCode();
+
+        // spread the high bits, the table is indexed with the low bits
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int estimateBytes(GlyphLayout layout) {
+        int size = LAYOUT_BYTES;
+
+        for (int i = 0; i < layout.runs.size; i++) {
+            final GlyphRun run = layout.runs.get(i);
+
+            size += LAYOUT_BYTES + run.glyphs.size * GLYPH_BYTES;
+        }
+
+        return size;
+    }
+}
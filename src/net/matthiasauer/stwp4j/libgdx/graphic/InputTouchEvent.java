@@ -2,7 +2,19 @@ package net.matthiasauer.stwp4j.libgdx.graphic;
 
 import com.badlogic.gdx.math.Vector2;
 
-public class InputTouchEvent {
+import net.matthiasauer.stwp4j.libgdx.utils.PooledObject;
+
+/**
+ * InputTouchEvents published by the RenderProcess are recycled after the
+ * iteration following the one they were published in - consumers mustn't keep
+ * references to them
+ */
+public class InputTouchEvent extends PooledObject {
+    /**
+     * the number of pointers that are tracked - events of pointers with a
+     * higher index are ignored
+     */
+    public static final int MAX_POINTERS = 20;
     private final Vector2 projected = new Vector2();
     private final Vector2 unprojected = new Vector2();
     private boolean isProjected;
@@ -12,9 +24,37 @@ public class InputTouchEvent {
     private InputTouchEventType inputType;
     private boolean isTouched;
     private int argument;
+    private int pointer;
+    
+    public InputTouchEvent() {
+    }
     
     public InputTouchEvent(int screenX, int screenY, InputTouchEventType inputType, int argument, boolean isTouched, Vector2 projected,
             Vector2 unprojected) {
+        this.set(screenX, screenY, inputType, argument, isTouched, projected, unprojected);
+    }
+    
+    public InputTouchEvent set(int screenX, int screenY, InputTouchEventType inputType, int argument, boolean isTouched, Vector2 projected,
+            Vector2 unprojected) {
+        return this.set(screenX, screenY, inputType, argument, 0, isTouched, projected, unprojected);
+    }
+    
+    /**
+     * @param argument
+     *            the button that is (or was) pressed by the pointer
+     * @param pointer
+     *            the index of the finger (0 - MAX_POINTERS), the mouse is
+     *            pointer 0
+     * @param isTouched
+     *            if the pointer is pressed after the event
+     */
+    public InputTouchEvent set(int screenX, int screenY, InputTouchEventType inputType, int argument, int pointer,
+            boolean isTouched, Vector2 projected, Vector2 unprojected) {
+        if ((pointer < 0) || (pointer >= MAX_POINTERS)) {
+            throw new IllegalArgumentException("pointer must be between 0 and " + (MAX_POINTERS - 1) + " !");
+        }
+        
+        this.pointer = pointer;
         this.screenX = screenX;
         this.screenY = screenY;
         this.inputType = inputType;
@@ -22,6 +62,16 @@ public class InputTouchEvent {
         this.projected.set(projected);
         this.unprojected.set(unprojected);
         this.isTouched = isTouched;
+        this.isProjected = false;
+        this.touchedRenderDataId = null;
+        
+        return this;
+    }
+    
+    @Override
+    protected void reset() {
+        this.touchedRenderDataId = null;
+        this.inputType = null;
     }
     
     public int getScreenX() {
@@ -40,6 +90,10 @@ public class InputTouchEvent {
         return this.argument;
     }
 
+    public int getPointer() {
+        return this.pointer;
+    }
+
     public boolean isProjected() {
         return this.isProjected;
     }
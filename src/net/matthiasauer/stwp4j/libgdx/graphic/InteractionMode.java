@@ -0,0 +1,22 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+/**
+ * Determines whether and how RenderData can be touched by InputTouchEvents
+ */
+public enum InteractionMode {
+    /**
+     * the RenderData is never touched - it isn't taken into account when
+     * searching the touched RenderData
+     */
+    None,
+    /**
+     * the RenderData is touched anywhere inside of its rectangle - the
+     * default of TextRenderData
+     */
+    BoundingBox,
+    /**
+     * the RenderData is only touched on its visible pixels - the default of
+     * SpriteRenderData, TextRenderData uses its rectangle instead
+     */
+    PixelPerfect
+}
@@ -1,14 +1,18 @@
 package net.matthiasauer.stwp4j.libgdx.graphic;
 
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ThreadFactory;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.InputProcessor;
 import com.badlogic.gdx.graphics.Camera;
 import com.badlogic.gdx.graphics.OrthographicCamera;
-import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
@@ -16,210 +20,417 @@ import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.viewport.Viewport;
 
 import net.matthiasauer.stwp4j.ChannelOutPort;
+import net.matthiasauer.stwp4j.libgdx.graphic.RenderProcess.PickingEngine;
 import net.matthiasauer.stwp4j.libgdx.utils.InputTools;
+import net.matthiasauer.stwp4j.libgdx.utils.ObjectPool;
 
 class InteractionSubProcess implements InputProcessor {
+    /** the number of candidates a task of the parallel picking tests itself */
+    private static final int PARALLEL_PICKING_LEAF_SIZE = 512;
+    private final ObjectPool<InputTouchEvent> inputTouchEventPool = new ObjectPool<InputTouchEvent>() {
+        @Override
+        protected InputTouchEvent newObject() {
+            return new InputTouchEvent();
+        }
+    };
+    private final ObjectPool<RenderedData> renderedDataPool = new ObjectPool<RenderedData>() {
+        @Override
+        protected RenderedData newObject() {
+            return new RenderedData();
+        }
+    };
     private final ArrayList<InputTouchEvent> lastEvents;
-    private final Set<RenderedData> renderedData;
+    private final List<InputTouchEvent> publishedEvents;
+    private final List<RenderedData> renderedData;
+    private final PickingGrid projectedGrid;
+    private final PickingGrid unprojectedGrid;
+    /** null if the geometric picking engine is used */
+    private final PickBuffer projectedPickBuffer;
+    private final PickBuffer unprojectedPickBuffer;
+    /** rasterizes the bands of the pick buffers or null */
+    private final ExecutorService pickBufferExecutor;
+    private final float pickBufferScale;
+    private final boolean pickBufferAlphaMasks;
+    private final boolean inputEventCoalescing;
+    private final int parallelPickingThreshold;
+    /** created when the first event has more candidates than the threshold */
+    private ForkJoinPool parallelPickingPool;
+    private int[] remainingCandidates = new int[64];
+    /** the masks of the remaining candidates - built before forking */
+    private AlphaMask[] remainingMasks = new AlphaMask[64];
+    /** the scratch space of the leaves of the parallel picking */
+    private PickScratch[] pickScratches = new PickScratch[0];
+    private final RenderStatistics statistics;
+    /** the number of events merged since the last iteration */
+    private int coalescedEvents;
+    /** detects whether the touchable RenderedData changed */
+    private final TouchableScene touchableScene = new TouchableScene();
+    private final float[] pickKey = new float[17];
+    // per pointer - the state the last search for the touched RenderData
+    // depended on and its result
+    private final float[][] cachedPickKeys = new float[InputTouchEvent.MAX_POINTERS][17];
+    private final boolean[] hasCachedPick = new boolean[InputTouchEvent.MAX_POINTERS];
+    private final long[] cachedSceneVersions = new long[InputTouchEvent.MAX_POINTERS];
+    private final String[] cachedTouchedIds = new String[InputTouchEvent.MAX_POINTERS];
+    private final boolean[] cachedTouchedProjected = new boolean[InputTouchEvent.MAX_POINTERS];
     private final OrthographicCamera camera;
     private final RenderTextureArchiveSystem archive;
     private final Vector3 temp;
     private final Vector2 projected;
     private final Vector2 unprojected;
+    private final Vector2 projectedPickPosition = new Vector2();
+    private final Vector2 unprojectedPickPosition = new Vector2();
+    private final Vector2 position = new Vector2();
+    private final PickTransform pickTransform = new PickTransform();
+    private final Vector2 rotationCenter = new Vector2();
+    private final Rectangle rectangle = new Rectangle();
     private final Viewport viewPort;
-    private InputTouchEvent lastIterationLastEvent = null;
+    private final boolean enabled;
+    // per pointer - the state after the saved events
+    private final boolean[] pointerTouched = new boolean[InputTouchEvent.MAX_POINTERS];
+    private final int[] pointerButtons = new int[InputTouchEvent.MAX_POINTERS];
+    /** the index of the last event of the pointer in lastEvents or -1 */
+    private final int[] pointerLastEventIndices = new int[InputTouchEvent.MAX_POINTERS];
+    // per pointer - the last event published in an iteration
+    private final boolean[] hasLastIterationLastEvent = new boolean[InputTouchEvent.MAX_POINTERS];
+    private final int[] lastIterationLastEventScreenX = new int[InputTouchEvent.MAX_POINTERS];
+    private final int[] lastIterationLastEventScreenY = new int[InputTouchEvent.MAX_POINTERS];
+    private final InputTouchEventType[] lastIterationLastEventType =
+            new InputTouchEventType[InputTouchEvent.MAX_POINTERS];
+    private final int[] lastIterationLastEventArgument = new int[InputTouchEvent.MAX_POINTERS];
 
-    public InteractionSubProcess(OrthographicCamera camera, Viewport viewPort) {
-        this.archive = new RenderTextureArchiveSystem();
-        this.renderedData = new HashSet<RenderedData>();
+    /**
+     * @param enabled
+     *            if false no RenderedData is collected because no
+     *            InputTouchEvents are created
+     * @param settings
+     *            provides the picking engine and the input event coalescing
+     */
+    public InteractionSubProcess(OrthographicCamera camera, Viewport viewPort, RenderTextureArchiveSystem archive,
+            boolean enabled, RenderProcessSettings settings, RenderStatistics statistics) {
+        this.enabled = enabled;
+        this.archive = archive;
+        this.renderedData = new ArrayList<RenderedData>();
+        this.projectedGrid = new PickingGrid();
+        this.unprojectedGrid = new PickingGrid();
         this.lastEvents = new ArrayList<InputTouchEvent>();
+        this.publishedEvents = new ArrayList<InputTouchEvent>();
         this.camera = camera;
         this.temp = new Vector3();
         this.projected = new Vector2();
         this.unprojected = new Vector2();
         this.viewPort = viewPort;
+        this.pickBufferScale = settings.getPickBufferScale();
+        this.pickBufferAlphaMasks = settings.isPickBufferAlphaMasks();
+        this.inputEventCoalescing = settings.isInputEventCoalescing();
+        this.parallelPickingThreshold = settings.getParallelPickingThreshold();
+        this.statistics = statistics;
+        Arrays.fill(this.pointerLastEventIndices, -1);
+
+        if (settings.getPickingEngine() == PickingEngine.PickBuffer) {
+            final int threads = settings.getPickBufferThreads();
+
+            this.pickBufferExecutor = (threads > 1) ? createPickBufferExecutor(threads) : null;
+            this.projectedPickBuffer = new PickBuffer(this.pickBufferExecutor, threads);
+            this.unprojectedPickBuffer = new PickBuffer(this.pickBufferExecutor, threads);
+        } else {
+            this.pickBufferExecutor = null;
+            this.projectedPickBuffer = null;
+            this.unprojectedPickBuffer = null;
+        }
 
         // register this process as an input processor
         InputTools.addInputProcessor(this);
     }
 
     public void preIteration() {
+        for (int i = 0; i < this.renderedData.size(); i++) {
+            this.renderedData.get(i).recycle();
+        }
+
         this.renderedData.clear();
+        this.touchableScene.beginFrame();
+        this.projectedGrid.clear();
+        this.unprojectedGrid.clear();
+    }
+
+    private static ExecutorService createPickBufferExecutor(int threads) {
+        return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "pick-buffer");
+                thread.setDaemon(true);
+
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * stops the threads used for picking
+     */
+    public void dispose() {
+        if (this.pickBufferExecutor != null) {
+            this.pickBufferExecutor.shutdown();
+        }
+
+        if (this.parallelPickingPool != null) {
+            this.parallelPickingPool.shutdown();
+        }
+    }
+
+    /**
+     * @return a RenderedData that is recycled before the next frame
+     */
+    public RenderedData obtainRenderedData() {
+        return this.renderedDataPool.obtain();
     }
 
+    /**
+     * @return true if the RenderData can be touched and its RenderedData has
+     *         to be added
+     */
+    public boolean isInteractive(RenderData data) {
+        return this.enabled && (data.getInteractionMode() != InteractionMode.None);
+    }
+
+    /**
+     * must be called in the order the RenderData is drawn
+     */
     public void addRenderedData(RenderedData data) {
+        this.addToGrid(this.renderedData.size(), data);
         this.renderedData.add(data);
+        // the touched RenderData only has to be searched again if the
+        // touchable RenderedData changed
+        this.touchableScene.add(data);
     }
 
+    /**
+     * publishes the events to the channel - they are recycled after the
+     * following iteration
+     */
     public void postIteration(ChannelOutPort<InputTouchEvent> outPort) {
-        RenderedData touchedRenderedData = null;
-
-        // if no event would be fired -
-        if (this.lastEvents.isEmpty()) {
-            if (this.lastIterationLastEvent != null) {
-                this.saveEvent((int) this.lastIterationLastEvent.getScreenX(),
-                        (int) this.lastIterationLastEvent.getScreenY(),
-                        this.lastIterationLastEvent.getInputTouchEventType(),
-                        this.lastIterationLastEvent.getArgument());
-            }
+        this.pickEvents();
+
+        for (int i = 0; i < this.publishedEvents.size(); i++) {
+            outPort.offer(this.publishedEvents.get(i));
         }
+    }
+
+    /**
+     * publishes the events to the simulation thread instead of a channel -
+     * the RenderFrameBuffer copies them, so they are recycled right away
+     */
+    public void postIteration(RenderFrameBuffer renderFrameBuffer) {
+        this.pickEvents();
 
-        for (InputTouchEvent eventToProcess : this.lastEvents) {
+        for (int i = 0; i < this.publishedEvents.size(); i++) {
+            final InputTouchEvent event = this.publishedEvents.get(i);
 
-            if (touchedRenderedData == null) {
-                // find the entity that is touched by the event
-                touchedRenderedData = this.iterateOverAllEntitiesToFindTouched(eventToProcess);
-            }
+            renderFrameBuffer.offerInputTouchEvent(event);
+            event.recycle();
+        }
 
-            if (touchedRenderedData != null) {
-                eventToProcess.setProjected(touchedRenderedData.getRenderData().isRenderProjected());
-                eventToProcess.setTouchedRenderDataId(touchedRenderedData.getRenderData().getId());
+        this.publishedEvents.clear();
+    }
+
+    /**
+     * picks the touched RenderData of the events of the iteration and adds
+     * them to the publishedEvents
+     */
+    private void pickEvents() {
+        // the events published in the last iteration have been consumed
+        for (int i = 0; i < this.publishedEvents.size(); i++) {
+            this.publishedEvents.get(i).recycle();
+        }
+
+        this.publishedEvents.clear();
+        this.touchableScene.endFrame();
+        this.statistics.addCoalescedInputEvents(this.coalescedEvents);
+        this.coalescedEvents = 0;
+        this.pickTransform.update(this.camera, this.viewPort);
+
+        for (int pointer = 0; pointer < InputTouchEvent.MAX_POINTERS; pointer++) {
+            // if no event of the pointer would be fired - repeat its last one,
+            // unless it is a finger that was lifted
+            if ((this.pointerLastEventIndices[pointer] == -1) && this.hasLastIterationLastEvent[pointer]
+                    && ((pointer == 0) || this.pointerTouched[pointer])) {
+                this.saveEvent(this.lastIterationLastEventScreenX[pointer],
+                        this.lastIterationLastEventScreenY[pointer], this.lastIterationLastEventType[pointer],
+                        this.lastIterationLastEventArgument[pointer], pointer);
             }
+        }
+
+        if ((this.projectedPickBuffer != null) && !this.lastEvents.isEmpty()) {
+            this.updatePickBufferAreas();
+            this.fillPickBuffers();
+        }
 
-            outPort.offer(eventToProcess);
+        // the events of all pointers are picked in one pass
+        for (int i = 0; i < this.lastEvents.size(); i++) {
+            final InputTouchEvent eventToProcess = this.lastEvents.get(i);
+            final int pointer = eventToProcess.getPointer();
+
+            this.pick(eventToProcess);
+            this.publishedEvents.add(eventToProcess);
 
             // store the last event
-            this.lastIterationLastEvent = eventToProcess;
+            this.hasLastIterationLastEvent[pointer] = true;
+            this.lastIterationLastEventScreenX[pointer] = eventToProcess.getScreenX();
+            this.lastIterationLastEventScreenY[pointer] = eventToProcess.getScreenY();
+            this.lastIterationLastEventType[pointer] = eventToProcess.getInputTouchEventType();
+            this.lastIterationLastEventArgument[pointer] = eventToProcess.getArgument();
         }
 
         this.lastEvents.clear();
+        Arrays.fill(this.pointerLastEventIndices, -1);
     }
 
-    private Rectangle getRectangle(boolean isProjected, RenderedData renderedComponent) {
-        if (isProjected) {
-            return renderedComponent.getRenderedTarget();
+    /**
+     * sets the touched RenderData of the event - the last result of the
+     * pointer is reused if the event, the camera and the touchable
+     * RenderedData didn't change (f.e. the event repeated while the pointer
+     * hovers)
+     */
+    private void pick(InputTouchEvent event) {
+        final int pointer = event.getPointer();
+
+        this.fillPickKey(event);
+
+        if (this.hasCachedPick[pointer] && (this.cachedSceneVersions[pointer] == this.touchableScene.getVersion())
+                && Arrays.equals(this.pickKey, this.cachedPickKeys[pointer])) {
+            this.statistics.addPickCacheHit();
         } else {
-            Rectangle rectangle = new Rectangle(renderedComponent.getRenderedTarget());
+            // find the entity that is touched by the event
+            final RenderedData touchedRenderedData = this.iterateOverAllEntitiesToFindTouched(event);
+
+            if (touchedRenderedData != null) {
+                this.cachedTouchedIds[pointer] = touchedRenderedData.getRenderData().getId();
+                this.cachedTouchedProjected[pointer] = touchedRenderedData.getRenderData().isRenderProjected();
+            } else {
+                this.cachedTouchedIds[pointer] = null;
+            }
+
+            System.arraycopy(this.pickKey, 0, this.cachedPickKeys[pointer], 0, this.pickKey.length);
+            this.cachedSceneVersions[pointer] = this.touchableScene.getVersion();
+            this.hasCachedPick[pointer] = true;
+            this.statistics.addPickedInputEvent();
+        }
+
+        if (this.cachedTouchedIds[pointer] != null) {
+            event.setProjected(this.cachedTouchedProjected[pointer]);
+            event.setTouchedRenderDataId(this.cachedTouchedIds[pointer]);
+        }
+    }
 
+    /**
+     * fills the pickKey with everything the search for the touched
+     * RenderData depends on, except for the RenderedData
+     */
+    private void fillPickKey(InputTouchEvent event) {
+        final float[] key = this.pickKey;
+
+        key[0] = event.getScreenX();
+        key[1] = event.getScreenY();
+        key[2] = event.getPosition(true).x;
+        key[3] = event.getPosition(true).y;
+        key[4] = event.getPosition(false).x;
+        key[5] = event.getPosition(false).y;
+        key[6] = this.camera.position.x;
+        key[7] = this.camera.position.y;
+        key[8] = this.camera.zoom;
+        key[9] = this.camera.viewportWidth;
+        key[10] = this.camera.viewportHeight;
+        key[11] = this.viewPort.getScreenX();
+        key[12] = this.viewPort.getScreenY();
+        key[13] = this.viewPort.getScreenWidth();
+        key[14] = this.viewPort.getScreenHeight();
+        key[15] = this.viewPort.getWorldWidth();
+        key[16] = this.viewPort.getWorldHeight();
+    }
+
+    private void getRectangle(boolean isProjected, RenderedData renderedComponent, Rectangle result) {
+        result.set(renderedComponent.getRenderedTarget());
+
+        if (!isProjected) {
             // 'unzoom' the rendered rectangle - because the
             // position is also 'unzoomed' (unprojected)
 
             float zoomFactor = renderedComponent.getZoomFactor();
 
-            rectangle.x /= zoomFactor;
-            rectangle.y /= zoomFactor;
+            result.x /= zoomFactor;
+            result.y /= zoomFactor;
+        }
+    }
 
-            return rectangle;
+    /**
+     * @return the center the RenderData is rotated around
+     */
+    private Vector2 getCenterOfRotation(Rectangle rectangle, Class<? extends RenderData> specializationType,
+            Vector2 result) {
+        if (specializationType == TextRenderData.class) {
+            return rectangle.getPosition(result);
         }
+
+        return rectangle.getCenter(result);
     }
 
     /**
      * Instead of rotating the image we only rotate the mouse position !
      * 
      * @param position
+     *            is rotated in place by the inverse rotation of the
+     *            RenderedData
      * @param rectangle
-     * @param rotation
-     * @param specializationType
+     * @param renderedData
      */
-    private Vector2 rotatePosition(Vector2 position, Rectangle rectangle, float rotation,
-            Class<? extends RenderData> specializationType) {
-        rotation = 360 - rotation;
-
-        // get center of rectangle
-        Vector2 center = new Vector2();
-        center = rectangle.getCenter(center);
-
-        if (specializationType == TextRenderData.class) {
-            rectangle.getPosition(center);
-        }
+    private void rotatePosition(Vector2 position, Rectangle rectangle, RenderedData renderedData,
+            Vector2 rotationCenter) {
+        // get center of rotation
+        final Vector2 center = this.getCenterOfRotation(rectangle, renderedData.getRenderData().getClass(),
+                rotationCenter);
+        final float cos = renderedData.getInverseRotationCos();
+        final float sin = renderedData.getInverseRotationSin();
 
         // the arrow points from the center to the position
-        // we create a new vecotr because we don't want to modify the position !
-        Vector2 arrow = new Vector2(position);
-        arrow.sub(center);
-
-        // now rotate the arrow
-        arrow.rotate(rotation);
+        final float x = position.x - center.x;
+        final float y = position.y - center.y;
 
-        // finally attach it to the center again !
-        arrow.add(center);
+        // now rotate the arrow and attach it to the center again !
+        position.x = center.x + x * cos - y * sin;
+        position.y = center.y + x * sin + y * cos;
+    }
 
-        return arrow;
+    private boolean touchesVisiblePartOfTarget(Vector2 pickPosition, RenderedData renderedData) {
+        return this.touchesVisiblePartOfTarget(pickPosition, renderedData, null, this.rectangle, this.position,
+                this.rotationCenter);
     }
 
-    private boolean touchesVisiblePartOfTarget(InputTouchEvent eventData, RenderedData renderedData) {
+    /**
+     * the rectangle and the vectors are used as scratch space - the method
+     * can be called concurrently if they aren't shared and the mask of pixel
+     * perfect sprites is passed
+     * 
+     * @param mask
+     *            the mask of the sprite or null to get it from the archive
+     */
+    private boolean touchesVisiblePartOfTarget(Vector2 pickPosition, RenderedData renderedData, AlphaMask mask,
+            Rectangle rectangle, Vector2 position, Vector2 rotationCenter) {
         final RenderData renderData = renderedData.getRenderData();
         final Class<? extends RenderData> specializationType = renderData.getClass();
-        boolean isProjected = renderData.isRenderProjected();
-        Vector2 position = new Vector2(eventData.getPosition(isProjected));
-        Rectangle rectangle = this.getRectangle(isProjected, renderedData);
-        boolean isHeightStretched = Math.abs(this.viewPort.getWorldHeight() - this.viewPort.getScreenHeight()) > 2;
-        boolean isWidthStretched = Math.abs(this.viewPort.getWorldWidth() - this.viewPort.getScreenWidth()) > 2;
-        boolean isStretched = isHeightStretched || isWidthStretched;
-        boolean widthAspectRatioKept = this.viewPort.getScreenX() != 0;
-        boolean heightAspectRatioKept = this.viewPort.getScreenY() != 0;
-        boolean aspectRatioKept = widthAspectRatioKept || heightAspectRatioKept;
-
-        if (!isStretched || !isProjected || aspectRatioKept) {
-            if (!(isProjected && isStretched && aspectRatioKept)) {
-                position.x /= this.viewPort.getScreenWidth() / this.viewPort.getWorldWidth();
-                position.y /= this.viewPort.getScreenHeight() / this.viewPort.getWorldHeight();
-            }
 
-            Vector2 unProjectedPosition = new Vector2(eventData.getPosition(false));
-            unProjectedPosition.x /= this.viewPort.getScreenWidth() / this.viewPort.getWorldWidth();
-            unProjectedPosition.y /= this.viewPort.getScreenHeight() / this.viewPort.getWorldHeight();
-
-            // if the mouse is beyond the screen (f.e. stretched but ratio is
-            // kept)
-            if (Math.abs(unProjectedPosition.x) > Math.abs(this.camera.viewportWidth / 2)) {
-                // there can't be any entity because there is nothing rendered
-                // there
-                // !
-                return false;
-            }
-
-            // if the mouse is beyond the screen (f.e. stretched but ratio is
-            // kept)
-            if (Math.abs(unProjectedPosition.y) > Math.abs(this.camera.viewportHeight / 2)) {
-                // there can't be any entity because there is nothing rendered
-                // there
-                // !
-                return false;
-            }
-        }
-
-        if (isProjected) {
-            float realX = this.viewPort.getScreenX() * 2 + this.viewPort.getScreenWidth();
-            float realY = this.viewPort.getScreenY() * 2 + this.viewPort.getScreenHeight();
-
-            if (isStretched && aspectRatioKept) {
-                float factorX = realX / this.viewPort.getScreenWidth();
-                float factorY = realY / this.viewPort.getScreenHeight();
-
-                // first remove the camera translation
-                position.x -= this.camera.position.x;
-                position.y -= this.camera.position.y;
-
-                // scale position
-                position.x *= factorX;
-                position.y *= factorY;
-
-                // restore camera translation
-                position.x += this.camera.position.x;
-                position.y += this.camera.position.y;
-            } else {
-                // first remove the camera translation
-                position.x -= this.camera.position.x;
-                position.y -= this.camera.position.y;
-
-                position.x /= this.viewPort.getScreenWidth() / realX;
-                position.y /= this.viewPort.getScreenHeight() / realY;
-
-                // restore camera translation
-                position.x += this.camera.position.x;
-                position.y += this.camera.position.y;
-            }
-        }
+        position.set(pickPosition);
+        this.getRectangle(renderData.isRenderProjected(), renderedData, rectangle);
 
         if (renderData.getRotation() != 0) {
-            // get a new 'rotated vector'
-            position = this.rotatePosition(position, rectangle, renderData.getRotation(), specializationType);
+            // get a 'rotated vector'
+            this.rotatePosition(position, rectangle, renderedData, rotationCenter);
         }
 
         // if in the bounding box
         if (rectangle.contains(position)) {
-            if (specializationType == TextRenderData.class) {
+            if ((specializationType == TextRenderData.class)
+                    || (renderData.getInteractionMode() == InteractionMode.BoundingBox)) {
                 // for the text render the mouse has to be just in the rectangle
                 // !
                 return true;
@@ -233,7 +444,11 @@ class InteractionSubProcess implements InputProcessor {
                     throw new NullPointerException("texture was null !");
                 }
 
-                if (this.isClickedPixelVisible(rectangle, spriteTexture, position)) {
+                if (mask == null) {
+                    mask = this.archive.getMask(spriteTexture);
+                }
+
+                if (this.isClickedPixelVisible(rectangle, mask, position)) {
                     return true;
                 }
             }
@@ -242,47 +457,292 @@ class InteractionSubProcess implements InputProcessor {
         return false;
     }
 
-    private RenderedData iterateOverAllEntitiesToFindTouched(InputTouchEvent eventData) {
-        int orderOfCurrentTarget = -1;
-        RenderedData touchedRenderedData = null;
-
-        // go over all entities
-        for (RenderedData renderedData : this.renderedData) {
-            // search for the one that is touched and has the highest order of
-            // the layer
-            if (this.touchesVisiblePartOfTarget(eventData, renderedData)) {
-                final int renderOrder = renderedData.getRenderData().getRenderOrder();
-
-                if (renderOrder > orderOfCurrentTarget) {
-                    touchedRenderedData = renderedData;
-                    orderOfCurrentTarget = renderOrder;
+    /**
+     * @return the draw index of the RenderedData in front that is touched in
+     *         the space or -1
+     */
+    private int findTouched(PickingGrid grid, Vector2 pickPosition, int touchedInOtherSpace) {
+        grid.query(pickPosition.x, pickPosition.y);
+
+        int candidate;
+        int tested = 0;
+
+        // the candidates are visited front to back
+        while ((candidate = grid.nextCandidate()) > touchedInOtherSpace) {
+            if (tested == this.parallelPickingThreshold) {
+                // too many candidates - test the remaining ones in parallel
+                return this.findTouchedInParallel(grid, pickPosition, touchedInOtherSpace, candidate);
+            }
+
+            if (this.touchesVisiblePartOfTarget(pickPosition, this.renderedData.get(candidate))) {
+                return candidate;
+            }
+
+            tested++;
+        }
+
+        return -1;
+    }
+
+    /**
+     * tests the candidate and all remaining candidates of the query in a
+     * ForkJoinPool
+     * 
+     * @return the highest draw index of the candidates that are touched or -1
+     */
+    private int findTouchedInParallel(PickingGrid grid, Vector2 pickPosition, int touchedInOtherSpace,
+            int candidate) {
+        int size = 0;
+
+        do {
+            if (size == this.remainingCandidates.length) {
+                this.remainingCandidates = Arrays.copyOf(this.remainingCandidates, size * 2);
+                this.remainingMasks = Arrays.copyOf(this.remainingMasks, size * 2);
+            }
+
+            // the masks are built on this thread, the tasks only read them
+            this.remainingMasks[size] = this.getPixelPerfectMask(this.renderedData.get(candidate));
+            this.remainingCandidates[size++] = candidate;
+        } while ((candidate = grid.nextCandidate()) > touchedInOtherSpace);
+
+        final int leaves = (size + PARALLEL_PICKING_LEAF_SIZE - 1) / PARALLEL_PICKING_LEAF_SIZE;
+
+        if (this.pickScratches.length < leaves) {
+            final int created = this.pickScratches.length;
+
+            this.pickScratches = Arrays.copyOf(this.pickScratches, leaves);
+
+            for (int i = created; i < leaves; i++) {
+                this.pickScratches[i] = new PickScratch();
+            }
+        }
+
+        if (this.parallelPickingPool == null) {
+            this.parallelPickingPool = new ForkJoinPool();
+        }
+
+        this.statistics.addParallelPick();
+
+        final int touched = this.parallelPickingPool.invoke(new ParallelPickingTask(0, leaves, size,
+                pickPosition.x, pickPosition.y));
+
+        Arrays.fill(this.remainingMasks, 0, size, null);
+
+        return touched;
+    }
+
+    /**
+     * @return the mask of a pixel perfect sprite or null
+     */
+    private AlphaMask getPixelPerfectMask(RenderedData data) {
+        final RenderData renderData = data.getRenderData();
+
+        if ((renderData.getClass() != SpriteRenderData.class)
+                || (renderData.getInteractionMode() != InteractionMode.PixelPerfect)
+                || (data.getTexture() == null)) {
+            // the missing texture is reported by the test of the candidate
+            return null;
+        }
+
+        return this.archive.getMask(data.getTexture());
+    }
+
+    /**
+     * the scratch space of a leaf of the parallel picking, reused by the
+     * following picks
+     */
+    private static final class PickScratch {
+        private final Vector2 pickPosition = new Vector2();
+        private final Rectangle rectangle = new Rectangle();
+        private final Vector2 position = new Vector2();
+        private final Vector2 rotationCenter = new Vector2();
+    }
+
+    /**
+     * tests a range of leaves of the remaining candidates in descending draw
+     * order - every leaf contains PARALLEL_PICKING_LEAF_SIZE candidates and
+     * uses its own PickScratch. The result of the ranges is reduced to the
+     * highest touched draw index, which is the RenderedData in front, no
+     * matter how the ranges were split
+     */
+    private final class ParallelPickingTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+        private final int fromLeaf;
+        private final int toLeaf;
+        private final int size;
+        private final float x;
+        private final float y;
+
+        public ParallelPickingTask(int fromLeaf, int toLeaf, int size, float x, float y) {
+            this.fromLeaf = fromLeaf;
+            this.toLeaf = toLeaf;
+            this.size = size;
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (this.toLeaf - this.fromLeaf == 1) {
+                return this.test();
+            }
+
+            final int middle = (this.fromLeaf + this.toLeaf) >>> 1;
+            final ParallelPickingTask back = new ParallelPickingTask(middle, this.toLeaf, this.size, this.x,
+                    this.y);
+
+            back.fork();
+
+            final int front = new ParallelPickingTask(this.fromLeaf, middle, this.size, this.x, this.y).compute();
+
+            return Math.max(front, back.join());
+        }
+
+        private int test() {
+            final PickScratch scratch = pickScratches[this.fromLeaf];
+            final Vector2 pickPosition = scratch.pickPosition.set(this.x, this.y);
+            final int from = this.fromLeaf * PARALLEL_PICKING_LEAF_SIZE;
+            final int to = Math.min(this.size, from + PARALLEL_PICKING_LEAF_SIZE);
+
+            for (int i = from; i < to; i++) {
+                final int candidate = remainingCandidates[i];
+
+                if (touchesVisiblePartOfTarget(pickPosition, renderedData.get(candidate), remainingMasks[i],
+                        scratch.rectangle, scratch.position, scratch.rotationCenter)) {
+                    return candidate;
                 }
             }
+
+            return -1;
+        }
+    }
+
+    /**
+     * @return the draw index of the RenderedData in front that is touched in
+     *         the space or -1 - the pick buffer is used if the position is
+     *         inside of its area
+     */
+    private int findTouched(PickBuffer pickBuffer, PickingGrid grid, Vector2 pickPosition, int touchedInOtherSpace) {
+        if ((pickBuffer != null) && pickBuffer.contains(pickPosition.x, pickPosition.y)) {
+            return pickBuffer.pick(pickPosition.x, pickPosition.y);
         }
 
-        return touchedRenderedData;
+        return this.findTouched(grid, pickPosition, touchedInOtherSpace);
     }
 
-    private boolean isClickedPixelVisible(Rectangle renderedRectangle, AtlasRegion spriteTexture, Vector2 position) {
-        // http://gamedev.stackexchange.com/questions/43943/how-to-detect-a-touch-on-transparent-area-of-an-image-in-a-libgdx-stage
-        Pixmap pixmap = this.archive.getPixmap(spriteTexture.getTexture());
+    private RenderedData iterateOverAllEntitiesToFindTouched(InputTouchEvent eventData) {
+        int touched = -1;
+
+        // the RenderedData drawn last is in front - search both spaces for it
+        if (this.pickTransform.apply(eventData, true, this.projectedPickPosition)) {
+            touched = this.findTouched(this.projectedPickBuffer, this.projectedGrid, this.projectedPickPosition,
+                    touched);
+        }
 
-        // we want the position of the pixel in the texture !
-        // first add the offset of the region inside the texture, then add the
-        // position inside the texture !
-        // -> because we need the position inside the texture
-        int pixelX = (int) (spriteTexture.getRegionX() + position.x - renderedRectangle.x);
+        if (this.pickTransform.apply(eventData, false, this.unprojectedPickPosition)) {
+            touched = Math.max(touched, this.findTouched(this.unprojectedPickBuffer, this.unprojectedGrid,
+                    this.unprojectedPickPosition, touched));
+        }
+
+        return (touched != -1) ? this.renderedData.get(touched) : null;
+    }
+
+    /**
+     * adds the bounding box of the RenderedData in the space it is touched in
+     * to the grid of the space - rotated RenderData is enclosed by the circle
+     * around its center of rotation
+     */
+    private void addToGrid(int drawIndex, RenderedData data) {
+        final RenderData renderData = data.getRenderData();
+        final boolean isProjected = renderData.isRenderProjected();
+        final PickingGrid grid = isProjected ? this.projectedGrid : this.unprojectedGrid;
+        final Rectangle rectangle = this.rectangle;
+
+        this.getRectangle(isProjected, data, rectangle);
+
+        if (renderData.getRotation() == 0) {
+            grid.add(drawIndex, rectangle.x, rectangle.y, rectangle.x + rectangle.width,
+                    rectangle.y + rectangle.height);
+        } else {
+            final Vector2 center = this.getCenterOfRotation(rectangle, renderData.getClass(), this.rotationCenter);
+            final float distanceX = Math.max(center.x - rectangle.x, rectangle.x + rectangle.width - center.x);
+            final float distanceY = Math.max(center.y - rectangle.y, rectangle.y + rectangle.height - center.y);
+            final float radius = (float) Math.sqrt(distanceX * distanceX + distanceY * distanceY);
+
+            grid.add(drawIndex, center.x - radius, center.y - radius, center.x + radius, center.y + radius);
+        }
+    }
+
+    /**
+     * adds the RenderedData of the frame to the pick buffers - called after
+     * drawing and only if there are events to pick, so the AlphaMasks aren't
+     * built while the SpriteBatch draws
+     */
+    private void fillPickBuffers() {
+        this.projectedPickBuffer.clear();
+        this.unprojectedPickBuffer.clear();
+
+        for (int drawIndex = 0; drawIndex < this.renderedData.size(); drawIndex++) {
+            final RenderedData data = this.renderedData.get(drawIndex);
+            final boolean isProjected = data.getRenderData().isRenderProjected();
+
+            this.getRectangle(isProjected, data, this.rectangle);
+            this.addToPickBuffer(drawIndex, data, isProjected ? this.projectedPickBuffer : this.unprojectedPickBuffer);
+        }
+    }
+
+    private void addToPickBuffer(int drawIndex, RenderedData data, PickBuffer pickBuffer) {
+        final RenderData renderData = data.getRenderData();
+        final Rectangle rectangle = this.rectangle;
+        final Vector2 center = this.getCenterOfRotation(rectangle, renderData.getClass(), this.rotationCenter);
+        AlphaMask mask = null;
+
+        if (this.pickBufferAlphaMasks && (renderData.getClass() == SpriteRenderData.class)
+                && (renderData.getInteractionMode() == InteractionMode.PixelPerfect)) {
+            mask = this.archive.getMask(data.getTexture());
+        }
+
+        pickBuffer.add(drawIndex, rectangle.x, rectangle.y, rectangle.width, rectangle.height,
+                renderData.getRotation(), center.x, center.y, mask);
+    }
+
+    /**
+     * the pick buffers cover the area of the spaces that is visible in the
+     * viewport, a cell has the size of 1 / pickBufferScale screen pixels
+     */
+    private void updatePickBufferAreas() {
+        final float screenWidth = Math.max(1, this.viewPort.getScreenWidth());
+        final float screenHeight = Math.max(1, this.viewPort.getScreenHeight());
+        final float cellSize = this.camera.viewportWidth / screenWidth / this.pickBufferScale;
+        final float halfWidth = this.camera.viewportWidth / 2;
+        final float halfHeight = this.camera.viewportHeight / 2;
+
+        // positions beyond the unprojected viewport can't touch anything
+        this.unprojectedPickBuffer.setArea(-halfWidth, -halfHeight, halfWidth, halfHeight, cellSize);
+
+        // the projected positions are scaled if the aspect ratio is kept
+        final float factorX = (this.viewPort.getScreenX() * 2 + screenWidth) / screenWidth;
+        final float factorY = (this.viewPort.getScreenY() * 2 + screenHeight) / screenHeight;
+        final float zoom = this.camera.zoom;
+        final float x = this.camera.position.x;
+        final float y = this.camera.position.y;
+
+        this.projectedPickBuffer.setArea(x - halfWidth * zoom * factorX, y - halfHeight * zoom * factorY,
+                x + halfWidth * zoom * factorX, y + halfHeight * zoom * factorY, cellSize * zoom);
+    }
+
+    private boolean isClickedPixelVisible(Rectangle renderedRectangle, AlphaMask mask, Vector2 position) {
+        // http://gamedev.stackexchange.com/questions/43943/how-to-detect-a-touch-on-transparent-area-of-an-image-in-a-libgdx-stage
+        // we want the position of the pixel inside the region !
+        int pixelX = (int) (position.x - renderedRectangle.x);
 
         // the same goes for the Y component, BUT the Y axis is inverted,
         // therefore
-        // we need to invert the position INSIDE the texture !
-        // --> that's why we use regionHeigth - positionInsideTexture
-        int pixelY = (int) (spriteTexture.getRegionY() + spriteTexture.getRegionHeight()
-                - (position.y - renderedRectangle.y));
+        // we need to invert the position INSIDE the region !
+        // --> that's why we use maskHeight - positionInsideRegion
+        int pixelY = (int) (mask.getHeight() - (position.y - renderedRectangle.y));
 
-        int pixel = pixmap.getPixel(pixelX, pixelY);
-
-        return (pixel & 0x000000ff) != 0;
+        return mask.isVisible(pixelX, pixelY);
     }
 
     @Override
@@ -316,36 +776,94 @@ class InteractionSubProcess implements InputProcessor {
         unprojected.y = (Gdx.graphics.getHeight() / 2) - screenY;
     }
 
-    private void saveEvent(int screenX, int screenY, InputTouchEventType inputType, int argument) {
+    /**
+     * saves the event until it is picked in postIteration - package-private
+     * to test the coalescing
+     */
+    void saveEvent(int screenX, int screenY, InputTouchEventType inputType, int argument, int pointer) {
+        if (!this.isTracked(pointer)) {
+            return;
+        }
+
         this.calculatePositions(camera, screenX, screenY);
 
-        InputTouchEvent event = new InputTouchEvent(screenX, screenY, inputType, argument, Gdx.input.isTouched(),
-                this.projected, this.unprojected);
+        final boolean isTouched = this.pointerTouched[pointer];
 
+        if (this.isCoalescible(inputType, argument, pointer)) {
+            // only the latest position of the movement is of interest
+            this.lastEvents.get(this.pointerLastEventIndices[pointer]).set(screenX, screenY, inputType, argument,
+                    pointer, isTouched, this.projected, this.unprojected);
+            this.coalescedEvents++;
+
+            return;
+        }
+
+        InputTouchEvent event = this.inputTouchEventPool.obtain().set(screenX, screenY, inputType, argument,
+                pointer, isTouched, this.projected, this.unprojected);
+
+        this.pointerLastEventIndices[pointer] = this.lastEvents.size();
         this.lastEvents.add(event);
     }
 
+    /**
+     * @return true if the event can replace the last saved event of the
+     *         pointer - only Moved or Dragged events are merged with a
+     *         previous event of the same type and argument, so TouchDown and
+     *         TouchUp keep their exact position
+     */
+    private boolean isCoalescible(InputTouchEventType inputType, int argument, int pointer) {
+        if (!this.inputEventCoalescing || (this.pointerLastEventIndices[pointer] == -1)) {
+            return false;
+        }
+
+        if ((inputType != InputTouchEventType.Moved) && (inputType != InputTouchEventType.Dragged)) {
+            return false;
+        }
+
+        final InputTouchEvent lastEvent = this.lastEvents.get(this.pointerLastEventIndices[pointer]);
+
+        return (lastEvent.getInputTouchEventType() == inputType) && (lastEvent.getArgument() == argument);
+    }
+
+    private boolean isTracked(int pointer) {
+        return (pointer >= 0) && (pointer < InputTouchEvent.MAX_POINTERS);
+    }
+
     @Override
     public boolean touchDown(int screenX, int screenY, int pointer, int button) {
-        this.saveEvent(screenX, screenY, InputTouchEventType.TouchDown, button);
+        if (this.isTracked(pointer)) {
+            this.pointerTouched[pointer] = true;
+            this.pointerButtons[pointer] = button;
+        }
+
+        this.saveEvent(screenX, screenY, InputTouchEventType.TouchDown, button, pointer);
         return false;
     }
 
     @Override
     public boolean touchUp(int screenX, int screenY, int pointer, int button) {
-        this.saveEvent(screenX, screenY, InputTouchEventType.TouchUp, button);
+        if (this.isTracked(pointer)) {
+            this.pointerTouched[pointer] = false;
+        }
+
+        this.saveEvent(screenX, screenY, InputTouchEventType.TouchUp, button, pointer);
         return false;
     }
 
     @Override
     public boolean touchDragged(int screenX, int screenY, int pointer) {
-        this.saveEvent(screenX, screenY, InputTouchEventType.Dragged, pointer);
+        if (this.isTracked(pointer)) {
+            // the argument is the button that drags, like for TouchDown
+            this.pointerTouched[pointer] = true;
+            this.saveEvent(screenX, screenY, InputTouchEventType.Dragged, this.pointerButtons[pointer], pointer);
+        }
+
         return false;
     }
 
     @Override
     public boolean mouseMoved(int screenX, int screenY) {
-        this.saveEvent(screenX, screenY, InputTouchEventType.Moved, 0);
+        this.saveEvent(screenX, screenY, InputTouchEventType.Moved, 0, 0);
         return false;
     }
 
@@ -0,0 +1,314 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.badlogic.gdx.math.MathUtils;
+
+/**
+ * Low resolution buffer of draw indices of one space (projected or
+ * unprojected) of a frame. The RenderedData is collected while it is added
+ * and rasterized on the CPU when the buffer is picked the first time - every
+ * cell stores the draw index of the RenderedData in front at the center of
+ * the cell, therefore any number of picks only read the buffer. Rotation is
+ * honoured and sprites are optionally tested against their AlphaMask.
+ *
+ * The rows can be split into bands that are rasterized in parallel, every
+ * band paints all RenderedData in draw order into its own rows.
+ */
+final class PickBuffer {
+    /** the value of a cell without RenderedData */
+    private static final int NONE = 0;
+    private static final int MAXIMUM_CELLS_PER_AXIS = 4096;
+    private final ExecutorService executor;
+    private final List<Band> bands;
+    private float[] x = new float[64];
+    private float[] y = new float[64];
+    private float[] width = new float[64];
+    private float[] height = new float[64];
+    private float[] pivotX = new float[64];
+    private float[] pivotY = new float[64];
+    private float[] cos = new float[64];
+    private float[] sin = new float[64];
+    private AlphaMask[] masks = new AlphaMask[64];
+    private int[] drawIndices = new int[64];
+    private int size;
+    private boolean rasterized;
+    private int[] cells = new int[0];
+    private float areaX;
+    private float areaY;
+    private float cellWidth;
+    private float cellHeight;
+    private int columns;
+    private int rows;
+
+    /**
+     * @param executor
+     *            rasterizes the bands or null to rasterize on the calling
+     *            thread
+     * @param bands
+     *            the number of bands the rows are split into
+     */
+    public PickBuffer(ExecutorService executor, int bands) {
+        if (bands < 1) {
+            throw new IllegalArgumentException("bands must be at least 1 !");
+        }
+
+        this.executor = executor;
+        this.bands = new ArrayList<Band>(bands);
+
+        for (int i = 0; i < bands; i++) {
+            this.bands.add(new Band());
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < this.size; i++) {
+            this.masks[i] = null;
+        }
+
+        this.size = 0;
+        this.rasterized = false;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * the RenderedData must be added in ascending draw order
+     *
+     * @param rotation
+     *            the rotation in degrees around the pivot
+     * @param mask
+     *            the mask of the sprite - the row 0 is the top of the
+     *            rectangle - or null if the whole rectangle is touchable
+     */
+    public void add(int drawIndex, float x, float y, float width, float height, float rotation, float pivotX,
+            float pivotY, AlphaMask mask) {
+        if (this.size == this.drawIndices.length) {
+            final int capacity = this.size * 2;
+
+            this.x = Arrays.copyOf(this.x, capacity);
+            this.y = Arrays.copyOf(this.y, capacity);
+            this.width = Arrays.copyOf(this.width, capacity);
+            this.height = Arrays.copyOf(this.height, capacity);
+            this.pivotX = Arrays.copyOf(this.pivotX, capacity);
+            this.pivotY = Arrays.copyOf(this.pivotY, capacity);
+            this.cos = Arrays.copyOf(this.cos, capacity);
+            this.sin = Arrays.copyOf(this.sin, capacity);
+            this.masks = Arrays.copyOf(this.masks, capacity);
+            this.drawIndices = Arrays.copyOf(this.drawIndices, capacity);
+        }
+
+        this.x[this.size] = x;
+        this.y[this.size] = y;
+        this.width[this.size] = width;
+        this.height[this.size] = height;
+        this.pivotX[this.size] = pivotX;
+        this.pivotY[this.size] = pivotY;
+        // the inverse rotation maps a cell back into the rectangle
+        this.cos[this.size] = MathUtils.cosDeg(-rotation);
+        this.sin[this.size] = MathUtils.sinDeg(-rotation);
+        this.masks[this.size] = mask;
+        this.drawIndices[this.size] = drawIndex;
+        this.size++;
+        this.rasterized = false;
+    }
+
+    /**
+     * sets the area covered by the buffer - positions outside of it can't be
+     * picked
+     *
+     * @param cellSize
+     *            the width and height of a cell
+     */
+    public void setArea(float minX, float minY, float maxX, float maxY, float cellSize) {
+        if (!(cellSize > 0)) {
+            throw new IllegalArgumentException("cellSize must be greater than 0 !");
+        }
+
+        final int columns = MathUtils.clamp(MathUtils.ceil((maxX - minX) / cellSize), 1, MAXIMUM_CELLS_PER_AXIS);
+        final int rows = MathUtils.clamp(MathUtils.ceil((maxY - minY) / cellSize), 1, MAXIMUM_CELLS_PER_AXIS);
+
+        if ((minX != this.areaX) || (minY != this.areaY) || (columns != this.columns) || (rows != this.rows)
+                || (this.cellWidth != (maxX - minX) / columns) || (this.cellHeight != (maxY - minY) / rows)) {
+            this.areaX = minX;
+            this.areaY = minY;
+            this.columns = columns;
+            this.rows = rows;
+            this.cellWidth = (maxX - minX) / columns;
+            this.cellHeight = (maxY - minY) / rows;
+            this.rasterized = false;
+        }
+    }
+
+    /**
+     * @return true if the position is inside of the area of the buffer
+     */
+    public boolean contains(float x, float y) {
+        return (x >= this.areaX) && (y >= this.areaY) && (x < this.areaX + this.columns * this.cellWidth)
+                && (y < this.areaY + this.rows * this.cellHeight);
+    }
+
+    /**
+     * @return the draw index of the RenderedData in front at the position or
+     *         -1
+     */
+    public int pick(float x, float y) {
+        if (!this.contains(x, y)) {
+            return -1;
+        }
+
+        if (!this.rasterized) {
+            this.rasterize();
+        }
+
+        final int column = Math.min((int) ((x - this.areaX) / this.cellWidth), this.columns - 1);
+        final int row = Math.min((int) ((y - this.areaY) / this.cellHeight), this.rows - 1);
+
+        return this.cells[row * this.columns + column] - 1;
+    }
+
+    private void rasterize() {
+        this.rasterized = true;
+
+        final int cellCount = this.columns * this.rows;
+
+        if (this.cells.length < cellCount) {
+            this.cells = new int[cellCount];
+        } else {
+            Arrays.fill(this.cells, 0, cellCount, NONE);
+        }
+
+        if (this.size == 0) {
+            return;
+        }
+
+        final int bandCount = Math.min(this.bands.size(), this.rows);
+        final int rowsPerBand = (this.rows + bandCount - 1) / bandCount;
+
+        if ((this.executor == null) || (bandCount == 1)) {
+            this.rasterize(0, this.rows);
+            return;
+        }
+
+        for (int i = 0; i < this.bands.size(); i++) {
+            this.bands.get(i).set(Math.min(i * rowsPerBand, this.rows), Math.min((i + 1) * rowsPerBand, this.rows));
+        }
+
+        try {
+            for (Future<Void> future : this.executor.invokeAll(this.bands)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("rasterizing the pick buffer was interrupted !", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("couldn't rasterize the pick buffer !", e.getCause());
+        }
+    }
+
+    /**
+     * paints all RenderedData in draw order into the rows
+     */
+    private void rasterize(int firstRow, int endRow) {
+        for (int i = 0; i < this.size; i++) {
+            this.rasterize(i, firstRow, endRow);
+        }
+    }
+
+    private void rasterize(int item, int firstRow, int endRow) {
+        final float x = this.x[item];
+        final float y = this.y[item];
+        final float width = this.width[item];
+        final float height = this.height[item];
+        final float pivotX = this.pivotX[item];
+        final float pivotY = this.pivotY[item];
+        final float cos = this.cos[item];
+        final float sin = this.sin[item];
+        final AlphaMask mask = this.masks[item];
+        final int value = this.drawIndices[item] + 1;
+
+        // the bounding box of the rotated rectangle - the rotation is the
+        // inverse of the stored one
+        final float minX;
+        final float minY;
+        final float maxX;
+        final float maxY;
+
+        if (sin == 0) {
+            minX = x;
+            minY = y;
+            maxX = x + width;
+            maxY = y + height;
+        } else {
+            final float left = x - pivotX;
+            final float bottom = y - pivotY;
+            final float right = left + width;
+            final float top = bottom + height;
+            final float x1 = left * cos + bottom * sin;
+            final float x2 = right * cos + bottom * sin;
+            final float x3 = right * cos + top * sin;
+            final float x4 = left * cos + top * sin;
+            final float y1 = -left * sin + bottom * cos;
+            final float y2 = -right * sin + bottom * cos;
+            final float y3 = -right * sin + top * cos;
+            final float y4 = -left * sin + top * cos;
+
+            minX = pivotX + Math.min(Math.min(x1, x2), Math.min(x3, x4));
+            maxX = pivotX + Math.max(Math.max(x1, x2), Math.max(x3, x4));
+            minY = pivotY + Math.min(Math.min(y1, y2), Math.min(y3, y4));
+            maxY = pivotY + Math.max(Math.max(y1, y2), Math.max(y3, y4));
+        }
+
+        // the cells whose centers can be inside of the bounding box
+        final int firstColumn = Math.max(0, (int) Math.floor((minX - this.areaX) / this.cellWidth - 0.5f));
+        final int endColumn = Math.min(this.columns, (int) Math.ceil((maxX - this.areaX) / this.cellWidth + 0.5f));
+        final int first = Math.max(firstRow, (int) Math.floor((minY - this.areaY) / this.cellHeight - 0.5f));
+        final int end = Math.min(endRow, (int) Math.ceil((maxY - this.areaY) / this.cellHeight + 0.5f));
+
+        for (int row = first; row < end; row++) {
+            final float cellY = this.areaY + (row + 0.5f) * this.cellHeight - pivotY;
+
+            for (int column = firstColumn; column < endColumn; column++) {
+                final float cellX = this.areaX + (column + 0.5f) * this.cellWidth - pivotX;
+                // rotate the center of the cell into the rectangle
+                final float localX = pivotX + cellX * cos - cellY * sin;
+                final float localY = pivotY + cellX * sin + cellY * cos;
+
+                if ((localX < x) || (localX > x + width) || (localY < y) || (localY > y + height)) {
+                    continue;
+                }
+
+                if ((mask != null) && !mask.isVisible((int) (localX - x), (int) (mask.getHeight() - (localY - y)))) {
+                    continue;
+                }
+
+                this.cells[row * this.columns + column] = value;
+            }
+        }
+    }
+
+    private final class Band implements Callable<Void> {
+        private int firstRow;
+        private int endRow;
+
+        public void set(int firstRow, int endRow) {
+            this.firstRow = firstRow;
+            this.endRow = endRow;
+        }
+
+        @Override
+        public Void call() {
+            rasterize(this.firstRow, this.endRow);
+
+            return null;
+        }
+    }
+}
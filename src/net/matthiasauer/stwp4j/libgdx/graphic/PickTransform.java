@@ -0,0 +1,84 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.viewport.Viewport;
+
+/**
+ * Maps the positions of InputTouchEvents to the positions that are compared
+ * with the rectangles of the RenderedData of the projected and the
+ * unprojected space. The transforms only depend on the camera and the
+ * viewport, therefore they are computed once per iteration instead of for
+ * every event.
+ */
+final class PickTransform {
+    private final Affine2 projected = new Affine2();
+    private final Affine2 unprojected = new Affine2();
+    /** the unprojected position of the event scaled to the world */
+    private float visibleScaleX;
+    private float visibleScaleY;
+    private float visibleHalfWidth;
+    private float visibleHalfHeight;
+    /** true if projected events beyond the visible area can't touch */
+    private boolean projectedVisibilityChecked;
+
+    public void update(OrthographicCamera camera, Viewport viewPort) {
+        final float screenWidth = viewPort.getScreenWidth();
+        final float screenHeight = viewPort.getScreenHeight();
+        final boolean isHeightStretched = Math.abs(viewPort.getWorldHeight() - screenHeight) > 2;
+        final boolean isWidthStretched = Math.abs(viewPort.getWorldWidth() - screenWidth) > 2;
+        final boolean isStretched = isHeightStretched || isWidthStretched;
+        final boolean aspectRatioKept = (viewPort.getScreenX() != 0) || (viewPort.getScreenY() != 0);
+        final float worldScaleX = viewPort.getWorldWidth() / screenWidth;
+        final float worldScaleY = viewPort.getWorldHeight() / screenHeight;
+
+        this.visibleScaleX = worldScaleX;
+        this.visibleScaleY = worldScaleY;
+        this.visibleHalfWidth = Math.abs(camera.viewportWidth / 2);
+        this.visibleHalfHeight = Math.abs(camera.viewportHeight / 2);
+        this.projectedVisibilityChecked = !isStretched || aspectRatioKept;
+        this.unprojected.setToTrnScl(0, 0, worldScaleX, worldScaleY);
+
+        // the projected position is only scaled to the world if the content
+        // isn't stretched
+        final float scaleX = isStretched ? 1 : worldScaleX;
+        final float scaleY = isStretched ? 1 : worldScaleY;
+        // then it is scaled around the camera position to the whole screen
+        final float factorX = (viewPort.getScreenX() * 2 + screenWidth) / screenWidth;
+        final float factorY = (viewPort.getScreenY() * 2 + screenHeight) / screenHeight;
+
+        this.projected.setToTrnScl(camera.position.x * (1 - factorX), camera.position.y * (1 - factorY),
+                scaleX * factorX, scaleY * factorY);
+    }
+
+    /**
+     * calculates the position of the event that is compared with the
+     * rectangles of RenderedData of the given space
+     *
+     * @return false if nothing can be touched because the event is outside of
+     *         the rendered area
+     */
+    public boolean apply(InputTouchEvent event, boolean isProjected, Vector2 result) {
+        if (!isProjected || this.projectedVisibilityChecked) {
+            final Vector2 screenPosition = event.getPosition(false);
+
+            // if the event is beyond the screen (f.e. stretched but the aspect
+            // ratio is kept) there is nothing rendered that can be touched
+            if ((Math.abs(screenPosition.x * this.visibleScaleX) > this.visibleHalfWidth)
+                    || (Math.abs(screenPosition.y * this.visibleScaleY) > this.visibleHalfHeight)) {
+                return false;
+            }
+        }
+
+        result.set(event.getPosition(isProjected));
+
+        if (isProjected) {
+            this.projected.applyTo(result);
+        } else {
+            this.unprojected.applyTo(result);
+        }
+
+        return true;
+    }
+}
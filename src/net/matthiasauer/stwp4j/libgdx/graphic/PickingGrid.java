@@ -0,0 +1,240 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid over the bounding boxes of the RenderedData of one space
+ * (projected or unprojected) of a frame. The boxes are collected while the
+ * RenderedData is added and bucketed into the cells when the grid is queried
+ * the first time. The candidates of a position are returned in descending
+ * draw order, therefore the first candidate that is hit is the one in front.
+ */
+final class PickingGrid {
+    private static final int MAXIMUM_CELLS_PER_AXIS = 128;
+    /** boxes covering more cells are kept in a separate list */
+    private static final int MAXIMUM_CELLS_PER_BOX = 16;
+    private float[] minX = new float[64];
+    private float[] minY = new float[64];
+    private float[] maxX = new float[64];
+    private float[] maxY = new float[64];
+    private int[] drawIndices = new int[64];
+    private int size;
+    private boolean built;
+    private float boundsMinX;
+    private float boundsMinY;
+    private float boundsMaxX;
+    private float boundsMaxY;
+    private int cellsPerAxis;
+    private float cellWidth;
+    private float cellHeight;
+    private int[] cellStart = new int[2];
+    private int[] cellItems = new int[64];
+    private int[] largeItems = new int[16];
+    private int largeSize;
+    // the state of the current query
+    private float queryX;
+    private float queryY;
+    private int cellPosition;
+    private int cellEnd;
+    private int largePosition;
+
+    public void clear() {
+        this.size = 0;
+        this.built = false;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * the boxes must be added in ascending draw order
+     */
+    public void add(int drawIndex, float minX, float minY, float maxX, float maxY) {
+        if (this.size == this.drawIndices.length) {
+            final int capacity = this.size * 2;
+
+            this.minX = Arrays.copyOf(this.minX, capacity);
+            this.minY = Arrays.copyOf(this.minY, capacity);
+            this.maxX = Arrays.copyOf(this.maxX, capacity);
+            this.maxY = Arrays.copyOf(this.maxY, capacity);
+            this.drawIndices = Arrays.copyOf(this.drawIndices, capacity);
+        }
+
+        this.minX[this.size] = minX;
+        this.minY[this.size] = minY;
+        this.maxX[this.size] = maxX;
+        this.maxY[this.size] = maxY;
+        this.drawIndices[this.size] = drawIndex;
+        this.size++;
+        this.built = false;
+    }
+
+    private void build() {
+        this.built = true;
+        this.largeSize = 0;
+
+        if (this.size == 0) {
+            this.cellsPerAxis = 0;
+            return;
+        }
+
+        this.boundsMinX = Float.POSITIVE_INFINITY;
+        this.boundsMinY = Float.POSITIVE_INFINITY;
+        this.boundsMaxX = Float.NEGATIVE_INFINITY;
+        this.boundsMaxY = Float.NEGATIVE_INFINITY;
+
+        for (int i = 0; i < this.size; i++) {
+            this.boundsMinX = Math.min(this.boundsMinX, this.minX[i]);
+            this.boundsMinY = Math.min(this.boundsMinY, this.minY[i]);
+            this.boundsMaxX = Math.max(this.boundsMaxX, this.maxX[i]);
+            this.boundsMaxY = Math.max(this.boundsMaxY, this.maxY[i]);
+        }
+
+        // about one box per cell
+        this.cellsPerAxis = Math.max(1, Math.min(MAXIMUM_CELLS_PER_AXIS, (int) Math.sqrt(this.size)));
+        this.cellWidth = Math.max((this.boundsMaxX - this.boundsMinX) / this.cellsPerAxis, Float.MIN_NORMAL);
+        this.cellHeight = Math.max((this.boundsMaxY - this.boundsMinY) / this.cellsPerAxis, Float.MIN_NORMAL);
+
+        final int cells = this.cellsPerAxis * this.cellsPerAxis;
+
+        if (this.cellStart.length < cells + 1) {
+            this.cellStart = new int[cells + 1];
+        }
+
+        for (int i = 0; i <= cells; i++) {
+            this.cellStart[i] = 0;
+        }
+
+        // count the boxes of each cell
+        int entries = 0;
+
+        for (int i = 0; i < this.size; i++) {
+            final int fromX = this.cellX(this.minX[i]);
+            final int toX = this.cellX(this.maxX[i]);
+            final int fromY = this.cellY(this.minY[i]);
+            final int toY = this.cellY(this.maxY[i]);
+
+            if ((toX - fromX + 1) * (toY - fromY + 1) > MAXIMUM_CELLS_PER_BOX) {
+                if (this.largeSize == this.largeItems.length) {
+                    this.largeItems = Arrays.copyOf(this.largeItems, this.largeSize * 2);
+                }
+
+                this.largeItems[this.largeSize++] = i;
+                continue;
+            }
+
+            for (int y = fromY; y <= toY; y++) {
+                for (int x = fromX; x <= toX; x++) {
+                    this.cellStart[y * this.cellsPerAxis + x + 1]++;
+                    entries++;
+                }
+            }
+        }
+
+        for (int i = 1; i <= cells; i++) {
+            this.cellStart[i] += this.cellStart[i - 1];
+        }
+
+        if (this.cellItems.length < entries) {
+            this.cellItems = new int[Math.max(entries, this.cellItems.length * 2)];
+        }
+
+        // fill the cells, the boxes are visited in draw order, therefore each
+        // cell is sorted by the draw order
+        int largeIndex = 0;
+
+        for (int i = 0; i < this.size; i++) {
+            if ((largeIndex < this.largeSize) && (this.largeItems[largeIndex] == i)) {
+                largeIndex++;
+                continue;
+            }
+
+            final int fromX = this.cellX(this.minX[i]);
+            final int toX = this.cellX(this.maxX[i]);
+            final int fromY = this.cellY(this.minY[i]);
+            final int toY = this.cellY(this.maxY[i]);
+
+            for (int y = fromY; y <= toY; y++) {
+                for (int x = fromX; x <= toX; x++) {
+                    this.cellItems[this.cellStart[y * this.cellsPerAxis + x]++] = i;
+                }
+            }
+        }
+
+        // filling moved each start to the start of the next cell
+        for (int i = cells; i > 0; i--) {
+            this.cellStart[i] = this.cellStart[i - 1];
+        }
+
+        this.cellStart[0] = 0;
+    }
+
+    private int cellX(float x) {
+        return Math.max(0, Math.min(this.cellsPerAxis - 1, (int) ((x - this.boundsMinX) / this.cellWidth)));
+    }
+
+    private int cellY(float y) {
+        return Math.max(0, Math.min(this.cellsPerAxis - 1, (int) ((y - this.boundsMinY) / this.cellHeight)));
+    }
+
+    /**
+     * starts a query - the candidates are then returned by nextCandidate
+     */
+    public void query(float x, float y) {
+        if (!this.built) {
+            this.build();
+        }
+
+        this.queryX = x;
+        this.queryY = y;
+
+        if ((this.cellsPerAxis == 0) || (x < this.boundsMinX) || (y < this.boundsMinY) || (x > this.boundsMaxX)
+                || (y > this.boundsMaxY)) {
+            // no box contains the position
+            this.cellPosition = -1;
+            this.cellEnd = 0;
+            this.largePosition = -1;
+            return;
+        }
+
+        final int cell = this.cellY(y) * this.cellsPerAxis + this.cellX(x);
+
+        this.cellEnd = this.cellStart[cell];
+        this.cellPosition = this.cellStart[cell + 1] - 1;
+        this.largePosition = this.largeSize - 1;
+    }
+
+    /**
+     * @return the draw index of the next candidate whose box contains the
+     *         position of the query, in descending draw order - or -1 if
+     *         there is none
+     */
+    public int nextCandidate() {
+        while (true) {
+            final int item;
+            final boolean cellLeft = this.cellPosition >= this.cellEnd;
+            final boolean largeLeft = this.largePosition >= 0;
+
+            if (cellLeft && largeLeft) {
+                // merge both lists by the draw order
+                if (this.cellItems[this.cellPosition] > this.largeItems[this.largePosition]) {
+                    item = this.cellItems[this.cellPosition--];
+                } else {
+                    item = this.largeItems[this.largePosition--];
+                }
+            } else if (cellLeft) {
+                item = this.cellItems[this.cellPosition--];
+            } else if (largeLeft) {
+                item = this.largeItems[this.largePosition--];
+            } else {
+                return -1;
+            }
+
+            if ((this.queryX >= this.minX[item]) && (this.queryX <= this.maxX[item]) && (this.queryY >= this.minY[item])
+                    && (this.queryY <= this.maxY[item])) {
+                return this.drawIndices[item];
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+
+/**
+ * Orders the RenderData using a PriorityQueue and the RenderDataComparator -
+ * the order of RenderData with the same renderOrder and renderProjected is not
+ * defined
+ */
+final class PriorityRenderDataQueue implements RenderDataQueue {
+    /**
+     * 11 is the default size internally so start with that initial capacity
+     */
+    private static final int initialSize = 11;
+    private final Queue<RenderData> queue;
+    private final List<RenderData> sorted;
+
+    PriorityRenderDataQueue() {
+        // create the PriorityQueue with the custom comparator and an initial
+        // size
+        this.queue = new PriorityQueue<RenderData>(initialSize, new RenderDataComparator());
+        this.sorted = new ArrayList<RenderData>();
+    }
+
+    @Override
+    public void beginFrame() {
+        this.queue.clear();
+        this.sorted.clear();
+    }
+
+    @Override
+    public void add(RenderData data) {
+        this.queue.add(data);
+    }
+
+    @Override
+    public void sort() {
+        while (!this.queue.isEmpty()) {
+            this.sorted.add(this.queue.poll());
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.sorted.size();
+    }
+
+    @Override
+    public RenderData get(int index) {
+        return this.sorted.get(index);
+    }
+}
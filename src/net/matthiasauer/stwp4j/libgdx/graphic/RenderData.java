@@ -3,7 +3,9 @@ package net.matthiasauer.stwp4j.libgdx.graphic;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.Vector2;
 
-public abstract class RenderData {
+import net.matthiasauer.stwp4j.libgdx.utils.PooledObject;
+
+public abstract class RenderData extends PooledObject {
     private String id;
     private final Vector2 position = new Vector2();
     private float rotation;
@@ -11,6 +13,10 @@ public abstract class RenderData {
     private Color tint;
     private int renderOrder;
     private boolean renderProjected;
+    private InteractionMode interactionMode;
+    
+    protected RenderData() {
+    }
     
     protected RenderData(
             String id,
@@ -21,6 +27,18 @@ public abstract class RenderData {
             Color tint,
             int renderOrder,
             boolean renderProjected) {
+        this.setInternal(id, positionX, positionY, rotation, renderPositionUnit, tint, renderOrder, renderProjected);
+    }
+    
+    protected void setInternal(
+            String id,
+            float positionX,
+            float positionY,
+            float rotation,
+            RenderPositionUnit renderPositionUnit,
+            Color tint,
+            int renderOrder,
+            boolean renderProjected) {
         this.position.set(positionX, positionY);
         this.rotation = rotation;
         this.renderPositionUnit = renderPositionUnit;
@@ -28,6 +46,39 @@ public abstract class RenderData {
         this.renderOrder = renderOrder;
         this.renderProjected = renderProjected;
         this.id = id;
+        this.interactionMode = this.getDefaultInteractionMode();
+    }
+    
+    /**
+     * @return the InteractionMode used if none is set
+     */
+    protected abstract InteractionMode getDefaultInteractionMode();
+    
+    /**
+     * @param interactionMode
+     *            whether and how the RenderData can be touched - RenderData
+     *            that is never touched should use None, it is then skipped
+     *            when searching the touched RenderData
+     */
+    public RenderData setInteractionMode(InteractionMode interactionMode) {
+        if (interactionMode == null) {
+            throw new NullPointerException("interactionMode mustn't be null !");
+        }
+        
+        this.interactionMode = interactionMode;
+        
+        return this;
+    }
+    
+    public InteractionMode getInteractionMode() {
+        return this.interactionMode;
+    }
+    
+    @Override
+    protected void reset() {
+        this.id = null;
+        this.tint = null;
+        this.renderPositionUnit = null;
     }
     
     public String getId() {
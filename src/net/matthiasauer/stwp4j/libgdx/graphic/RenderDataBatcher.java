@@ -0,0 +1,124 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import java.util.Arrays;
+
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+/**
+ * Reorders the sorted RenderData of a frame so that RenderData with the same
+ * renderOrder and renderProjected is grouped by texture - this reduces the
+ * number of texture switches. The tint isn't part of the grouping because the
+ * SpriteBatch stores the color per vertex. The layering is not changed because
+ * RenderData is only moved inside a group of the same renderOrder and
+ * renderProjected.
+ */
+final class RenderDataBatcher {
+    /**
+     * Identifies the texture a RenderData is drawn with
+     */
+    interface TextureKeys {
+        /**
+         * @return an object that is the same for all RenderData drawn with
+         *         the same texture or null if unknown - mustn't load the
+         *         texture
+         */
+        Object getTextureKey(RenderData data);
+    }
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int INDEX_BITS = 20;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+    private static final int MAXIMUM_RUN_LENGTH = 1 << INDEX_BITS;
+    private final TextureKeys textureKeys;
+    /** an id per page of the atlases - they are few, so none is forgotten */
+    private final ObjectIntMap<Object> textureIds = new ObjectIntMap<Object>();
+    private RenderData[] batched = new RenderData[INITIAL_CAPACITY];
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int size = 0;
+
+    RenderDataBatcher(TextureKeys textureKeys) {
+        if (textureKeys == null) {
+            throw new NullPointerException("textureKeys mustn't be null !");
+        }
+
+        this.textureKeys = textureKeys;
+    }
+
+    /**
+     * @param queue
+     *            the already sorted RenderData of the frame
+     */
+    public void batch(RenderDataQueue queue) {
+        Arrays.fill(this.batched, 0, this.size, null);
+        this.size = queue.size();
+
+        if (this.batched.length < this.size) {
+            this.batched = new RenderData[this.size];
+            this.keys = new long[this.size];
+        }
+
+        int start = 0;
+
+        while (start < this.size) {
+            final RenderData first = queue.get(start);
+            int end = start + 1;
+
+            while ((end < this.size) && isSameLayer(first, queue.get(end))) {
+                end++;
+            }
+
+            this.batchRun(queue, start, end);
+            start = end;
+        }
+    }
+
+    private static boolean isSameLayer(RenderData first, RenderData second) {
+        return (first.getRenderOrder() == second.getRenderOrder())
+                && (first.isRenderProjected() == second.isRenderProjected());
+    }
+
+    private void batchRun(RenderDataQueue queue, int start, int end) {
+        if ((end - start == 1) || (end - start > MAXIMUM_RUN_LENGTH)) {
+            // nothing to group
+            for (int i = start; i < end; i++) {
+                this.batched[i] = queue.get(i);
+            }
+
+            return;
+        }
+
+        for (int i = start; i < end; i++) {
+            final long textureId = this.getTextureId(queue.get(i));
+
+            // the index makes the keys unique - the sort is therefore stable
+            this.keys[i] = (textureId << INDEX_BITS) | (i - start);
+        }
+
+        Arrays.sort(this.keys, start, end);
+
+        for (int i = start; i < end; i++) {
+            this.batched[i] = queue.get(start + (int) (this.keys[i] & INDEX_MASK));
+        }
+    }
+
+    private int getTextureId(RenderData data) {
+        final Object texture = this.textureKeys.getTextureKey(data);
+
+        if (texture == null) {
+            return 0;
+        }
+
+        int id = this.textureIds.get(texture, 0);
+
+        if (id == 0) {
+            id = this.textureIds.size + 1;
+            this.textureIds.put(texture, id);
+        }
+
+        return id;
+    }
+
+    public RenderData get(int index) {
+        return this.batched[index];
+    }
+}
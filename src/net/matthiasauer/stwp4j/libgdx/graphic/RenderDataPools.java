@@ -0,0 +1,35 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import net.matthiasauer.stwp4j.libgdx.utils.ObjectPool;
+
+/**
+ * Pools for the RenderData sent to the RENDERDATA_CHANNEL.
+ * <p>
+ * Ownership : RenderData obtained from these pools belongs to the producer
+ * until it is offered to the RENDERDATA_CHANNEL, from then on it belongs to
+ * the RenderProcess and mustn't be used by the producer anymore. The
+ * RenderProcess recycles it after the frame it was rendered in - or in
+ * retained mode when it is replaced or removed. With a RenderFrameBuffer it is
+ * recycled by the simulation thread when the buffer of its frame is reused.
+ * RenderData created with new is never recycled and can therefore be offered
+ * again and again - with a RenderFrameBuffer only if it isn't changed anymore,
+ * as the GL thread may still draw it.
+ */
+public final class RenderDataPools {
+    public static final ObjectPool<SpriteRenderData> SPRITES = new ObjectPool<SpriteRenderData>() {
+        @Override
+        protected SpriteRenderData newObject() {
+            return new SpriteRenderData();
+        }
+    };
+
+    public static final ObjectPool<TextRenderData> TEXTS = new ObjectPool<TextRenderData>() {
+        @Override
+        protected TextRenderData newObject() {
+            return new TextRenderData();
+        }
+    };
+
+    private RenderDataPools() {
+    }
+}
@@ -0,0 +1,25 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+/**
+ * Collects the RenderData of a frame and provides it in the order it has to be
+ * rendered - primarily according to the renderOrder, if a draw - then using
+ * renderProjected (see RenderDataComparator)
+ */
+interface RenderDataQueue {
+    /**
+     * called before the RenderData of a new frame is added
+     */
+    void beginFrame();
+
+    void add(RenderData data);
+
+    /**
+     * must be called after all RenderData of the frame has been added and
+     * before get is used
+     */
+    void sort();
+
+    int size();
+
+    RenderData get(int index);
+}
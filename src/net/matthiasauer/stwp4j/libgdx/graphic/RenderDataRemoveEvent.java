@@ -0,0 +1,19 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+/**
+ * Removes the RenderData with the given id from the RenderProcess - only used
+ * if the RenderProcess runs in retained mode
+ */
+public class RenderDataRemoveEvent {
+    private String id;
+
+    public RenderDataRemoveEvent set(String id) {
+        this.id = id;
+
+        return this;
+    }
+
+    public String getId() {
+        return this.id;
+    }
+}
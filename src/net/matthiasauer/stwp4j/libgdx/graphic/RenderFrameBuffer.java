@@ -0,0 +1,201 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.matthiasauer.stwp4j.libgdx.utils.ObjectPool;
+
+/**
+ * Passes complete frames of RenderData from a simulation thread (or the
+ * simulation Scheduler of a fixed timestep) to the RenderProcess on the GL
+ * thread - the frames are triple buffered so neither
+ * thread waits for the other. The simulation thread adds the RenderData of a
+ * frame and publishes it, the RenderProcess draws the most recently published
+ * frame until a newer one is published. The RenderData of a frame that was
+ * drawn (or replaced before it was drawn) is recycled on the simulation
+ * thread when its buffer is reused - RenderData mustn't be changed after it
+ * was added.
+ * <p>
+ * The InputTouchEvents picked on the GL thread are copied into a lock-free
+ * ring of preallocated events and flow back to the simulation thread. The
+ * simulation thread releases the events it polled after the following
+ * iteration, then their slots are reused. If the simulation falls behind
+ * the events wait on the GL thread until the ring has room again.
+ */
+public final class RenderFrameBuffer {
+    private static final int INDEX_MASK = 3;
+    private static final int PUBLISHED = 4;
+    private final List<List<RenderData>> frames = new ArrayList<List<RenderData>>();
+    /**
+     * the index of the buffer exchanged between the threads - with the
+     * PUBLISHED bit if it contains a frame that wasn't drawn yet
+     */
+    private final AtomicInteger exchanged = new AtomicInteger(1);
+    /** the number of slots of the ring - a power of two */
+    private static final int INPUT_TOUCH_EVENTS = 256;
+    private final InputTouchEvent[] inputTouchEvents = new InputTouchEvent[INPUT_TOUCH_EVENTS];
+    /** the number of events written to the ring by the GL thread */
+    private final AtomicLong writtenEvents = new AtomicLong();
+    /**
+     * the number of events released by the simulation thread - their slots
+     * can be written again
+     */
+    private final AtomicLong releasedEvents = new AtomicLong();
+    /** the events that didn't fit into the ring - only used by the GL thread */
+    private final List<InputTouchEvent> waitingEvents = new ArrayList<InputTouchEvent>();
+    private final ObjectPool<InputTouchEvent> waitingEventPool = new ObjectPool<InputTouchEvent>() {
+        @Override
+        protected InputTouchEvent newObject() {
+            return new InputTouchEvent();
+        }
+    };
+    /** only used by the simulation thread */
+    private long polledEvents;
+    /** the polledEvents when the events were released the last time */
+    private long polledEventsBeforeRelease;
+    private int back = 0;
+    private int front = 2;
+
+    public RenderFrameBuffer() {
+        for (int i = 0; i < 3; i++) {
+            this.frames.add(new ArrayList<RenderData>());
+        }
+
+        for (int i = 0; i < INPUT_TOUCH_EVENTS; i++) {
+            this.inputTouchEvents[i] = new InputTouchEvent();
+        }
+    }
+
+    /**
+     * Adds the RenderData to the frame of the simulation thread
+     */
+    public void add(RenderData data) {
+        if (data == null) {
+            throw new NullPointerException("data mustn't be null !");
+        }
+
+        this.frames.get(this.back).add(data);
+    }
+
+    /**
+     * Publishes the frame of the simulation thread and starts the next one
+     */
+    public void publish() {
+        this.back = this.exchanged.getAndSet(this.back | PUBLISHED) & INDEX_MASK;
+
+        // the GL thread doesn't use the exchanged buffer anymore
+        final List<RenderData> frame = this.frames.get(this.back);
+
+        for (int i = 0; i < frame.size(); i++) {
+            frame.get(i).recycle();
+        }
+
+        frame.clear();
+    }
+
+    /**
+     * Called by the GL thread to get the most recently published frame
+     *
+     * @return true if a frame was published since the last call
+     */
+    boolean acquire() {
+        this.writeWaitingEvents();
+
+        if ((this.exchanged.get() & PUBLISHED) == 0) {
+            return false;
+        }
+
+        this.front = this.exchanged.getAndSet(this.front) & INDEX_MASK;
+
+        return true;
+    }
+
+    /**
+     * @return the RenderData of the frame acquired by the GL thread
+     */
+    List<RenderData> getFrame() {
+        return this.frames.get(this.front);
+    }
+
+    /**
+     * Called by the GL thread - the event is recycled by the
+     * InteractionSubProcess so a copy is queued
+     */
+    void offerInputTouchEvent(InputTouchEvent event) {
+        this.writeWaitingEvents();
+
+        // the order of the events is kept
+        if (!this.waitingEvents.isEmpty() || !this.write(event)) {
+            this.waitingEvents.add(copy(event, this.waitingEventPool.obtain()));
+        }
+    }
+
+    /**
+     * writes the events that didn't fit into the ring before
+     */
+    private void writeWaitingEvents() {
+        int written = 0;
+
+        while ((written < this.waitingEvents.size()) && this.write(this.waitingEvents.get(written))) {
+            this.waitingEvents.get(written).recycle();
+            written++;
+        }
+
+        if (written > 0) {
+            this.waitingEvents.subList(0, written).clear();
+        }
+    }
+
+    /**
+     * @return false if the ring is full
+     */
+    private boolean write(InputTouchEvent event) {
+        final long written = this.writtenEvents.get();
+
+        if (written - this.releasedEvents.get() == INPUT_TOUCH_EVENTS) {
+            return false;
+        }
+
+        copy(event, this.inputTouchEvents[(int) written & (INPUT_TOUCH_EVENTS - 1)]);
+        // publishes the copied event to the simulation thread
+        this.writtenEvents.set(written + 1);
+
+        return true;
+    }
+
+    private static InputTouchEvent copy(InputTouchEvent event, InputTouchEvent copy) {
+        copy.set(event.getScreenX(), event.getScreenY(), event.getInputTouchEventType(), event.getArgument(),
+                event.getPointer(), event.isTouched(), event.getPosition(true), event.getPosition(false));
+        copy.setProjected(event.isProjected());
+        copy.setTouchedRenderDataId(event.getTouchedRenderDataId());
+
+        return copy;
+    }
+
+    /**
+     * Called by the simulation thread - the event is valid until
+     * releaseInputTouchEvents was called twice
+     *
+     * @return the oldest InputTouchEvent picked by the RenderProcess or null
+     *         if there is none
+     */
+    public InputTouchEvent pollInputTouchEvent() {
+        if (this.polledEvents == this.writtenEvents.get()) {
+            return null;
+        }
+
+        return this.inputTouchEvents[(int) this.polledEvents++ & (INPUT_TOUCH_EVENTS - 1)];
+    }
+
+    /**
+     * Called by the simulation thread once per iteration - the events polled
+     * before the previous call can be reused by the GL thread, the ones polled
+     * since then might still be consumed in this iteration
+     */
+    public void releaseInputTouchEvents() {
+        this.releasedEvents.set(this.polledEventsBeforeRelease);
+        this.polledEventsBeforeRelease = this.polledEvents;
+    }
+}
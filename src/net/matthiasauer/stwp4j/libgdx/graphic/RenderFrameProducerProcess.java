@@ -0,0 +1,70 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import net.matthiasauer.stwp4j.ChannelInPort;
+import net.matthiasauer.stwp4j.ChannelOutPort;
+import net.matthiasauer.stwp4j.LightweightProcess;
+
+/**
+ * Runs in the Scheduler of the simulation instead of the RenderProcess (on a
+ * SimulationThread or stepped by a fixed timestep) - the RenderData of each
+ * iteration is published as a frame of the RenderFrameBuffer and the
+ * InputTouchEvents picked by the RenderProcess are forwarded to the
+ * simulation.
+ */
+public final class RenderFrameProducerProcess extends LightweightProcess {
+    private final RenderFrameBuffer renderFrameBuffer;
+    private final ChannelInPort<RenderData> renderDataChannel;
+    private final ChannelOutPort<InputTouchEvent> inputTouchEventDataChannel;
+
+    /**
+     * @param renderFrameBuffer
+     *            the buffer that is also passed to the settings of the
+     *            RenderProcess
+     * @param renderDataChannel
+     *            receives the RenderData of the simulation
+     * @param inputTouchEventDataChannel
+     *            produces the InputTouchEvents of the RenderProcess - may be
+     *            null if the RenderProcess doesn't create them
+     */
+    public RenderFrameProducerProcess(RenderFrameBuffer renderFrameBuffer, ChannelInPort<RenderData> renderDataChannel,
+            ChannelOutPort<InputTouchEvent> inputTouchEventDataChannel) {
+        if (renderFrameBuffer == null) {
+            throw new NullPointerException("renderFrameBuffer mustn't be null !");
+        }
+
+        if (renderDataChannel == null) {
+            throw new NullPointerException("renderDataChannel mustn't be null !");
+        }
+
+        this.renderFrameBuffer = renderFrameBuffer;
+        this.renderDataChannel = renderDataChannel;
+        this.inputTouchEventDataChannel = inputTouchEventDataChannel;
+    }
+
+    @Override
+    protected void execute() {
+        // the events forwarded in the previous iteration might still be
+        // polled in this one
+        this.renderFrameBuffer.releaseInputTouchEvents();
+
+        InputTouchEvent event = null;
+
+        while ((event = this.renderFrameBuffer.pollInputTouchEvent()) != null) {
+            if (this.inputTouchEventDataChannel != null) {
+                this.inputTouchEventDataChannel.offer(event);
+            }
+        }
+
+        RenderData data = null;
+
+        while ((data = this.renderDataChannel.poll()) != null) {
+            data.checkNotRecycled();
+            this.renderFrameBuffer.add(data);
+        }
+    }
+
+    @Override
+    protected void postIteration() {
+        this.renderFrameBuffer.publish();
+    }
+}
@@ -1,12 +1,13 @@
 package net.matthiasauer.stwp4j.libgdx.graphic;
 
+import java.io.IOException;
 import java.util.List;
-import java.util.PriorityQueue;
-import java.util.Queue;
+import java.util.Map;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
@@ -42,15 +43,87 @@ public final class RenderProcess extends LightweightProcess {
         ChangeResolutionKeepAspect
     }
 
-    /**
-     * 11 is the default size internally so start with that initial capacity
-     */
-    private static final int sortedRenderComponentsInitialSize = 11;
+    public static enum RenderOrdering {
+        /**
+         * Linear time counting/radix sort - RenderData with the same
+         * renderOrder and renderProjected is rendered in the order it was
+         * received
+         */
+        BucketSort,
+        /**
+         * Sorts using a PriorityQueue - the order of RenderData with the same
+         * renderOrder and renderProjected is not defined
+         */
+        PriorityQueue
+    }
+
+    public static enum PickingEngine {
+        /**
+         * Tests the bounding boxes (and alpha masks) of the candidates of a
+         * uniform grid for every InputTouchEvent
+         */
+        Geometric,
+        /**
+         * Rasterizes the touchable RenderData into a low resolution buffer
+         * of draw indices on the CPU - every InputTouchEvent only reads the
+         * buffer
+         */
+        PickBuffer
+    }
+
+    public static enum FramePhase {
+        /**
+         * Polling the channels of the RenderProcess
+         */
+        Drain,
+        /**
+         * Uploading asynchronously loaded pages of the texture atlases
+         */
+        TextureUpload,
+        /**
+         * Ordering (and batching) the RenderData
+         */
+        Sort,
+        /**
+         * Drawing SpriteRenderData
+         */
+        Sprites,
+        /**
+         * Drawing TextRenderData
+         */
+        Texts,
+        /**
+         * Switching between projected and unprojected RenderData - this
+         * flushes the SpriteBatch
+         */
+        ProjectionSwitches,
+        /**
+         * Searching the RenderData touched by the InputTouchEvents
+         */
+        Picking,
+        /**
+         * Polling the channels and rendering the whole frame
+         */
+        Total
+    }
+
     public static final String RENDERDATA_CHANNEL = "renderdata-channel";
+    public static final String RENDERDATA_REMOVE_CHANNEL = "renderdata-remove-channel";
     public static final String INPUTTOUCHEVENTDATA_CHANNEL = "inputtoucheventdata-channel";
+    public static final String TEXTURE_LOADING_PROGRESS_CHANNEL = "texture-loading-progress-channel";
+    public static final String FRAME_STATS_CHANNEL = "frame-stats-channel";
     public final OrthographicCamera camera;
     private final SpriteBatch spriteBatch;
-    private final Queue<RenderData> sortedRenderComponents;
+    private final RenderDataQueue sortedRenderComponents;
+    private final RetainedRenderDataQueue retainedRenderComponents;
+    private final ChannelInPort<RenderDataRemoveEvent> renderDataRemoveChannel;
+    private final RenderDataBatcher renderDataBatcher;
+    private final RenderStatistics statistics;
+    private final RenderFrameBuffer renderFrameBuffer;
+    private final FrameStatsRecorder frameStats;
+    private final TextureLoader textureLoader;
+    private final ChannelOutPort<TextureLoadingProgressEvent> textureLoadingProgressChannel;
+    private final ViewportCuller viewportCuller;
     private final RenderSpriteSubSystem renderSpriteSubSystem;
     private final RenderTextSubSystem renderTextSubSystem;
     private final Viewport viewport;
@@ -64,6 +137,7 @@ public final class RenderProcess extends LightweightProcess {
     private final ResizeBehavior resizeBehavior;
     private final int initalCameraWidth;
     private final int initalCameraHeight;
+    private boolean frameIteration;
 
     /**
      * Creates the RenderProcess
@@ -97,6 +171,47 @@ public final class RenderProcess extends LightweightProcess {
             ChannelOutPort<InputTouchEvent> inputTouchEventDataChannel,
             ChannelInPort<CameraChangeEvent> cameraChangeEventChannel,
             ChannelOutPort<CameraStatusEvent> cameraStatusEventChannel) {
+        this(atlasFilePaths, createInputTouchEvents, initialCameraWidth, initialCameraHeight, resizeBehavior,
+                renderDataChannel, applicationEventChannel, inputTouchEventDataChannel, cameraChangeEventChannel,
+                cameraStatusEventChannel, new RenderProcessSettings());
+    }
+
+    /**
+     * Creates the RenderProcess
+     * 
+     * @param atlasFilePaths
+     *            a list of file paths pointing to texture atlases
+     * @param createInputTouchEvents
+     *            indicates whether InputTouchEvents should be created submitted
+     *            to the RENDERDATA_CHANNEL channel
+     * @param initialCameraWidth
+     *            the initial width the camera will have
+     * @param initialCameraHeight
+     *            the initial height the camera will have
+     * @param resizeBehavior
+     *            determines the resize behaviour
+     * @param renderDataChannel
+     *            receives the RenderData instances that will be rendered -
+     *            not polled if the settings contain a RenderFrameBuffer
+     * @param applicationEventChannel
+     *            receives the events from the Application - f.e. resize
+     * @param inputTouchEventDataChannel
+     *            produces input events generated from a mouse or touch input
+     * @param cameraChangeEventChannel
+     *            channel that allows changing the camera
+     * @param cameraStatusEventChannel
+     *            produces events after changing the camera that return the
+     *            status of the camera
+     * @param settings
+     *            optional settings - f.e. the algorithm used to order the
+     *            RenderData
+     */
+    public RenderProcess(List<String> atlasFilePaths, boolean createInputTouchEvents, int initialCameraWidth,
+            int initialCameraHeight, ResizeBehavior resizeBehavior, ChannelInPort<RenderData> renderDataChannel,
+            ChannelInPort<ApplicationEvent> applicationEventChannel,
+            ChannelOutPort<InputTouchEvent> inputTouchEventDataChannel,
+            ChannelInPort<CameraChangeEvent> cameraChangeEventChannel,
+            ChannelOutPort<CameraStatusEvent> cameraStatusEventChannel, RenderProcessSettings settings) {
         this.initalCameraHeight = initialCameraHeight;
         this.initalCameraWidth = initialCameraWidth;
         this.inputTouchEventDataChannel = inputTouchEventDataChannel;
@@ -110,30 +225,107 @@ public final class RenderProcess extends LightweightProcess {
         this.camera = new OrthographicCamera(this.initalCameraWidth, this.initalCameraHeight);
         this.viewport = new ScreenViewport(camera);
         this.spriteBatch = new SpriteBatch();
-        this.interactionSubProcess = new InteractionSubProcess(this.camera, this.viewport);
-        this.renderSpriteSubSystem = new RenderSpriteSubSystem(this.viewport, new TextureLoader(atlasFilePaths),
-                this.camera, this.spriteBatch, this.interactionSubProcess);
+        this.statistics = new RenderStatistics();
+        this.frameStats = new FrameStatsRecorder(settings);
+        this.textureLoader = new TextureLoader(atlasFilePaths, settings, this.statistics);
+        this.interactionSubProcess = new InteractionSubProcess(this.camera, this.viewport,
+                new RenderTextureArchiveSystem(this.textureLoader, settings.getAlphaThreshold(),
+                        mapAlphaMaskFile(settings.getAlphaMaskFilePath())),
+                createInputTouchEvents, settings, this.statistics);
+        this.viewportCuller = new ViewportCuller(this.camera, this.statistics, settings.isCulling());
+        this.textureLoadingProgressChannel = settings.getTextureLoadingProgressChannel();
+        this.renderSpriteSubSystem = new RenderSpriteSubSystem(this.viewport, this.textureLoader,
+                this.camera, this.spriteBatch, this.interactionSubProcess, this.viewportCuller);
         this.renderTextSubSystem = new RenderTextSubSystem(this.viewport, this.camera, this.spriteBatch,
-                this.interactionSubProcess);
+                this.interactionSubProcess, this.viewportCuller, this.statistics,
+                settings.getTextCacheEvictionFrames(), new GlyphLayoutCache(this.statistics,
+                        settings.getGlyphLayoutCacheEntries(), settings.getGlyphLayoutCacheBytes()));
+
+        this.renderDataRemoveChannel = settings.getRenderDataRemoveChannel();
+        this.renderFrameBuffer = settings.getRenderFrameBuffer();
+
+        if (settings.isRetainedMode() && (this.renderFrameBuffer != null)) {
+            throw new IllegalArgumentException("a RenderFrameBuffer can't be combined with retained mode !");
+        }
+
+        if (settings.isRetainedMode()) {
+            this.retainedRenderComponents = new RetainedRenderDataQueue();
+            this.sortedRenderComponents = this.retainedRenderComponents;
+        } else {
+            this.retainedRenderComponents = null;
+            this.sortedRenderComponents = createRenderDataQueue(settings.getRenderOrdering());
+        }
+
+        if (settings.isDrawBatching()) {
+            this.renderDataBatcher = new RenderDataBatcher(new RenderDataBatcher.TextureKeys() {
+                @Override
+                public Object getTextureKey(RenderData data) {
+                    return RenderProcess.this.getTextureKey(data);
+                }
+            });
+        } else {
+            this.renderDataBatcher = null;
+        }
+    }
+
+    private Object getTextureKey(RenderData data) {
+        if (data instanceof SpriteRenderData) {
+            // the page doesn't load the texture of sprites that are culled
+            return this.renderSpriteSubSystem.getTexturePage((SpriteRenderData) data);
+        } else if (data instanceof TextRenderData) {
+            return this.renderTextSubSystem.getTexture((TextRenderData) data);
+        }
 
-        // create the PriorityQueue with the custom comparator and an initial
-        // size
-        this.sortedRenderComponents = new PriorityQueue<RenderData>(sortedRenderComponentsInitialSize,
-                new RenderDataComparator());
+        return null;
+    }
+
+    private static RenderDataQueue createRenderDataQueue(RenderOrdering renderOrdering) {
+        switch (renderOrdering) {
+        case PriorityQueue:
+            return new PriorityRenderDataQueue();
+        case BucketSort:
+            return new BucketRenderDataQueue();
+        default:
+            throw new IllegalArgumentException("unknown RenderOrdering : " + renderOrdering);
+        }
     }
 
     private void handleRenderDataChannel() {
+        if (this.renderFrameBuffer != null) {
+            // the RenderData is drawn from the frames of the simulation thread
+            return;
+        }
+
         RenderData data = null;
 
         while ((data = this.renderDataChannel.poll()) != null) {
+            data.checkNotRecycled();
             this.sortedRenderComponents.add(data);
         }
     }
 
+    private void handleRenderDataRemoveChannel() {
+        if (this.renderDataRemoveChannel == null) {
+            return;
+        }
+
+        RenderDataRemoveEvent event = null;
+
+        while ((event = this.renderDataRemoveChannel.poll()) != null) {
+            if (this.retainedRenderComponents == null) {
+                throw new IllegalStateException("RenderDataRemoveEvents are only supported in retained mode !");
+            }
+
+            this.retainedRenderComponents.remove(event.getId());
+        }
+    }
+
     private void handleApplicationEventChannel() {
         ApplicationEvent event = null;
 
         while ((event = this.applicationEventChannel.poll()) != null) {
+            event.checkNotRecycled();
+
             if (event.getApplicationEventType() == ApplicationEventType.RESIZE) {
                 ResizeApplicationEvent resizeEvent = (ResizeApplicationEvent) event;
 
@@ -190,6 +382,10 @@ public final class RenderProcess extends LightweightProcess {
                 this.camera.position.set(preResizePosition);
                 this.camera.zoom = preResizeZoom;
                 this.camera.update();
+            } else if (event.getApplicationEventType() == ApplicationEventType.DISPOSE) {
+                // the application is closed - nothing is drawn anymore
+                this.frameIteration = false;
+                this.interactionSubProcess.dispose();
             }
         }
     }
@@ -209,63 +405,230 @@ public final class RenderProcess extends LightweightProcess {
 
     @Override
     protected void execute() {
+        this.frameStats.enter(FramePhase.Drain);
         this.handleRenderDataChannel();
+        this.handleRenderDataRemoveChannel();
         this.handleApplicationEventChannel();
         this.handleCameraChangeEventChannel();
+        this.frameStats.exit();
     }
 
     @Override
     protected void preIteration() {
-        this.sortedRenderComponents.clear();
+        this.frameStats.beginFrame();
+        this.sortedRenderComponents.beginFrame();
+        // every iteration is drawn except the last one of the application
+        this.frameIteration = true;
+    }
+
+    @Override
+    protected void postIteration() {
+        if (!this.frameIteration) {
+            this.skipFrame();
+            return;
+        }
+
+        this.frameStats.beginDrawing();
+
+        if (this.renderFrameBuffer != null) {
+            this.addRenderFrame();
+        }
+
         this.renderTextSubSystem.preIteration();
 
         if (this.createInputTouchEvents) {
+            // the RenderData touchable by the InputTouchEvents of this frame
+            // is collected while drawing
             this.interactionSubProcess.preIteration();
         }
-    }
 
-    @Override
-    protected void postIteration() {
         Gdx.gl.glClearColor(0.5f, 0.5f, 0.5f, 1);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 
+        this.statistics.beginFrame();
+        this.textureLoader.beginFrame();
+
+        if (!this.textureLoader.isLoaded()) {
+            this.frameStats.enter(FramePhase.TextureUpload);
+            this.uploadTextures();
+            this.frameStats.exit();
+        }
+
         final float originalZoom = this.camera.zoom;
+        final int renderCallsBefore = this.spriteBatch.totalRenderCalls;
         this.spriteBatch.begin();
         this.changeProjection(true, originalZoom);
         boolean lastProjectedValue = true;
+        Texture lastTexture = null;
+        int sprites = 0;
+        int texts = 0;
+
+        this.frameStats.enter(FramePhase.Sort);
+        this.sortedRenderComponents.sort();
 
-        // iterate over the keys in order (that's what the treemap is for)
-        while (!this.sortedRenderComponents.isEmpty()) {
-            RenderData baseRenderComponent = this.sortedRenderComponents.poll();
+        if (this.renderDataBatcher != null) {
+            // group by texture within the same layer
+            this.renderDataBatcher.batch(this.sortedRenderComponents);
+        }
+
+        // iterate over the RenderData in order
+        for (int i = 0; i < this.sortedRenderComponents.size(); i++) {
+            RenderData baseRenderComponent = this.getRenderData(i);
             final boolean projected = baseRenderComponent.isRenderProjected();
+            Texture texture = null;
 
             if (lastProjectedValue != projected) {
                 lastProjectedValue = projected;
 
+                this.frameStats.enter(FramePhase.ProjectionSwitches);
                 this.changeProjection(projected, originalZoom);
+                this.statistics.addProjectionSwitch();
             }
 
             if (baseRenderComponent instanceof SpriteRenderData) {
-                this.renderSpriteSubSystem.drawSprite((SpriteRenderData) baseRenderComponent);
-                continue;
+                this.frameStats.enter(FramePhase.Sprites);
+                sprites++;
+                texture = this.renderSpriteSubSystem.drawSprite((SpriteRenderData) baseRenderComponent);
+            } else if (baseRenderComponent instanceof TextRenderData) {
+                this.frameStats.enter(FramePhase.Texts);
+                texts++;
+                texture = this.renderTextSubSystem.drawText((TextRenderData) baseRenderComponent);
+            } else {
+                throw new NullPointerException("Unknown specialization of the BaseRenderComponent !");
             }
 
-            if (baseRenderComponent instanceof TextRenderData) {
-                this.renderTextSubSystem.drawText((TextRenderData) baseRenderComponent);
-                continue;
-            }
+            if (texture != null) {
+                this.statistics.addDrawn();
+
+                if ((lastTexture != null) && (lastTexture != texture)) {
+                    this.statistics.addTextureSwitch();
+                }
 
-            throw new NullPointerException("Unknown specialization of the BaseRenderComponent !");
+                lastTexture = texture;
+            }
         }
 
+        // flushing the remaining RenderData belongs to the last phase
         this.spriteBatch.end();
+        this.frameStats.exit();
+        this.renderTextSubSystem.postIteration();
+        this.statistics.addRenderCalls(this.spriteBatch.totalRenderCalls - renderCallsBefore);
 
         this.camera.zoom = originalZoom;
         this.camera.update();
 
         if (this.createInputTouchEvents) {
-            this.interactionSubProcess.postIteration(this.inputTouchEventDataChannel);
+            this.frameStats.enter(FramePhase.Picking);
+
+            if (this.renderFrameBuffer != null) {
+                this.interactionSubProcess.postIteration(this.renderFrameBuffer);
+            } else {
+                this.interactionSubProcess.postIteration(this.inputTouchEventDataChannel);
+            }
+
+            this.frameStats.exit();
+        }
+
+        if ((this.retainedRenderComponents == null) && (this.renderFrameBuffer == null)) {
+            // the RenderData was only used for this frame
+            for (int i = 0; i < this.sortedRenderComponents.size(); i++) {
+                this.sortedRenderComponents.get(i).recycle();
+            }
         }
+
+        this.frameStats.endFrame(this.sortedRenderComponents.size(), sprites, texts, this.statistics);
+    }
+
+    /**
+     * adds the most recently published frame of the simulation thread - it is
+     * drawn again until the next one is published and recycled by the
+     * simulation thread
+     */
+    private void addRenderFrame() {
+        this.frameStats.enter(FramePhase.Drain);
+        this.renderFrameBuffer.acquire();
+
+        final List<RenderData> frame = this.renderFrameBuffer.getFrame();
+
+        for (int i = 0; i < frame.size(); i++) {
+            this.sortedRenderComponents.add(frame.get(i));
+        }
+
+        this.frameStats.exit();
+    }
+
+    /**
+     * the RenderData of the iteration of the DISPOSE event isn't displayed,
+     * it is only recycled
+     */
+    private void skipFrame() {
+        if (this.retainedRenderComponents == null) {
+            for (int i = 0; i < this.sortedRenderComponents.size(); i++) {
+                this.sortedRenderComponents.get(i).recycle();
+            }
+        }
+    }
+
+    private static Map<String, AlphaMask> mapAlphaMaskFile(String alphaMaskFilePath) {
+        if (alphaMaskFilePath == null) {
+            return null;
+        }
+
+        try {
+            return AlphaMaskFile.map(Gdx.files.internal(alphaMaskFilePath).file());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("couldn't map the alpha mask file '" + alphaMaskFilePath + "'", e);
+        }
+    }
+
+    private void uploadTextures() {
+        final int uploadedPagesBefore = this.textureLoader.getUploadedPages();
+
+        this.textureLoader.update();
+
+        if ((this.textureLoadingProgressChannel != null)
+                && (uploadedPagesBefore != this.textureLoader.getUploadedPages())) {
+            this.textureLoadingProgressChannel.offer(new TextureLoadingProgressEvent(
+                    this.textureLoader.getUploadedPages(), this.textureLoader.getTotalPages()));
+        }
+    }
+
+    private RenderData getRenderData(int index) {
+        if (this.renderDataBatcher != null) {
+            return this.renderDataBatcher.get(index);
+        }
+
+        return this.sortedRenderComponents.get(index);
+    }
+
+    /**
+     * Resolves the name of a region of the texture atlases to a handle that
+     * can be used by SpriteRenderData instead of the name. This method is
+     * thread-safe and may be called by the processes producing RenderData.
+     * 
+     * @param textureName
+     *            the name of the region
+     * @return the handle of the region
+     */
+    public int resolveTexture(String textureName) {
+        return this.textureLoader.resolve(textureName);
+    }
+
+    /**
+     * @return the counters of the last rendered frame
+     */
+    public RenderStatistics getStatistics() {
+        return this.statistics;
+    }
+
+    /**
+     * @param phase
+     *            the measured phase of the frames
+     * @return the nanoseconds the phase took in the most recent frames - only
+     *         available if the frame stats are enabled in the settings
+     */
+    public FrameTimeHistogram getFrameTimeHistogram(FramePhase phase) {
+        return this.frameStats.getHistogram(phase);
     }
 
     private void changeProjection(boolean renderProjected, float originalZoom) {
@@ -284,6 +647,8 @@ public final class RenderProcess extends LightweightProcess {
             this.spriteBatch.setProjectionMatrix(this.camera.projection);
         }
 
+        this.viewportCuller.update(renderProjected);
+
         // start new batch
         this.spriteBatch.begin();
     }
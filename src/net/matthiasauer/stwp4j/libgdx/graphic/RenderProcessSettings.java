@@ -0,0 +1,496 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import net.matthiasauer.stwp4j.ChannelInPort;
+import net.matthiasauer.stwp4j.ChannelOutPort;
+import net.matthiasauer.stwp4j.libgdx.graphic.RenderProcess.PickingEngine;
+import net.matthiasauer.stwp4j.libgdx.graphic.RenderProcess.RenderOrdering;
+
+/**
+ * Optional settings of the RenderProcess - the default values are used by the
+ * RenderProcess constructor without settings
+ */
+public final class RenderProcessSettings {
+    private RenderOrdering renderOrdering = RenderOrdering.BucketSort;
+    private boolean drawBatching = false;
+    private boolean retainedMode = false;
+    private boolean culling = false;
+    private int textCacheEvictionFrames = 60;
+    private int glyphLayoutCacheEntries = 1024;
+    private long glyphLayoutCacheBytes = 1024 * 1024;
+    private boolean asyncTextureLoading = false;
+    private int textureUploadsPerFrame = 1;
+    private ChannelOutPort<TextureLoadingProgressEvent> textureLoadingProgressChannel = null;
+    private boolean texturePaging = false;
+    private long textureMemoryBudget = 64L * 1024 * 1024;
+    private int alphaThreshold = 0;
+    private String alphaMaskFilePath = null;
+    private PickingEngine pickingEngine = PickingEngine.Geometric;
+    private float pickBufferScale = 0.25f;
+    private boolean pickBufferAlphaMasks = true;
+    private int pickBufferThreads = 1;
+    private boolean inputEventCoalescing = false;
+    private int parallelPickingThreshold = 2048;
+    private boolean frameStats = false;
+    private ChannelOutPort<FrameStatsEvent> frameStatsChannel = null;
+    private int frameStatsWindow = 300;
+    private boolean allocationProbe = false;
+    private RenderFrameBuffer renderFrameBuffer = null;
+    private ChannelInPort<RenderDataRemoveEvent> renderDataRemoveChannel = null;
+
+    /**
+     * @param renderOrdering
+     *            the algorithm used to order the RenderData of a frame
+     */
+    public RenderProcessSettings setRenderOrdering(RenderOrdering renderOrdering) {
+        if (renderOrdering == null) {
+            throw new NullPointerException("renderOrdering mustn't be null !");
+        }
+
+        this.renderOrdering = renderOrdering;
+
+        return this;
+    }
+
+    public RenderOrdering getRenderOrdering() {
+        return this.renderOrdering;
+    }
+
+    /**
+     * @param drawBatching
+     *            if true RenderData with the same renderOrder and
+     *            renderProjected is grouped by texture before it is drawn -
+     *            this reduces the number of texture switches
+     */
+    public RenderProcessSettings setDrawBatching(boolean drawBatching) {
+        this.drawBatching = drawBatching;
+
+        return this;
+    }
+
+    public boolean isDrawBatching() {
+        return this.drawBatching;
+    }
+
+    /**
+     * @param retainedMode
+     *            if true the RenderData is kept between frames instead of
+     *            being cleared before each frame - RenderData only has to be
+     *            sent to the RENDERDATA_CHANNEL if it changed and replaces the
+     *            RenderData with the same id. The RenderData is then rendered
+     *            until it is removed using a RenderDataRemoveEvent.
+     */
+    public RenderProcessSettings setRetainedMode(boolean retainedMode) {
+        this.retainedMode = retainedMode;
+
+        return this;
+    }
+
+    public boolean isRetainedMode() {
+        return this.retainedMode;
+    }
+
+    /**
+     * @param renderDataRemoveChannel
+     *            receives the RenderDataRemoveEvents that remove RenderData in
+     *            retained mode
+     */
+    public RenderProcessSettings setRenderDataRemoveChannel(
+            ChannelInPort<RenderDataRemoveEvent> renderDataRemoveChannel) {
+        this.renderDataRemoveChannel = renderDataRemoveChannel;
+
+        return this;
+    }
+
+    public ChannelInPort<RenderDataRemoveEvent> getRenderDataRemoveChannel() {
+        return this.renderDataRemoveChannel;
+    }
+
+    /**
+     * @param culling
+     *            if true RenderData outside of the visible area is neither
+     *            drawn nor taken into account for InputTouchEvents
+     */
+    public RenderProcessSettings setCulling(boolean culling) {
+        this.culling = culling;
+
+        return this;
+    }
+
+    public boolean isCulling() {
+        return this.culling;
+    }
+
+    /**
+     * @param textCacheEvictionFrames
+     *            the vertices of a TextRenderData with an id are kept for this
+     *            number of frames after it was drawn the last time
+     */
+    public RenderProcessSettings setTextCacheEvictionFrames(int textCacheEvictionFrames) {
+        if (textCacheEvictionFrames < 1) {
+            throw new IllegalArgumentException("textCacheEvictionFrames must be at least 1 !");
+        }
+
+        this.textCacheEvictionFrames = textCacheEvictionFrames;
+
+        return this;
+    }
+
+    public int getTextCacheEvictionFrames() {
+        return this.textCacheEvictionFrames;
+    }
+
+    /**
+     * @param glyphLayoutCacheEntries
+     *            the maximum number of laid out texts that are cached
+     */
+    public RenderProcessSettings setGlyphLayoutCacheEntries(int glyphLayoutCacheEntries) {
+        if (glyphLayoutCacheEntries < 1) {
+            throw new IllegalArgumentException("glyphLayoutCacheEntries must be at least 1 !");
+        }
+
+        this.glyphLayoutCacheEntries = glyphLayoutCacheEntries;
+
+        return this;
+    }
+
+    public int getGlyphLayoutCacheEntries() {
+        return this.glyphLayoutCacheEntries;
+    }
+
+    /**
+     * @param glyphLayoutCacheBytes
+     *            the estimated size in bytes the cached laid out texts may
+     *            occupy
+     */
+    public RenderProcessSettings setGlyphLayoutCacheBytes(long glyphLayoutCacheBytes) {
+        if (glyphLayoutCacheBytes < 1) {
+            throw new IllegalArgumentException("glyphLayoutCacheBytes must be at least 1 !");
+        }
+
+        this.glyphLayoutCacheBytes = glyphLayoutCacheBytes;
+
+        return this;
+    }
+
+    public long getGlyphLayoutCacheBytes() {
+        return this.glyphLayoutCacheBytes;
+    }
+
+    /**
+     * @param asyncTextureLoading
+     *            if true the pages of the texture atlases are decoded by
+     *            worker threads and uploaded over multiple frames instead of
+     *            being loaded by the constructor - sprites whose page isn't
+     *            loaded yet are not drawn
+     */
+    public RenderProcessSettings setAsyncTextureLoading(boolean asyncTextureLoading) {
+        this.asyncTextureLoading = asyncTextureLoading;
+
+        return this;
+    }
+
+    public boolean isAsyncTextureLoading() {
+        return this.asyncTextureLoading;
+    }
+
+    /**
+     * @param textureUploadsPerFrame
+     *            the maximum number of decoded pages uploaded to the GPU per
+     *            frame when loading asynchronously
+     */
+    public RenderProcessSettings setTextureUploadsPerFrame(int textureUploadsPerFrame) {
+        if (textureUploadsPerFrame < 1) {
+            throw new IllegalArgumentException("textureUploadsPerFrame must be at least 1 !");
+        }
+
+        this.textureUploadsPerFrame = textureUploadsPerFrame;
+
+        return this;
+    }
+
+    public int getTextureUploadsPerFrame() {
+        return this.textureUploadsPerFrame;
+    }
+
+    /**
+     * @param textureLoadingProgressChannel
+     *            produces a TextureLoadingProgressEvent whenever pages were
+     *            uploaded while loading asynchronously
+     */
+    public RenderProcessSettings setTextureLoadingProgressChannel(
+            ChannelOutPort<TextureLoadingProgressEvent> textureLoadingProgressChannel) {
+        this.textureLoadingProgressChannel = textureLoadingProgressChannel;
+
+        return this;
+    }
+
+    public ChannelOutPort<TextureLoadingProgressEvent> getTextureLoadingProgressChannel() {
+        return this.textureLoadingProgressChannel;
+    }
+
+    /**
+     * @param texturePaging
+     *            if true a page of the texture atlases is loaded when one of
+     *            its regions is drawn the first time and disposed again if
+     *            the pages exceed the texture memory budget - can't be
+     *            combined with asynchronous texture loading
+     */
+    public RenderProcessSettings setTexturePaging(boolean texturePaging) {
+        this.texturePaging = texturePaging;
+
+        return this;
+    }
+
+    public boolean isTexturePaging() {
+        return this.texturePaging;
+    }
+
+    /**
+     * @param textureMemoryBudget
+     *            the number of bytes the loaded pages may occupy when paging
+     */
+    public RenderProcessSettings setTextureMemoryBudget(long textureMemoryBudget) {
+        if (textureMemoryBudget < 1) {
+            throw new IllegalArgumentException("textureMemoryBudget must be at least 1 !");
+        }
+
+        this.textureMemoryBudget = textureMemoryBudget;
+
+        return this;
+    }
+
+    public long getTextureMemoryBudget() {
+        return this.textureMemoryBudget;
+    }
+
+    /**
+     * @param alphaThreshold
+     *            a pixel of a sprite is only touched if its alpha (0 - 255)
+     *            is above the threshold
+     */
+    public RenderProcessSettings setAlphaThreshold(int alphaThreshold) {
+        if ((alphaThreshold < 0) || (alphaThreshold > 254)) {
+            throw new IllegalArgumentException("alphaThreshold must be between 0 and 254 !");
+        }
+
+        this.alphaThreshold = alphaThreshold;
+
+        return this;
+    }
+
+    public int getAlphaThreshold() {
+        return this.alphaThreshold;
+    }
+
+    /**
+     * @param alphaMaskFilePath
+     *            the internal path of a file written by the buildAlphaMasks
+     *            task - the masks are memory mapped instead of decoding the
+     *            pages when a sprite is touched. The file has to exist on the
+     *            file system (not inside of an archive) and its alpha
+     *            threshold replaces the one of these settings.
+     */
+    public RenderProcessSettings setAlphaMaskFilePath(String alphaMaskFilePath) {
+        this.alphaMaskFilePath = alphaMaskFilePath;
+
+        return this;
+    }
+
+    public String getAlphaMaskFilePath() {
+        return this.alphaMaskFilePath;
+    }
+
+    /**
+     * @param pickingEngine
+     *            the algorithm used to find the RenderData touched by an
+     *            InputTouchEvent
+     */
+    public RenderProcessSettings setPickingEngine(PickingEngine pickingEngine) {
+        if (pickingEngine == null) {
+            throw new NullPointerException("pickingEngine mustn't be null !");
+        }
+
+        this.pickingEngine = pickingEngine;
+
+        return this;
+    }
+
+    public PickingEngine getPickingEngine() {
+        return this.pickingEngine;
+    }
+
+    /**
+     * @param pickBufferScale
+     *            the resolution of the pick buffer relative to the screen
+     *            (0 - 1] - smaller RenderData than a cell may not be touched
+     */
+    public RenderProcessSettings setPickBufferScale(float pickBufferScale) {
+        if (!(pickBufferScale > 0) || (pickBufferScale > 1)) {
+            throw new IllegalArgumentException("pickBufferScale must be greater than 0 and at most 1 !");
+        }
+
+        this.pickBufferScale = pickBufferScale;
+
+        return this;
+    }
+
+    public float getPickBufferScale() {
+        return this.pickBufferScale;
+    }
+
+    /**
+     * @param pickBufferAlphaMasks
+     *            if true sprites are rasterized into the pick buffer using
+     *            their alpha masks, otherwise their whole rectangle can be
+     *            touched
+     */
+    public RenderProcessSettings setPickBufferAlphaMasks(boolean pickBufferAlphaMasks) {
+        this.pickBufferAlphaMasks = pickBufferAlphaMasks;
+
+        return this;
+    }
+
+    public boolean isPickBufferAlphaMasks() {
+        return this.pickBufferAlphaMasks;
+    }
+
+    /**
+     * @param pickBufferThreads
+     *            the number of threads rasterizing the pick buffer
+     */
+    public RenderProcessSettings setPickBufferThreads(int pickBufferThreads) {
+        if (pickBufferThreads < 1) {
+            throw new IllegalArgumentException("pickBufferThreads must be at least 1 !");
+        }
+
+        this.pickBufferThreads = pickBufferThreads;
+
+        return this;
+    }
+
+    public int getPickBufferThreads() {
+        return this.pickBufferThreads;
+    }
+
+    /**
+     * @param inputEventCoalescing
+     *            if true consecutive Moved events and consecutive Dragged
+     *            events of the same pointer within a frame are merged into
+     *            one event at the latest position - TouchDown and TouchUp
+     *            events are never merged
+     */
+    public RenderProcessSettings setInputEventCoalescing(boolean inputEventCoalescing) {
+        this.inputEventCoalescing = inputEventCoalescing;
+
+        return this;
+    }
+
+    public boolean isInputEventCoalescing() {
+        return this.inputEventCoalescing;
+    }
+
+    /**
+     * @param parallelPickingThreshold
+     *            the number of candidates of an InputTouchEvent that are
+     *            tested front to back - the remaining candidates are tested
+     *            in parallel in a ForkJoinPool
+     */
+    public RenderProcessSettings setParallelPickingThreshold(int parallelPickingThreshold) {
+        if (parallelPickingThreshold < 1) {
+            throw new IllegalArgumentException("parallelPickingThreshold must be at least 1 !");
+        }
+
+        this.parallelPickingThreshold = parallelPickingThreshold;
+
+        return this;
+    }
+
+    public int getParallelPickingThreshold() {
+        return this.parallelPickingThreshold;
+    }
+
+    /**
+     * @param frameStats
+     *            if true the nanoseconds of the phases of each frame are
+     *            measured and added to the FrameTimeHistograms of the
+     *            RenderProcess - also enabled by a frame stats channel
+     */
+    public RenderProcessSettings setFrameStats(boolean frameStats) {
+        this.frameStats = frameStats;
+
+        return this;
+    }
+
+    public boolean isFrameStats() {
+        return this.frameStats;
+    }
+
+    /**
+     * @param frameStatsChannel
+     *            produces a FrameStatsEvent after each frame - the event is
+     *            recycled after the following frame
+     */
+    public RenderProcessSettings setFrameStatsChannel(ChannelOutPort<FrameStatsEvent> frameStatsChannel) {
+        this.frameStatsChannel = frameStatsChannel;
+
+        return this;
+    }
+
+    public ChannelOutPort<FrameStatsEvent> getFrameStatsChannel() {
+        return this.frameStatsChannel;
+    }
+
+    /**
+     * @param frameStatsWindow
+     *            the number of most recent frames the FrameTimeHistograms
+     *            contain
+     */
+    public RenderProcessSettings setFrameStatsWindow(int frameStatsWindow) {
+        if (frameStatsWindow < 1) {
+            throw new IllegalArgumentException("frameStatsWindow must be at least 1 !");
+        }
+
+        this.frameStatsWindow = frameStatsWindow;
+
+        return this;
+    }
+
+    public int getFrameStatsWindow() {
+        return this.frameStatsWindow;
+    }
+
+    /**
+     * @param allocationProbe
+     *            if true the FrameStatsEvents contain the garbage collections
+     *            and the bytes allocated during the iteration - read from the
+     *            management beans of the JVM, the values are -1 on platforms
+     *            without them
+     */
+    public RenderProcessSettings setAllocationProbe(boolean allocationProbe) {
+        this.allocationProbe = allocationProbe;
+
+        return this;
+    }
+
+    public boolean isAllocationProbe() {
+        return this.allocationProbe;
+    }
+
+    /**
+     * @param renderFrameBuffer
+     *            if set the RenderProcess draws the frames a
+     *            RenderFrameProducerProcess in the simulation Scheduler
+     *            publishes instead of polling the RENDERDATA_CHANNEL, and its
+     *            InputTouchEvents are passed back to the simulation - can't
+     *            be combined with retained mode
+     */
+    public RenderProcessSettings setRenderFrameBuffer(RenderFrameBuffer renderFrameBuffer) {
+        this.renderFrameBuffer = renderFrameBuffer;
+
+        return this;
+    }
+
+    public RenderFrameBuffer getRenderFrameBuffer() {
+        return this.renderFrameBuffer;
+    }
+}
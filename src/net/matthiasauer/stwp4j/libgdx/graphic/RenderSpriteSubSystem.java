@@ -2,8 +2,10 @@ package net.matthiasauer.stwp4j.libgdx.graphic;
 
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData.Page;
 import com.badlogic.gdx.utils.viewport.Viewport;
 
 class RenderSpriteSubSystem {
@@ -12,25 +14,53 @@ class RenderSpriteSubSystem {
     private final TextureLoader textureLoader;
     private final InteractionSubProcess interactionSubProcess;
     private final Viewport viewPort;
+    private final ViewportCuller viewportCuller;
 
     public RenderSpriteSubSystem(Viewport viewPort, TextureLoader textureLoader, OrthographicCamera camera,
-            SpriteBatch spriteBatch, InteractionSubProcess interactionSubProcess) {
+            SpriteBatch spriteBatch, InteractionSubProcess interactionSubProcess, ViewportCuller viewportCuller) {
         this.camera = camera;
+        this.viewportCuller = viewportCuller;
         this.viewPort = viewPort;
         this.spriteBatch = spriteBatch;
         this.textureLoader = textureLoader;
         this.interactionSubProcess = interactionSubProcess;
     }
 
-    public void drawSprite(SpriteRenderData data) {
-        final AtlasRegion texture = this.textureLoader.getTexture(data.getTextureName());
+    private int getTextureHandle(SpriteRenderData data) {
+        final int textureHandle = data.getTextureHandle();
+
+        if (textureHandle != SpriteRenderData.UNRESOLVED_TEXTURE) {
+            return textureHandle;
+        }
+
+        return this.textureLoader.resolve(data.getTextureName());
+    }
+
+    /**
+     * @return the page of the texture - it identifies the texture without
+     *         loading it
+     */
+    public Page getTexturePage(SpriteRenderData data) {
+        return this.textureLoader.getPage(this.getTextureHandle(data));
+    }
+
+    /**
+     * @return the texture that was drawn or null if the sprite was culled or
+     *         its texture isn't loaded yet
+     */
+    public Texture drawSprite(SpriteRenderData data) {
+        // the dimensions are known without the page - culled sprites don't
+        // page in their texture
+        final int textureHandle = this.getTextureHandle(data);
+        final int regionWidth = this.textureLoader.getRegionWidth(textureHandle);
+        final int regionHeight = this.textureLoader.getRegionHeight(textureHandle);
         final Color tint = data.getTint();
         float actualPositionX = data.getRenderPositionUnit().translateX(this.viewPort, data.getPosition().x,
-                data.getPosition().y) - texture.getRegionWidth() / 2;
+                data.getPosition().y) - regionWidth / 2;
         float actualPositionY = data.getRenderPositionUnit().translateY(this.viewPort, data.getPosition().x,
-                data.getPosition().y) - texture.getRegionHeight() / 2;
-        float width = texture.getRegionWidth();
-        float height = texture.getRegionHeight();
+                data.getPosition().y) - regionHeight / 2;
+        float width = regionWidth;
+        float height = regionHeight;
         float originX = width / 2;
         float originY = height / 2;
 
@@ -43,6 +73,18 @@ class RenderSpriteSubSystem {
             height *= this.camera.zoom;
         }
 
+        if (!this.viewportCuller.isVisible(actualPositionX, actualPositionY, width, height,
+                actualPositionX + originX, actualPositionY + originY, data.getRotation())) {
+            return null;
+        }
+
+        final AtlasRegion texture = this.textureLoader.getTexture(textureHandle);
+
+        if (texture == null) {
+            // the page of the texture is still loading
+            return null;
+        }
+
         Color base = this.spriteBatch.getColor();
 
         if (tint != null) {
@@ -56,8 +98,12 @@ class RenderSpriteSubSystem {
             this.spriteBatch.setColor(base);
         }
 
-        this.interactionSubProcess.addRenderedData(new RenderedData(actualPositionX, actualPositionY,
-                texture.getRegionWidth(), texture.getRegionHeight(), this.camera.zoom, data, texture));
+        if (this.interactionSubProcess.isInteractive(data)) {
+            this.interactionSubProcess.addRenderedData(this.interactionSubProcess.obtainRenderedData().set(
+                    actualPositionX, actualPositionY, regionWidth, regionHeight, this.camera.zoom, data, texture));
+        }
+
+        return texture.getTexture();
     }
 
 }
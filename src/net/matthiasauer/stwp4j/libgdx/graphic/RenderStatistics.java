@@ -0,0 +1,267 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+/**
+ * Counters of the last frame rendered by the RenderProcess
+ */
+public final class RenderStatistics {
+    private int renderCalls;
+    private int textureSwitches;
+    private int drawn;
+    private int culled;
+    private int textCacheHits;
+    private int textCacheMisses;
+    private int textCacheEvictions;
+    private int glyphLayoutCacheHits;
+    private int glyphLayoutCacheMisses;
+    private int glyphLayoutCacheEvictions;
+    private int texturePageLoads;
+    private int texturePageEvictions;
+    private long textureStallNanos;
+    private long textureResidentBytes;
+    private int coalescedInputEvents;
+    private int pickedInputEvents;
+    private int pickCacheHits;
+    private int parallelPicks;
+    private int projectionSwitches;
+
+    void beginFrame() {
+        this.renderCalls = 0;
+        this.textureSwitches = 0;
+        this.drawn = 0;
+        this.culled = 0;
+        this.textCacheHits = 0;
+        this.textCacheMisses = 0;
+        this.textCacheEvictions = 0;
+        this.glyphLayoutCacheHits = 0;
+        this.glyphLayoutCacheMisses = 0;
+        this.glyphLayoutCacheEvictions = 0;
+        this.texturePageLoads = 0;
+        this.texturePageEvictions = 0;
+        this.textureStallNanos = 0;
+        this.coalescedInputEvents = 0;
+        this.pickedInputEvents = 0;
+        this.pickCacheHits = 0;
+        this.parallelPicks = 0;
+        this.projectionSwitches = 0;
+    }
+
+    void addDrawn() {
+        this.drawn++;
+    }
+
+    void addCulled() {
+        this.culled++;
+    }
+
+    void addTextCacheHit() {
+        this.textCacheHits++;
+    }
+
+    void addTextCacheMiss() {
+        this.textCacheMisses++;
+    }
+
+    void addTextCacheEviction() {
+        this.textCacheEvictions++;
+    }
+
+    void addGlyphLayoutCacheHit() {
+        this.glyphLayoutCacheHits++;
+    }
+
+    void addGlyphLayoutCacheMiss() {
+        this.glyphLayoutCacheMisses++;
+    }
+
+    void addGlyphLayoutCacheEviction() {
+        this.glyphLayoutCacheEvictions++;
+    }
+
+    void addTexturePageLoad(long nanos) {
+        this.texturePageLoads++;
+        this.textureStallNanos += nanos;
+    }
+
+    void addTexturePageEviction() {
+        this.texturePageEvictions++;
+    }
+
+    void setTextureResidentBytes(long textureResidentBytes) {
+        this.textureResidentBytes = textureResidentBytes;
+    }
+
+    void addCoalescedInputEvents(int coalescedInputEvents) {
+        this.coalescedInputEvents += coalescedInputEvents;
+    }
+
+    void addPickedInputEvent() {
+        this.pickedInputEvents++;
+    }
+
+    void addPickCacheHit() {
+        this.pickCacheHits++;
+    }
+
+    void addParallelPick() {
+        this.parallelPicks++;
+    }
+
+    void addProjectionSwitch() {
+        this.projectionSwitches++;
+    }
+
+    void addRenderCalls(int renderCalls) {
+        this.renderCalls += renderCalls;
+    }
+
+    void addTextureSwitch() {
+        this.textureSwitches++;
+    }
+
+    /**
+     * @return the number of draw calls the SpriteBatch submitted to the GPU
+     */
+    public int getRenderCalls() {
+        return this.renderCalls;
+    }
+
+    /**
+     * @return how often consecutively drawn RenderData used different
+     *         textures - the flushes are counted by getRenderCalls
+     */
+    public int getTextureSwitches() {
+        return this.textureSwitches;
+    }
+
+    /**
+     * @return the number of RenderData that was drawn
+     */
+    public int getDrawn() {
+        return this.drawn;
+    }
+
+    /**
+     * @return the number of RenderData that was not drawn because it was
+     *         outside of the visible area
+     */
+    public int getCulled() {
+        return this.culled;
+    }
+
+    /**
+     * @return the number of texts with an id that were drawn using the
+     *         vertices of the previous frames
+     */
+    public int getTextCacheHits() {
+        return this.textCacheHits;
+    }
+
+    /**
+     * @return the number of texts with an id whose vertices had to be
+     *         generated because the text, font, tint or rotation changed
+     */
+    public int getTextCacheMisses() {
+        return this.textCacheMisses;
+    }
+
+    /**
+     * @return the number of cached texts that were removed because they
+     *         weren't drawn for too many frames
+     */
+    public int getTextCacheEvictions() {
+        return this.textCacheEvictions;
+    }
+
+    /**
+     * @return the number of texts whose GlyphLayout was found in the cache
+     */
+    public int getGlyphLayoutCacheHits() {
+        return this.glyphLayoutCacheHits;
+    }
+
+    /**
+     * @return the number of texts that had to be laid out
+     */
+    public int getGlyphLayoutCacheMisses() {
+        return this.glyphLayoutCacheMisses;
+    }
+
+    /**
+     * @return the number of GlyphLayouts removed from the cache to stay within
+     *         its entry and byte budget
+     */
+    public int getGlyphLayoutCacheEvictions() {
+        return this.glyphLayoutCacheEvictions;
+    }
+
+    /**
+     * @return the number of texture atlas pages loaded because one of their
+     *         regions was drawn while paging
+     */
+    public int getTexturePageLoads() {
+        return this.texturePageLoads;
+    }
+
+    /**
+     * @return the number of texture atlas pages disposed to stay within the
+     *         texture memory budget
+     */
+    public int getTexturePageEvictions() {
+        return this.texturePageEvictions;
+    }
+
+    /**
+     * @return the nanoseconds the frame was stalled by loading pages
+     */
+    public long getTextureStallNanos() {
+        return this.textureStallNanos;
+    }
+
+    /**
+     * @return the estimated number of bytes of the pages loaded while paging
+     */
+    public long getTextureResidentBytes() {
+        return this.textureResidentBytes;
+    }
+
+    /**
+     * @return the number of Moved and Dragged events that were merged into
+     *         the following event of the same kind
+     */
+    public int getCoalescedInputEvents() {
+        return this.coalescedInputEvents;
+    }
+
+    /**
+     * @return the number of InputTouchEvents the touched RenderData was
+     *         searched for
+     */
+    public int getPickedInputEvents() {
+        return this.pickedInputEvents;
+    }
+
+    /**
+     * @return the number of InputTouchEvents that reused the touched
+     *         RenderData of the previous search because neither the
+     *         position, the camera nor the touchable RenderData changed
+     */
+    public int getPickCacheHits() {
+        return this.pickCacheHits;
+    }
+
+    /**
+     * @return the number of searches for the touched RenderData that had
+     *         more candidates than the parallel picking threshold
+     */
+    public int getParallelPicks() {
+        return this.parallelPicks;
+    }
+
+    /**
+     * @return how often the rendering switched between projected and
+     *         unprojected RenderData - each switch flushes the SpriteBatch
+     */
+    public int getProjectionSwitches() {
+        return this.projectionSwitches;
+    }
+}
@@ -6,57 +6,49 @@ import java.util.Map;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
 import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout.GlyphRun;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.math.Matrix4;
-import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.ObjectMap;
 import com.badlogic.gdx.utils.viewport.Viewport;
 
-import net.matthiasauer.stwp4j.libgdx.utils.Pair;
-
 class RenderTextSubSystem {
+    /** x, y, color, u, v */
+    private static final int VERTEX_SIZE = 5;
+    private static final int VERTICES_PER_GLYPH = VERTEX_SIZE * 4;
     private final Map<String, BitmapFont> fonts = new HashMap<String, BitmapFont>();
     private final BitmapFont defaultFont = new BitmapFont();
     private final OrthographicCamera camera;
     private final SpriteBatch spriteBatch;
     private final InteractionSubProcess interactionSubProcess;
-    private Map<Pair<String, String>, GlyphLayout> current;
-    private Map<Pair<String, String>, GlyphLayout> last;
+    private final GlyphLayoutCache glyphLayoutCache;
     private final Viewport viewPort;
+    private final ViewportCuller viewportCuller;
+    private final RenderStatistics statistics;
+    /** an ObjectMap because its iterators are reused */
+    private final ObjectMap<String, TextCache> textCaches = new ObjectMap<String, TextCache>();
+    private final int textCacheEvictionFrames;
+    private long frame;
 
     public RenderTextSubSystem(Viewport viewPort, OrthographicCamera camera, SpriteBatch spriteBatch,
-            InteractionSubProcess interactionSubProcess) {
+            InteractionSubProcess interactionSubProcess, ViewportCuller viewportCuller, RenderStatistics statistics,
+            int textCacheEvictionFrames, GlyphLayoutCache glyphLayoutCache) {
         this.camera = camera;
+        this.statistics = statistics;
+        this.textCacheEvictionFrames = textCacheEvictionFrames;
+        this.viewportCuller = viewportCuller;
         this.viewPort = viewPort;
         this.spriteBatch = spriteBatch;
-        this.current = new HashMap<Pair<String, String>, GlyphLayout>();
-        this.last = new HashMap<Pair<String, String>, GlyphLayout>();
+        this.glyphLayoutCache = glyphLayoutCache;
         this.interactionSubProcess = interactionSubProcess;
     }
 
     public void preIteration() {
-        // switch current and last !
-        // then clear the last one !
-        // in this iteration we then fill the last one
-        // therefore we can reuse objects from last turn and forget
-        // them if they are not used !
-        Map<Pair<String, String>, GlyphLayout> temp = this.last;
-        this.last = this.current;
-        this.current = temp;
-        this.current.clear();
-    }
-
-    private GlyphLayout getCachedGlyphLayout(TextRenderData data, BitmapFont font) {
-        Pair<String, String> key = Pair.of(data.getTextFont(), data.getTextString());
-        GlyphLayout glyphLayout = this.last.get(key);
-
-        if (glyphLayout == null) {
-            glyphLayout = new GlyphLayout(font, data.getTextString());
-            this.current.put(key, glyphLayout);
-        }
-
-        return glyphLayout;
+        this.frame++;
     }
 
     private BitmapFont getCachedBitmapFont(TextRenderData data) {
@@ -78,7 +70,14 @@ class RenderTextSubSystem {
         return font;
     }
 
-    public void drawText(TextRenderData data) {
+    public Texture getTexture(TextRenderData data) {
+        return this.getCachedBitmapFont(data).getRegion().getTexture();
+    }
+
+    /**
+     * @return the texture that was drawn or null if the text was culled
+     */
+    public Texture drawText(TextRenderData data) {
         final Color tint = data.getTint();
         float actualPositionX = data.getRenderPositionUnit().translateX(this.viewPort, data.getPosition().x,
                 data.getPosition().y);
@@ -90,36 +89,181 @@ class RenderTextSubSystem {
             actualPositionY *= this.camera.zoom;
         }
 
-        BitmapFont font = this.getCachedBitmapFont(data);
-        GlyphLayout glyphLayout = this.getCachedGlyphLayout(data, font);
+        final BitmapFont font = this.getCachedBitmapFont(data);
+        final float tintBits = (tint != null) ? tint.toFloatBits() : Color.BLACK.toFloatBits();
+        final String id = data.getId();
+        TextCache textCache = null;
+        GlyphLayout glyphLayout = null;
+        float width;
+        float height;
+
+        if (id != null) {
+            textCache = this.textCaches.get(id);
+
+            if ((textCache != null) && !textCache.matches(data, font, tintBits)) {
+                textCache = null;
+            }
+        }
+
+        if (textCache != null) {
+            // the layout of the cache is still valid
+            textCache.lastSeenFrame = this.frame;
+            width = textCache.width;
+            height = textCache.height;
+        } else {
+            glyphLayout = this.glyphLayoutCache.get(font, data.getTextString());
+            width = glyphLayout.width;
+            height = glyphLayout.height;
+        }
+
+        // the text is drawn below the position - add a line to the bounds for
+        // the descent of the glyphs
+        final float lineHeight = Math.abs(font.getLineHeight());
+
+        if (!this.viewportCuller.isVisible(actualPositionX, actualPositionY - height - lineHeight, width,
+                height + lineHeight * 2, actualPositionX, actualPositionY, data.getRotation())) {
+            return null;
+        }
 
-        if (tint != null) {
-            font.setColor(tint);
+        if (textCache != null) {
+            // only move the already generated vertices
+            this.statistics.addTextCacheHit();
+            textCache.fontCache.setPosition(actualPositionX - textCache.x, actualPositionY - textCache.y);
+            textCache.fontCache.draw(this.spriteBatch);
         } else {
-            font.setColor(Color.BLACK);
+            BitmapFontCache fontCache = font.getCache();
+
+            if (id != null) {
+                this.statistics.addTextCacheMiss();
+                fontCache = this.updateTextCache(id, data, font, tintBits, glyphLayout, actualPositionX,
+                        actualPositionY).fontCache;
+            }
+
+            // the glyphs are written into the font's cache and rotated on the
+            // CPU - this avoids swapping the transform matrix of the batch,
+            // which would flush it twice for every text
+            this.fillFontCache(fontCache, font, glyphLayout, tintBits, actualPositionX, actualPositionY,
+                    data.getRotation());
+            fontCache.draw(this.spriteBatch);
+        }
+
+        if (this.interactionSubProcess.isInteractive(data)) {
+            this.interactionSubProcess.addRenderedData(
+                    this.interactionSubProcess.obtainRenderedData().set(actualPositionX, actualPositionY - height,
+                            width, height, this.camera.zoom, data, null));
+        }
+
+        return font.getRegion().getTexture();
+    }
+
+    private TextCache updateTextCache(String id, TextRenderData data, BitmapFont font, float tintBits,
+            GlyphLayout glyphLayout, float x, float y) {
+        TextCache textCache = this.textCaches.get(id);
+
+        if ((textCache == null) || (textCache.fontCache.getFont() != font)) {
+            textCache = new TextCache(font.newFontCache());
+            this.textCaches.put(id, textCache);
+        }
+
+        textCache.text = data.getTextString();
+        textCache.font = font;
+        textCache.tintBits = tintBits;
+        textCache.rotation = data.getRotation();
+        textCache.x = x;
+        textCache.y = y;
+        textCache.width = glyphLayout.width;
+        textCache.height = glyphLayout.height;
+        textCache.lastSeenFrame = this.frame;
+
+        return textCache;
+    }
+
+    private void fillFontCache(BitmapFontCache fontCache, BitmapFont font, GlyphLayout glyphLayout, float tintBits,
+            float x, float y, float rotation) {
+        // the cache is generated at its origin, therefore its position must
+        // be reset before new vertices are added
+        fontCache.clear();
+        fontCache.setPosition(0, 0);
+        fontCache.addText(glyphLayout, x, y);
+        fontCache.setColors(tintBits);
+
+        if (rotation != 0) {
+            this.rotateVertices(fontCache, font, glyphLayout, x, y, rotation);
+        }
+    }
+
+    /**
+     * removes the cached vertices of texts that weren't drawn for a while
+     */
+    public void postIteration() {
+        final ObjectMap.Values<TextCache> iterator = this.textCaches.values();
+
+        while (iterator.hasNext()) {
+            if (this.frame - iterator.next().lastSeenFrame >= this.textCacheEvictionFrames) {
+                iterator.remove();
+                this.statistics.addTextCacheEviction();
+            }
         }
+    }
+
+    /**
+     * rotates the vertices of the cache counter-clockwise around the given
+     * center, equivalent to drawing with a rotated transform matrix
+     */
+    private void rotateVertices(BitmapFontCache fontCache, BitmapFont font, GlyphLayout glyphLayout, float centerX,
+            float centerY, float rotation) {
+        final float radians = rotation * MathUtils.degreesToRadians;
+        final float cos = MathUtils.cos(radians);
+        final float sin = MathUtils.sin(radians);
+        final int pages = font.getRegions().size;
+        int glyphs = 0;
 
-        Matrix4 rotationMatrix = new Matrix4();
-        Matrix4 oldMatrix = this.spriteBatch.getTransformMatrix().cpy();
-        rotationMatrix.idt();
+        if (pages == 1) {
+            // only a single page, therefore the used vertices are known
+            for (GlyphRun run : glyphLayout.runs) {
+                glyphs += run.glyphs.size;
+            }
+        }
 
-        Vector3 centerOfRotation = new Vector3(actualPositionX, actualPositionY, 0);
+        for (int page = 0; page < pages; page++) {
+            final float[] vertices = fontCache.getVertices(page);
+            final int length = (pages == 1) ? Math.min(vertices.length, glyphs * VERTICES_PER_GLYPH)
+                    : vertices.length;
 
-        rotationMatrix.rotate(new Vector3(0, 0, 1), data.getRotation());
-        rotationMatrix.trn(centerOfRotation);
+            for (int i = 0; i < length; i += VERTEX_SIZE) {
+                final float x = vertices[i] - centerX;
+                final float y = vertices[i + 1] - centerY;
 
-        spriteBatch.end();
-        this.spriteBatch.setTransformMatrix(rotationMatrix);
-        spriteBatch.begin();
+                vertices[i] = centerX + x * cos - y * sin;
+                vertices[i + 1] = centerY + x * sin + y * cos;
+            }
+        }
+    }
 
-        font.draw(this.spriteBatch, data.getTextString(), 0, 0);
+    /**
+     * the vertices of a text with an id - they are reused as long as the
+     * text, font, tint and rotation stay the same
+     */
+    private static final class TextCache {
+        private final BitmapFontCache fontCache;
+        private String text;
+        private BitmapFont font;
+        private float tintBits;
+        private float rotation;
+        /** the position the vertices were generated at */
+        private float x;
+        private float y;
+        private float width;
+        private float height;
+        private long lastSeenFrame;
 
-        spriteBatch.end();
-        this.spriteBatch.setTransformMatrix(oldMatrix);
-        spriteBatch.begin();
+        private TextCache(BitmapFontCache fontCache) {
+            this.fontCache = fontCache;
+        }
 
-        this.interactionSubProcess
-                .addRenderedData(new RenderedData(actualPositionX, actualPositionY - glyphLayout.height,
-                        glyphLayout.width, glyphLayout.height, this.camera.zoom, data, null));
+        private boolean matches(TextRenderData data, BitmapFont font, float tintBits) {
+            return (this.font == font) && (this.tintBits == tintBits) && (this.rotation == data.getRotation())
+                    && this.text.equals(data.getTextString());
+        }
     }
 }
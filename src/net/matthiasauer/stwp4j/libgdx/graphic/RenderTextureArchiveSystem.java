@@ -1,38 +1,116 @@
 package net.matthiasauer.stwp4j.libgdx.graphic;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
 
+/**
+ * Keeps an AlphaMask per AtlasRegion for the pixel perfect detection of
+ * touches. The page of a region is decoded once to build the masks of all
+ * its known regions, then the decoded Pixmap is released again.
+ */
 class RenderTextureArchiveSystem {
-    private final Map<Texture, Pixmap> data =
-            new HashMap<Texture, Pixmap>();
+    private final Map<AtlasRegion, AlphaMask> masks =
+            new HashMap<AtlasRegion, AlphaMask>();
+    private final Map<String, AlphaMask> precomputedMasks;
+    private final List<AtlasRegion> regionsOfPage = new ArrayList<AtlasRegion>();
+    private final TextureLoader textureLoader;
+    private final int alphaThreshold;
 	
-	public Pixmap getPixmap(Texture texture) {
-	    if (!this.data.containsKey(texture)) {
-	        this.add(texture);
+	/**
+	 * @param textureLoader
+	 *            provides the regions that share a page
+	 * @param alphaThreshold
+	 *            a pixel is visible if its alpha is above the threshold
+	 * @param precomputedMasks
+	 *            the masks read from an AlphaMaskFile by the name of their
+	 *            region or null - only regions missing in it are decoded
+	 */
+	public RenderTextureArchiveSystem(TextureLoader textureLoader, int alphaThreshold,
+	        Map<String, AlphaMask> precomputedMasks) {
+	    this.textureLoader = textureLoader;
+	    this.alphaThreshold = alphaThreshold;
+	    this.precomputedMasks = precomputedMasks;
+	}
+	
+	/**
+	 * @return the mask of the region, it is created if it doesn't exist yet -
+	 *         only called by the GL thread, the parallel picking gets the
+	 *         masks before it forks
+	 */
+	public AlphaMask getMask(AtlasRegion region) {
+	    AlphaMask mask = null;
+	    
+	    if (this.precomputedMasks != null) {
+	        mask = this.precomputedMasks.get(region.name);
+	    }
+	    
+	    if (mask == null) {
+	        mask = this.masks.get(region);
 	    }
 	    
-	    return this.data.get(texture);
+	    if (mask == null) {
+	        this.add(region);
+	        mask = this.masks.get(region);
+	    }
+	    
+	    return mask;
 	}
 	
-	public void add(Texture texture) {
+	private void add(AtlasRegion region) {
         // http://gamedev.stackexchange.com/questions/43943/how-to-detect-a-touch-on-transparent-area-of-an-image-in-a-libgdx-stage
-        texture.getTextureData().prepare();
+	    Texture texture = region.getTexture();
+	    TextureData textureData = texture.getTextureData();
+	    
+	    if (!textureData.isPrepared()) {
+	        textureData.prepare();
+	    }
         
-        Pixmap pixmap =
-                texture.getTextureData().consumePixmap();
+        Pixmap pixmap = textureData.consumePixmap();
         
-	    this.data.put(texture, pixmap);
+        this.regionsOfPage.clear();
+        this.textureLoader.collectRegions(texture, this.regionsOfPage);
+        
+        if (!this.regionsOfPage.contains(region)) {
+            this.regionsOfPage.add(region);
+        }
+        
+        for (AtlasRegion regionOfPage : this.regionsOfPage) {
+            if (!this.masks.containsKey(regionOfPage)) {
+                this.masks.put(regionOfPage, this.createMask(pixmap, regionOfPage));
+            }
+        }
+        
+        this.regionsOfPage.clear();
+        
+        // only the masks are kept
+        if (textureData.disposePixmap()) {
+            pixmap.dispose();
+        }
 	}
 	
-	public void delete(Texture texture) {
-	    Pixmap pixmap = this.getPixmap(texture);
-
-        pixmap.dispose();
-
-		this.data.remove(texture);
+	private AlphaMask createMask(Pixmap pixmap, AtlasRegion region) {
+	    final int width = region.getRegionWidth();
+	    final int height = region.getRegionHeight();
+	    final int regionX = region.getRegionX();
+	    final int regionY = region.getRegionY();
+	    AlphaMask mask = new AlphaMask(width, height);
+	    
+	    for (int y = 0; y < height; y++) {
+	        for (int x = 0; x < width; x++) {
+	            // getPixel returns RGBA8888 for every format of the Pixmap
+	            if ((pixmap.getPixel(regionX + x, regionY + y) & 0x000000ff) > this.alphaThreshold) {
+	                mask.setVisible(x, y);
+	            }
+	        }
+	    }
+	    
+	    return mask;
 	}
 }
@@ -3,13 +3,25 @@ package net.matthiasauer.stwp4j.libgdx.graphic;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
 import com.badlogic.gdx.math.Rectangle;
 
-public class RenderedData {
+import net.matthiasauer.stwp4j.libgdx.utils.PooledObject;
+
+public class RenderedData extends PooledObject {
 	private final Rectangle renderedTarget = new Rectangle();
 	private float zoomFactor;
 	private RenderData renderData;
 	private AtlasRegion texture;
+	/** the inverse rotation of the RenderData, rotates a position into it */
+	private float inverseRotationCos = 1;
+	private float inverseRotationSin = 0;
+	
+	public RenderedData() {
+	}
 	
 	public RenderedData(float x, float y, float width, float height, float zoomFactor, RenderData renderData, AtlasRegion texture) {
+		this.set(x, y, width, height, zoomFactor, renderData, texture);
+	}
+	
+	public RenderedData set(float x, float y, float width, float height, float zoomFactor, RenderData renderData, AtlasRegion texture) {
 		this.renderedTarget.x = x;
 		this.renderedTarget.y = y;
 		this.renderedTarget.width = width;
@@ -17,6 +29,27 @@ public class RenderedData {
 		this.zoomFactor = zoomFactor;
 		this.renderData = renderData;
 		this.texture = texture;
+		
+		final float rotation = (renderData != null) ? renderData.getRotation() : 0;
+		
+		if (rotation == 0) {
+			// most RenderData isn't rotated
+			this.inverseRotationCos = 1;
+			this.inverseRotationSin = 0;
+		} else {
+			final double radians = Math.toRadians(-rotation);
+			
+			this.inverseRotationCos = (float) Math.cos(radians);
+			this.inverseRotationSin = (float) Math.sin(radians);
+		}
+		
+		return this;
+	}
+	
+	@Override
+	protected void reset() {
+	    this.renderData = null;
+	    this.texture = null;
 	}
 	
 	public AtlasRegion getTexture() {
@@ -34,4 +67,12 @@ public class RenderedData {
 	public RenderData getRenderData() {
 	    return this.renderData;
 	}
+	
+	public float getInverseRotationCos() {
+	    return this.inverseRotationCos;
+	}
+	
+	public float getInverseRotationSin() {
+	    return this.inverseRotationSin;
+	}
 }
@@ -0,0 +1,163 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps the RenderData between frames, identified by the id of the
+ * RenderData. Adding RenderData with a known id replaces the old RenderData.
+ * The sorted RenderData is kept up to date by inserting and removing single
+ * entries at their binary searched position - replaced RenderData that keeps
+ * its renderOrder and renderProjected is patched in place. RenderData with
+ * the same renderOrder and renderProjected keeps the order in which the ids
+ * were added first. Replaced and removed RenderData is recycled.
+ */
+final class RetainedRenderDataQueue implements RenderDataQueue {
+    private static final class Entry {
+        RenderData data;
+        final long sequence;
+        int index;
+
+        Entry(RenderData data, long sequence) {
+            this.data = data;
+            this.sequence = sequence;
+            this.index = -1;
+        }
+    }
+
+    private final Map<String, Entry> entries = new HashMap<String, Entry>();
+    private final RenderDataComparator comparator = new RenderDataComparator();
+    private Entry[] sorted = new Entry[16];
+    private int size = 0;
+    private long nextSequence = 0;
+
+    @Override
+    public void beginFrame() {
+        // the RenderData is retained
+    }
+
+    @Override
+    public void add(RenderData data) {
+        final String id = data.getId();
+
+        if (id == null) {
+            throw new NullPointerException("the id of the RenderData mustn't be null in retained mode !");
+        }
+
+        Entry entry = this.entries.get(id);
+
+        if (entry == null) {
+            entry = new Entry(data, this.nextSequence++);
+            this.entries.put(id, entry);
+            this.insert(entry);
+            return;
+        }
+
+        final RenderData old = entry.data;
+
+        // read before recycling - recycling resets the pooled RenderData
+        final boolean moved = (old.getRenderOrder() != data.getRenderOrder())
+                || (old.isRenderProjected() != data.isRenderProjected());
+
+        if (old != data) {
+            old.recycle();
+        }
+
+        if (moved) {
+            // the position in the sorted RenderData changes
+            this.removeAt(entry.index);
+            entry.data = data;
+            this.insert(entry);
+        } else {
+            // the same position - only replace it
+            entry.data = data;
+        }
+    }
+
+    /**
+     * @return whether there was RenderData with the id
+     */
+    public boolean remove(String id) {
+        final Entry entry = this.entries.remove(id);
+
+        if (entry == null) {
+            return false;
+        }
+
+        entry.data.recycle();
+        this.removeAt(entry.index);
+
+        return true;
+    }
+
+    private int compare(Entry first, Entry second) {
+        final int result = this.comparator.compare(first.data, second.data);
+
+        if (result != 0) {
+            return result;
+        }
+
+        // otherwise the order in which the ids were added first
+        return Long.compare(first.sequence, second.sequence);
+    }
+
+    private void insert(Entry entry) {
+        int low = 0;
+        int high = this.size;
+
+        // appending is the common case - e.g. adding the RenderData of a scene
+        if ((this.size > 0) && (this.compare(this.sorted[this.size - 1], entry) < 0)) {
+            low = this.size;
+        }
+
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+
+            if (this.compare(this.sorted[middle], entry) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        if (this.size == this.sorted.length) {
+            final Entry[] grown = new Entry[this.size * 2];
+
+            System.arraycopy(this.sorted, 0, grown, 0, this.size);
+            this.sorted = grown;
+        }
+
+        System.arraycopy(this.sorted, low, this.sorted, low + 1, this.size - low);
+        this.sorted[low] = entry;
+        this.size++;
+
+        for (int i = low; i < this.size; i++) {
+            this.sorted[i].index = i;
+        }
+    }
+
+    private void removeAt(int index) {
+        this.size--;
+        System.arraycopy(this.sorted, index + 1, this.sorted, index, this.size - index);
+        this.sorted[this.size] = null;
+
+        for (int i = index; i < this.size; i++) {
+            this.sorted[i].index = i;
+        }
+    }
+
+    @Override
+    public void sort() {
+        // the RenderData is kept sorted by add and remove
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public RenderData get(int index) {
+        return this.sorted[index].data;
+    }
+}
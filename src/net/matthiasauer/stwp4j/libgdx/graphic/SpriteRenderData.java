@@ -3,7 +3,15 @@ package net.matthiasauer.stwp4j.libgdx.graphic;
 import com.badlogic.gdx.graphics.Color;
 
 public final class SpriteRenderData extends RenderData {
+    /**
+     * the texture handle of a SpriteRenderData that uses the textureName
+     */
+    public static final int UNRESOLVED_TEXTURE = -1;
     private String textureName;
+    private int textureHandle = UNRESOLVED_TEXTURE;
+
+    public SpriteRenderData() {
+    }
 
     public SpriteRenderData(
             String id,
@@ -15,11 +23,88 @@ public final class SpriteRenderData extends RenderData {
             int renderOrder,
             boolean renderProjected,
             String textureName) {
-        super(id, positionX, positionY, rotation, renderPositionUnit, tint, renderOrder, renderProjected);
+        this.set(id, positionX, positionY, rotation, renderPositionUnit, tint, renderOrder, renderProjected,
+                textureName);
+    }
+
+    /**
+     * @param textureHandle
+     *            the handle returned by RenderProcess.resolveTexture - this
+     *            avoids looking up the texture by its name each frame
+     */
+    public SpriteRenderData(
+            String id,
+            float positionX,
+            float positionY,
+            float rotation,
+            RenderPositionUnit renderPositionUnit,
+            Color tint,
+            int renderOrder,
+            boolean renderProjected,
+            int textureHandle) {
+        this.set(id, positionX, positionY, rotation, renderPositionUnit, tint, renderOrder, renderProjected,
+                textureHandle);
+    }
+
+    public SpriteRenderData set(
+            String id,
+            float positionX,
+            float positionY,
+            float rotation,
+            RenderPositionUnit renderPositionUnit,
+            Color tint,
+            int renderOrder,
+            boolean renderProjected,
+            String textureName) {
+        this.setInternal(id, positionX, positionY, rotation, renderPositionUnit, tint, renderOrder, renderProjected);
         this.textureName = textureName;
+        this.textureHandle = UNRESOLVED_TEXTURE;
+        
+        return this;
+    }
+
+    public SpriteRenderData set(
+            String id,
+            float positionX,
+            float positionY,
+            float rotation,
+            RenderPositionUnit renderPositionUnit,
+            Color tint,
+            int renderOrder,
+            boolean renderProjected,
+            int textureHandle) {
+        if (textureHandle < 0) {
+            throw new IllegalArgumentException("textureHandle must be a handle returned by resolveTexture !");
+        }
+
+        this.setInternal(id, positionX, positionY, rotation, renderPositionUnit, tint, renderOrder, renderProjected);
+        this.textureName = null;
+        this.textureHandle = textureHandle;
+
+        return this;
+    }
+
+    @Override
+    protected InteractionMode getDefaultInteractionMode() {
+        return InteractionMode.PixelPerfect;
+    }
+
+    @Override
+    protected void reset() {
+        super.reset();
+        this.textureName = null;
+        this.textureHandle = UNRESOLVED_TEXTURE;
     }
     
     public String getTextureName() {
         return this.textureName;
     }
+
+    /**
+     * @return the handle of the texture or UNRESOLVED_TEXTURE if the
+     *         textureName is used
+     */
+    public int getTextureHandle() {
+        return this.textureHandle;
+    }
 }
@@ -6,6 +6,9 @@ public final class TextRenderData extends RenderData {
     private String textString;
     private String textFont;
 
+    public TextRenderData() {
+    }
+
     public TextRenderData(
             String id,
             float positionX,
@@ -17,9 +20,38 @@ public final class TextRenderData extends RenderData {
             boolean renderProjected,
             String textString,
             String textFont) {
-        super(id, positionX, positionY, rotation, renderPositionUnit, tint, renderOrder, renderProjected);
+        this.set(id, positionX, positionY, rotation, renderPositionUnit, tint, renderOrder, renderProjected,
+                textString, textFont);
+    }
+
+    public TextRenderData set(
+            String id,
+            float positionX,
+            float positionY,
+            float rotation,
+            RenderPositionUnit renderPositionUnit,
+            Color tint,
+            int renderOrder,
+            boolean renderProjected,
+            String textString,
+            String textFont) {
+        this.setInternal(id, positionX, positionY, rotation, renderPositionUnit, tint, renderOrder, renderProjected);
         this.textString = textString;
         this.textFont = textFont;
+        
+        return this;
+    }
+
+    @Override
+    protected InteractionMode getDefaultInteractionMode() {
+        return InteractionMode.BoundingBox;
+    }
+
+    @Override
+    protected void reset() {
+        super.reset();
+        this.textString = null;
+        this.textFont = null;
     }
     
     public String getTextString() {
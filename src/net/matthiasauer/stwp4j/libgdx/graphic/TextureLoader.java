@@ -1,70 +1,351 @@
 package net.matthiasauer.stwp4j.libgdx.graphic;
 
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData.Page;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData.Region;
+import com.badlogic.gdx.graphics.glutils.FileTextureData;
+import com.badlogic.gdx.utils.ObjectIntMap;
 
 final class TextureLoader {
-    private final Map<String, AtlasRegion> archive;
+    private final ObjectIntMap<String> handles;
+    private final AtlasRegion[] regions;
+    /** the parsed regions by handle - available before any page is loaded */
+    private final Region[] dataRegions;
+    private final List<TextureAtlasData> textureAtlasData;
     private final List<TextureAtlas> textureAtlases;
+    private final ConcurrentLinkedQueue<DecodedPage> decodedPages;
+    private final int[] missingPagesOfAtlas;
+    private final int uploadsPerFrame;
+    private final int totalPages;
+    private final TexturePager texturePager;
+    private int uploadedPages;
     
-	private List<TextureAtlas> create(List<String> atlasFilePaths) {
-		List<TextureAtlas> result = new LinkedList<TextureAtlas>();
+	private List<TextureAtlasData> create(List<String> atlasFilePaths) {
+		List<TextureAtlasData> result = new LinkedList<TextureAtlasData>();
 		
 		for (String atlasFilePath : atlasFilePaths) {
 			FileHandle atlasFile = Gdx.files.internal(atlasFilePath);
-			TextureAtlas textureAtlas = new TextureAtlas(atlasFile);
-			result.add(textureAtlas);
+			// only the text file is parsed, the pages are loaded later
+			TextureAtlasData data = new TextureAtlasData(atlasFile, atlasFile.parent(), false);
+			result.add(data);
 		}
 		
 		return result;
 	}
 	
 	TextureLoader(List<String> atlasFilePaths) {
-		this.archive = new HashMap<String, AtlasRegion>();
-		this.textureAtlases =
-				Collections.unmodifiableList(create(atlasFilePaths));
+		this(atlasFilePaths, new RenderProcessSettings(), new RenderStatistics());
 	}
 	
 	/**
-	 * returns the AtlasRegion with the given name,
-	 * Note : it is expected that the name is unique across ALL used TextureAtlases
-	 * @param name
-	 * @return
+	 * @param atlasFilePaths
+	 * @param settings
+	 *            determine whether the pages are loaded immediately, decoded
+	 *            by worker threads and uploaded by the update method or
+	 *            paged in when they are used
+	 * @param statistics
+	 *            receives the counters of the paging
 	 */
-	public AtlasRegion getTexture(String name) {
-		AtlasRegion texture = null;
-		
-		if (name == null) {
-			throw new NullPointerException("name mustn't be null !");
+	TextureLoader(List<String> atlasFilePaths, RenderProcessSettings settings, RenderStatistics statistics) {
+		if (settings.isAsyncTextureLoading() && settings.isTexturePaging()) {
+			throw new IllegalArgumentException("asynchronous texture loading can't be combined with paging !");
 		}
 		
-		// if there is no entry - load it and save it
-		if (!archive.containsKey(name)) {
-			for (TextureAtlas textureAtlas : this.textureAtlases) {
-				texture = textureAtlas.findRegion(name);
+		this.textureAtlasData =
+				Collections.unmodifiableList(create(atlasFilePaths));
+		this.textureAtlases = new ArrayList<TextureAtlas>();
+		this.handles = new ObjectIntMap<String>();
+		this.missingPagesOfAtlas = new int[this.textureAtlasData.size()];
+		this.uploadsPerFrame = settings.getTextureUploadsPerFrame();
+		this.decodedPages = new ConcurrentLinkedQueue<DecodedPage>();
+		
+		List<Region> dataRegions = new ArrayList<Region>();
+		int pages = 0;
+		
+		// the handles are assigned before any page is loaded, therefore
+		// they can be resolved while the pages are still loading
+		for (int atlasIndex = 0; atlasIndex < this.textureAtlasData.size(); atlasIndex++) {
+			TextureAtlasData data = this.textureAtlasData.get(atlasIndex);
+			ObjectIntMap<String> namesOfAtlas = new ObjectIntMap<String>();
+			
+			for (Region region : data.getRegions()) {
+				// regions with an index share their name - like findRegion
+				// the first region of a name within an atlas is used
+				if (namesOfAtlas.containsKey(region.name)) {
+					continue;
+				}
 				
-				if (texture != null) {
-					archive.put(name, texture);
-					break;
+				if (this.handles.containsKey(region.name)) {
+					throw new IllegalArgumentException(
+							"the region '" + region.name + "' exists in more than one TextureAtlas !");
 				}
+				
+				namesOfAtlas.put(region.name, this.handles.size);
+				this.handles.put(region.name, this.handles.size);
+				dataRegions.add(region);
 			}
+			
+			this.missingPagesOfAtlas[atlasIndex] = data.getPages().size;
+			pages += data.getPages().size;
 		}
 		
-		texture = archive.get(name);
+		this.totalPages = pages;
+		this.regions = new AtlasRegion[this.handles.size];
+		this.dataRegions = dataRegions.toArray(new Region[dataRegions.size()]);
 		
-		if (texture == null) {
+		if (settings.isTexturePaging()) {
+			this.texturePager = new TexturePager(this.dataRegions, settings.getTextureMemoryBudget(), statistics);
+			// nothing has to be uploaded in advance
+			this.uploadedPages = this.totalPages;
+		} else if (settings.isAsyncTextureLoading()) {
+			this.texturePager = null;
+			this.decodePages();
+		} else {
+			this.texturePager = null;
+			
+			for (int atlasIndex = 0; atlasIndex < this.textureAtlasData.size(); atlasIndex++) {
+				this.addAtlas(new TextureAtlas(this.textureAtlasData.get(atlasIndex)));
+			}
+			
+			this.uploadedPages = this.totalPages;
+		}
+	}
+	
+	private void decodePages() {
+		if (this.totalPages == 0) {
+			return;
+		}
+		
+		ExecutorService executor = Executors.newFixedThreadPool(
+				Math.min(this.totalPages, Runtime.getRuntime().availableProcessors()),
+				new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable runnable) {
+						Thread thread = new Thread(runnable, "texture-loader");
+						thread.setDaemon(true);
+						
+						return thread;
+					}
+				});
+		
+		for (int atlasIndex = 0; atlasIndex < this.textureAtlasData.size(); atlasIndex++) {
+			for (final Page page : this.textureAtlasData.get(atlasIndex).getPages()) {
+				final int pageAtlasIndex = atlasIndex;
+				
+				executor.execute(new Runnable() {
+					@Override
+					public void run() {
+						DecodedPage decodedPage = new DecodedPage(pageAtlasIndex, page);
+						
+						try {
+							decodedPage.pixmap = new Pixmap(page.textureFile);
+						} catch (Throwable e) {
+							decodedPage.error = e;
+						}
+						
+						decodedPages.add(decodedPage);
+					}
+				});
+			}
+		}
+		
+		// the already submitted pages are still decoded
+		executor.shutdown();
+	}
+	
+	/**
+	 * uploads the decoded pages - must be called by the thread owning the
+	 * OpenGL context
+	 */
+	public void update() {
+		for (int i = 0; i < this.uploadsPerFrame; i++) {
+			DecodedPage decodedPage = this.decodedPages.poll();
+			
+			if (decodedPage == null) {
+				return;
+			}
+			
+			if (decodedPage.error != null) {
+				throw new IllegalStateException(
+						"couldn't load '" + decodedPage.page.textureFile + "'", decodedPage.error);
+			}
+			
+			Page page = decodedPage.page;
+			
+			// the FileTextureData reloads the file if the context is lost
+			page.texture = new Texture(
+					new FileTextureData(page.textureFile, decodedPage.pixmap, page.format, page.useMipMaps));
+			this.uploadedPages++;
+			this.missingPagesOfAtlas[decodedPage.atlasIndex]--;
+			
+			if (this.missingPagesOfAtlas[decodedPage.atlasIndex] == 0) {
+				// all textures exist, the TextureAtlas only creates the regions
+				this.addAtlas(new TextureAtlas(this.textureAtlasData.get(decodedPage.atlasIndex)));
+			}
+		}
+	}
+	
+	private void addAtlas(TextureAtlas textureAtlas) {
+		this.textureAtlases.add(textureAtlas);
+		
+		for (AtlasRegion region : textureAtlas.getRegions()) {
+			int handle = this.handles.get(region.name, SpriteRenderData.UNRESOLVED_TEXTURE);
+			
+			if (this.regions[handle] == null) {
+				this.regions[handle] = region;
+			}
+		}
+	}
+	
+	/**
+	 * must be called before the RenderData of a frame is drawn
+	 */
+	public void beginFrame() {
+		if (this.texturePager != null) {
+			this.texturePager.beginFrame();
+		}
+	}
+	
+	/**
+	 * adds the AtlasRegions that were created for the texture to the result
+	 */
+	public void collectRegions(Texture texture, List<AtlasRegion> result) {
+		if (this.texturePager != null) {
+			this.texturePager.collectRegions(texture, result);
+			return;
+		}
+		
+		for (AtlasRegion region : this.regions) {
+			if ((region != null) && (region.getTexture() == texture)) {
+				result.add(region);
+			}
+		}
+	}
+	
+	public int getUploadedPages() {
+		return this.uploadedPages;
+	}
+	
+	public int getTotalPages() {
+		return this.totalPages;
+	}
+	
+	public boolean isLoaded() {
+		return this.uploadedPages == this.totalPages;
+	}
+	
+	/**
+	 * returns the handle of the AtlasRegion with the given name - the index
+	 * is built when the TextureLoader is created and never changed, therefore
+	 * this method may be called from any thread
+	 * @param name
+	 * @return
+	 */
+	public int resolve(String name) {
+		if (name == null) {
+			throw new NullPointerException("name mustn't be null !");
+		}
+		
+		int handle = this.handles.get(name, SpriteRenderData.UNRESOLVED_TEXTURE);
+		
+		if (handle == SpriteRenderData.UNRESOLVED_TEXTURE) {
 			throw new NullPointerException(
 					"found no region '" + name + "' in the TextureAtlases");
 		}
 		
-		return texture;
+		return handle;
+	}
+	
+	/**
+	 * returns the AtlasRegion of a handle returned by resolve
+	 * @param handle
+	 * @return the AtlasRegion or null if its page isn't loaded yet
+	 */
+	public AtlasRegion getTexture(int handle) {
+		this.checkHandle(handle);
+		
+		if (this.texturePager != null) {
+			return this.texturePager.getRegion(handle);
+		}
+		
+		return this.regions[handle];
+	}
+	
+	/**
+	 * returns the width of the AtlasRegion of a handle returned by resolve
+	 * without loading its page
+	 */
+	public int getRegionWidth(int handle) {
+		this.checkHandle(handle);
+		
+		Region region = this.dataRegions[handle];
+		
+		// like the AtlasRegion - rotated regions are stored rotated
+		return region.rotate ? region.height : region.width;
+	}
+	
+	/**
+	 * returns the height of the AtlasRegion of a handle returned by resolve
+	 * without loading its page
+	 */
+	public int getRegionHeight(int handle) {
+		this.checkHandle(handle);
+		
+		Region region = this.dataRegions[handle];
+		
+		return region.rotate ? region.width : region.height;
+	}
+	
+	/**
+	 * returns the page of the AtlasRegion of a handle returned by resolve
+	 * without loading it - all AtlasRegions of a page share its texture
+	 */
+	public Page getPage(int handle) {
+		this.checkHandle(handle);
+		
+		return this.dataRegions[handle].page;
+	}
+	
+	private void checkHandle(int handle) {
+		if ((handle < 0) || (handle >= this.regions.length)) {
+			throw new IllegalArgumentException("unknown texture handle : " + handle);
+		}
+	}
+	
+	/**
+	 * returns the AtlasRegion with the given name,
+	 * Note : the name must be unique across ALL used TextureAtlases
+	 * @param name
+	 * @return the AtlasRegion or null if its page isn't loaded yet
+	 */
+	public AtlasRegion getTexture(String name) {
+		return this.getTexture(this.resolve(name));
+	}
+	
+	private static final class DecodedPage {
+		private final int atlasIndex;
+		private final Page page;
+		private Pixmap pixmap;
+		private Throwable error;
+		
+		private DecodedPage(int atlasIndex, Page page) {
+			this.atlasIndex = atlasIndex;
+			this.page = page;
+		}
 	}
 }
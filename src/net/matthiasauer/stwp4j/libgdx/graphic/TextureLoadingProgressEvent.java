@@ -0,0 +1,21 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+/**
+ * Published while the pages of the texture atlases are loaded asynchronously
+ */
+public class TextureLoadingProgressEvent {
+    public final int loadedPages;
+    public final int totalPages;
+
+    public TextureLoadingProgressEvent(int loadedPages, int totalPages) {
+        this.loadedPages = loadedPages;
+        this.totalPages = totalPages;
+    }
+
+    /**
+     * @return true if all pages are loaded and every texture can be drawn
+     */
+    public boolean isCompleted() {
+        return this.loadedPages == this.totalPages;
+    }
+}
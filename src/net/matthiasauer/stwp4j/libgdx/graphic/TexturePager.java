@@ -0,0 +1,206 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import java.util.List;
+
+import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData.Page;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData.Region;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+/**
+ * Loads a page of the texture atlases when one of its regions is used the
+ * first time. If the loaded pages exceed the memory budget the least recently
+ * used pages are disposed - pages used by the current frame are never
+ * disposed because the SpriteBatch might not have flushed them yet.
+ */
+final class TexturePager {
+    private final Region[] dataRegions;
+    private final int[] pageOfHandle;
+    private final AtlasRegion[] regions;
+    private final Page[] pages;
+    private final Texture[] textures;
+    private final long[] bytes;
+    private final long[] lastUsedFrame;
+    private final long memoryBudget;
+    private final RenderStatistics statistics;
+    private long residentBytes;
+    private long frame;
+
+    /**
+     * @param dataRegions
+     *            the region of each texture handle
+     * @param memoryBudget
+     *            the number of bytes the loaded pages may occupy
+     */
+    TexturePager(Region[] dataRegions, long memoryBudget, RenderStatistics statistics) {
+        final ObjectIntMap<Page> pageIndices = new ObjectIntMap<Page>();
+
+        this.dataRegions = dataRegions;
+        this.memoryBudget = memoryBudget;
+        this.statistics = statistics;
+        this.pageOfHandle = new int[dataRegions.length];
+        this.regions = new AtlasRegion[dataRegions.length];
+
+        for (int handle = 0; handle < dataRegions.length; handle++) {
+            final Page page = dataRegions[handle].page;
+
+            if (!pageIndices.containsKey(page)) {
+                pageIndices.put(page, pageIndices.size);
+            }
+
+            this.pageOfHandle[handle] = pageIndices.get(page, -1);
+        }
+
+        this.pages = new Page[pageIndices.size];
+        this.textures = new Texture[pageIndices.size];
+        this.bytes = new long[pageIndices.size];
+        this.lastUsedFrame = new long[pageIndices.size];
+
+        for (ObjectIntMap.Entry<Page> entry : pageIndices.entries()) {
+            this.pages[entry.value] = entry.key;
+        }
+    }
+
+    /**
+     * must be called before the RenderData of a frame is drawn
+     */
+    public void beginFrame() {
+        this.frame++;
+        this.evictExceedingPages();
+        this.statistics.setTextureResidentBytes(this.residentBytes);
+    }
+
+    public AtlasRegion getRegion(int handle) {
+        final int page = this.pageOfHandle[handle];
+
+        if (this.textures[page] == null) {
+            this.load(page);
+        }
+
+        this.lastUsedFrame[page] = this.frame;
+
+        AtlasRegion region = this.regions[handle];
+
+        if (region == null) {
+            region = createRegion(this.dataRegions[handle], this.textures[page]);
+            this.regions[handle] = region;
+        } else if (region.getTexture() != this.textures[page]) {
+            // the page was disposed and loaded again
+            region.setTexture(this.textures[page]);
+        }
+
+        return region;
+    }
+
+    /**
+     * adds the AtlasRegions that were created for the texture to the result
+     */
+    public void collectRegions(Texture texture, List<AtlasRegion> result) {
+        for (int handle = 0; handle < this.regions.length; handle++) {
+            if ((this.regions[handle] != null) && (this.textures[this.pageOfHandle[handle]] == texture)) {
+                result.add(this.regions[handle]);
+            }
+        }
+    }
+
+    private void load(int pageIndex) {
+        final long start = System.nanoTime();
+        final Page page = this.pages[pageIndex];
+        final Texture texture = new Texture(page.textureFile, page.format, page.useMipMaps);
+
+        texture.setFilter(page.minFilter, page.magFilter);
+        texture.setWrap(page.uWrap, page.vWrap);
+
+        this.textures[pageIndex] = texture;
+        this.bytes[pageIndex] = estimateBytes(texture, page.useMipMaps);
+        this.lastUsedFrame[pageIndex] = this.frame;
+        this.residentBytes += this.bytes[pageIndex];
+        this.evictExceedingPages();
+
+        this.statistics.addTexturePageLoad(System.nanoTime() - start);
+        this.statistics.setTextureResidentBytes(this.residentBytes);
+    }
+
+    private void evictExceedingPages() {
+        while (this.residentBytes > this.memoryBudget) {
+            int leastRecentlyUsed = -1;
+
+            // there are only a few pages, a scan is cheaper than keeping an
+            // ordered structure up to date on every use
+            for (int i = 0; i < this.textures.length; i++) {
+                if ((this.textures[i] != null) && (this.lastUsedFrame[i] < this.frame)) {
+                    if ((leastRecentlyUsed == -1)
+                            || (this.lastUsedFrame[i] < this.lastUsedFrame[leastRecentlyUsed])) {
+                        leastRecentlyUsed = i;
+                    }
+                }
+            }
+
+            if (leastRecentlyUsed == -1) {
+                // all loaded pages are used by the current frame
+                return;
+            }
+
+            this.textures[leastRecentlyUsed].dispose();
+            this.textures[leastRecentlyUsed] = null;
+            this.residentBytes -= this.bytes[leastRecentlyUsed];
+            this.statistics.addTexturePageEviction();
+        }
+    }
+
+    private static long estimateBytes(Texture texture, boolean useMipMaps) {
+        long size = (long) texture.getWidth() * texture.getHeight()
+                * bytesPerPixel(texture.getTextureData().getFormat());
+
+        if (useMipMaps) {
+            // the mip map chain adds a third
+            size += size / 3;
+        }
+
+        return size;
+    }
+
+    private static int bytesPerPixel(Format format) {
+        switch (format) {
+        case Alpha:
+        case Intensity:
+            return 1;
+        case LuminanceAlpha:
+        case RGB565:
+        case RGBA4444:
+            return 2;
+        case RGB888:
+            return 3;
+        default:
+            return 4;
+        }
+    }
+
+    /**
+     * creates the AtlasRegion like the TextureAtlas does
+     */
+    private static AtlasRegion createRegion(Region region, Texture texture) {
+        final int width = region.width;
+        final int height = region.height;
+        final AtlasRegion atlasRegion = new AtlasRegion(texture, region.left, region.top,
+                region.rotate ? height : width, region.rotate ? width : height);
+
+        atlasRegion.index = region.index;
+        atlasRegion.name = region.name;
+        atlasRegion.offsetX = region.offsetX;
+        atlasRegion.offsetY = region.offsetY;
+        atlasRegion.originalHeight = region.originalHeight;
+        atlasRegion.originalWidth = region.originalWidth;
+        atlasRegion.rotate = region.rotate;
+        atlasRegion.splits = region.splits;
+        atlasRegion.pads = region.pads;
+
+        if (region.flip) {
+            atlasRegion.flip(false, true);
+        }
+
+        return atlasRegion;
+    }
+}
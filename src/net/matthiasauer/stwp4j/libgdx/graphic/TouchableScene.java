@@ -0,0 +1,116 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import java.util.Arrays;
+
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
+import com.badlogic.gdx.math.Rectangle;
+
+/**
+ * Detects whether the touchable RenderedData of a frame differs from the one
+ * of the previous frame - every field the search for the touched RenderData
+ * depends on is copied and compared exactly, so the version only stays the
+ * same if the scene didn't change. The copies are reused between frames.
+ */
+final class TouchableScene {
+    private static final int FLOATS = 6;
+    private String[] ids = new String[64];
+    private Class<?>[] types = new Class<?>[64];
+    private AtlasRegion[] textures = new AtlasRegion[64];
+    private InteractionMode[] interactionModes = new InteractionMode[64];
+    private boolean[] renderProjected = new boolean[64];
+    private float[] floats = new float[64 * FLOATS];
+    private int size;
+    /** the size of the last ended frame */
+    private int previousSize;
+    private boolean changed;
+    private long version;
+
+    /**
+     * starts collecting the RenderedData of a frame
+     */
+    public void beginFrame() {
+        this.size = 0;
+    }
+
+    /**
+     * must be called in the order the RenderedData is drawn
+     */
+    public void add(RenderedData data) {
+        final RenderData renderData = data.getRenderData();
+        final Rectangle target = data.getRenderedTarget();
+        final int index = this.size++;
+
+        if (index == this.ids.length) {
+            this.grow();
+        }
+
+        final int offset = index * FLOATS;
+
+        if ((index >= this.previousSize) || this.changed
+                || !this.equals(index, offset, data, renderData, target)) {
+            this.changed = true;
+            this.ids[index] = renderData.getId();
+            this.types[index] = renderData.getClass();
+            this.textures[index] = data.getTexture();
+            this.interactionModes[index] = renderData.getInteractionMode();
+            this.renderProjected[index] = renderData.isRenderProjected();
+            this.floats[offset] = target.x;
+            this.floats[offset + 1] = target.y;
+            this.floats[offset + 2] = target.width;
+            this.floats[offset + 3] = target.height;
+            this.floats[offset + 4] = data.getZoomFactor();
+            this.floats[offset + 5] = renderData.getRotation();
+        }
+    }
+
+    private boolean equals(int index, int offset, RenderedData data, RenderData renderData, Rectangle target) {
+        final String id = renderData.getId();
+
+        return (this.types[index] == renderData.getClass()) && (this.textures[index] == data.getTexture())
+                && (this.interactionModes[index] == renderData.getInteractionMode())
+                && (this.renderProjected[index] == renderData.isRenderProjected())
+                && ((id == null) ? (this.ids[index] == null) : id.equals(this.ids[index]))
+                && (this.floats[offset] == target.x) && (this.floats[offset + 1] == target.y)
+                && (this.floats[offset + 2] == target.width) && (this.floats[offset + 3] == target.height)
+                && (this.floats[offset + 4] == data.getZoomFactor())
+                && (this.floats[offset + 5] == renderData.getRotation());
+    }
+
+    private void grow() {
+        final int capacity = this.ids.length * 2;
+
+        this.ids = Arrays.copyOf(this.ids, capacity);
+        this.types = Arrays.copyOf(this.types, capacity);
+        this.textures = Arrays.copyOf(this.textures, capacity);
+        this.interactionModes = Arrays.copyOf(this.interactionModes, capacity);
+        this.renderProjected = Arrays.copyOf(this.renderProjected, capacity);
+        this.floats = Arrays.copyOf(this.floats, capacity * FLOATS);
+    }
+
+    /**
+     * ends the frame - the version changes if the RenderedData differs from
+     * the one of the previous frame
+     */
+    public void endFrame() {
+        if (this.changed || (this.size != this.previousSize)) {
+            this.version++;
+        }
+
+        // the references of the removed RenderedData aren't kept
+        for (int i = this.size; i < this.previousSize; i++) {
+            this.ids[i] = null;
+            this.textures[i] = null;
+        }
+
+        this.previousSize = this.size;
+        this.changed = false;
+    }
+
+    /**
+     * @return a number that only stays the same while the touchable
+     *         RenderedData doesn't change
+     */
+    public long getVersion() {
+        return this.version;
+    }
+}
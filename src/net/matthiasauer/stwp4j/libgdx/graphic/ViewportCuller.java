@@ -0,0 +1,97 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import com.badlogic.gdx.graphics.OrthographicCamera;
+
+/**
+ * Decides whether the bounds of a RenderData are inside the area that is
+ * visible with the current projection - RenderData outside of it is neither
+ * drawn nor registered for hit testing
+ */
+final class ViewportCuller {
+    private final OrthographicCamera camera;
+    private final RenderStatistics statistics;
+    private final boolean enabled;
+    private float minimumX;
+    private float minimumY;
+    private float maximumX;
+    private float maximumY;
+
+    ViewportCuller(OrthographicCamera camera, RenderStatistics statistics, boolean enabled) {
+        this.camera = camera;
+        this.statistics = statistics;
+        this.enabled = enabled;
+    }
+
+    /**
+     * must be called after the projection changed
+     * 
+     * @param renderProjected
+     *            whether the camera.combined (true) or the camera.projection
+     *            (false) matrix is used
+     */
+    public void update(boolean renderProjected) {
+        final float halfWidth = this.camera.viewportWidth * this.camera.zoom / 2;
+        final float halfHeight = this.camera.viewportHeight * this.camera.zoom / 2;
+        float centerX = 0;
+        float centerY = 0;
+
+        if (renderProjected) {
+            centerX = this.camera.position.x;
+            centerY = this.camera.position.y;
+        }
+
+        this.minimumX = centerX - halfWidth;
+        this.maximumX = centerX + halfWidth;
+        this.minimumY = centerY - halfHeight;
+        this.maximumY = centerY + halfHeight;
+    }
+
+    /**
+     * @param x
+     *            left side of the unrotated bounds
+     * @param y
+     *            bottom side of the unrotated bounds
+     * @param width
+     *            width of the unrotated bounds
+     * @param height
+     *            height of the unrotated bounds
+     * @param originX
+     *            x coordinate the bounds are rotated around
+     * @param originY
+     *            y coordinate the bounds are rotated around
+     * @param rotation
+     *            rotation in degrees
+     * @return whether the rotated bounds might be visible
+     */
+    public boolean isVisible(float x, float y, float width, float height, float originX, float originY,
+            float rotation) {
+        if (!this.enabled) {
+            return true;
+        }
+
+        boolean isVisible;
+
+        if (rotation == 0) {
+            isVisible = this.overlaps(x, y, x + width, y + height);
+        } else {
+            // the rotated bounds are inside the circle around the origin that
+            // contains the farthest corner
+            final float distanceX = Math.max(Math.abs(x - originX), Math.abs(x + width - originX));
+            final float distanceY = Math.max(Math.abs(y - originY), Math.abs(y + height - originY));
+            final float radius = (float) Math.sqrt(distanceX * distanceX + distanceY * distanceY);
+
+            isVisible = this.overlaps(originX - radius, originY - radius, originX + radius, originY + radius);
+        }
+
+        if (!isVisible) {
+            this.statistics.addCulled();
+        }
+
+        return isVisible;
+    }
+
+    private boolean overlaps(float left, float bottom, float right, float top) {
+        return (left <= this.maximumX) && (right >= this.minimumX) && (bottom <= this.maximumY)
+                && (top >= this.minimumY);
+    }
+}
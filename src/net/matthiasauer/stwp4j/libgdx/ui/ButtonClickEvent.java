@@ -1,6 +1,13 @@
 package net.matthiasauer.stwp4j.libgdx.ui;
 
-public class ButtonClickEvent {
+import net.matthiasauer.stwp4j.libgdx.utils.PooledObject;
+
+/**
+ * ButtonClickEvents are recycled by the ButtonProcess after the iteration
+ * following the one they were offered in - consumers mustn't keep references
+ * to them
+ */
+public class ButtonClickEvent extends PooledObject {
     private String id;
     
     public ButtonClickEvent set(String id) {
@@ -9,6 +16,11 @@ public class ButtonClickEvent {
         return this;
     }
     
+    @Override
+    protected void reset() {
+        this.id = null;
+    }
+    
     public String getId() {
         return this.id;
     }
@@ -1,33 +1,66 @@
 package net.matthiasauer.stwp4j.libgdx.ui;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import net.matthiasauer.stwp4j.ChannelInPort;
 import net.matthiasauer.stwp4j.ChannelOutPort;
 import net.matthiasauer.stwp4j.LightweightProcess;
 import net.matthiasauer.stwp4j.libgdx.graphic.InputTouchEvent;
 import net.matthiasauer.stwp4j.libgdx.graphic.InputTouchEventType;
 import net.matthiasauer.stwp4j.libgdx.graphic.RenderData;
+import net.matthiasauer.stwp4j.libgdx.utils.ObjectPool;
 
+/**
+ * Offers the base, over or down state of a button. Every pointer is tracked
+ * on its own - a pointer captures the entity it was pressed on until it is
+ * released. The button is down if any pointer holds it down, otherwise over
+ * if any pointer is over it.
+ */
 public class ButtonProcess extends LightweightProcess {
     private final ChannelOutPort<RenderData> renderOutput;
     private final ChannelOutPort<ButtonClickEvent> buttonClickOutput;
     private final ChannelInPort<InputTouchEvent> touchEventInput;
+    private final ObjectPool<ButtonClickEvent> buttonClickEventPool = new ObjectPool<ButtonClickEvent>() {
+        @Override
+        protected ButtonClickEvent newObject() {
+            return new ButtonClickEvent();
+        }
+    };
+    private List<ButtonClickEvent> offeredButtonClickEvents = new ArrayList<ButtonClickEvent>();
+    private List<ButtonClickEvent> previouslyOfferedButtonClickEvents = new ArrayList<ButtonClickEvent>();
     private final RenderData baseState;
     private final RenderData overState;
     private final RenderData downState;
     private final String id;
+    private final boolean offerOnlyChangedState;
     private RenderData currentState;
-    private boolean mouseIsDown;
-    private String mouseDownOnEntity;
+    private RenderData lastOfferedState;
+    // per pointer
+    private final RenderData[] pointerStates = new RenderData[InputTouchEvent.MAX_POINTERS];
+    private final boolean[] mouseIsDown = new boolean[InputTouchEvent.MAX_POINTERS];
+    private final String[] mouseDownOnEntity = new String[InputTouchEvent.MAX_POINTERS];
     private boolean reactToMouse;
     private boolean stillClickedDownOnThis;
 
     public ButtonProcess(ChannelOutPort<RenderData> renderOutput, ChannelInPort<InputTouchEvent> touchEventInput,
             ChannelOutPort<ButtonClickEvent> buttonClickOutput, RenderData baseState, RenderData overState,
             RenderData downState) {
+        this(renderOutput, touchEventInput, buttonClickOutput, baseState, overState, downState, false);
+    }
+
+    /**
+     * @param offerOnlyChangedState
+     *            if true the state is only offered to the renderOutput if it
+     *            changed - used if the RenderProcess runs in retained mode
+     */
+    public ButtonProcess(ChannelOutPort<RenderData> renderOutput, ChannelInPort<InputTouchEvent> touchEventInput,
+            ChannelOutPort<ButtonClickEvent> buttonClickOutput, RenderData baseState, RenderData overState,
+            RenderData downState, boolean offerOnlyChangedState) {
+        this.offerOnlyChangedState = offerOnlyChangedState;
+        this.lastOfferedState = null;
         this.reactToMouse = true;
         this.stillClickedDownOnThis = false;
-        this.mouseIsDown = false;
-        this.mouseDownOnEntity = null;
         this.renderOutput = renderOutput;
         this.touchEventInput = touchEventInput;
         this.buttonClickOutput = buttonClickOutput;
@@ -42,29 +75,33 @@ public class ButtonProcess extends LightweightProcess {
 
         this.id = this.baseState.getId();
         this.currentState = this.baseState;
+
+        for (int pointer = 0; pointer < InputTouchEvent.MAX_POINTERS; pointer++) {
+            this.pointerStates[pointer] = this.baseState;
+        }
     }
     
-    private void calculateMouseStates(String targetId, boolean isTouched) {
-        if ((this.mouseIsDown == false) && isTouched) {
-            this.mouseIsDown = true;
-            this.mouseDownOnEntity = targetId;
+    private void calculateMouseStates(int pointer, String targetId, boolean isTouched) {
+        if ((this.mouseIsDown[pointer] == false) && isTouched) {
+            this.mouseIsDown[pointer] = true;
+            this.mouseDownOnEntity[pointer] = targetId;
         }
 
         if (!isTouched) {
-            this.mouseDownOnEntity = null;
-            this.mouseIsDown = false;
+            this.mouseDownOnEntity[pointer] = null;
+            this.mouseIsDown[pointer] = false;
         }
     }
     
-    private void calculateButtonState(String targetId, boolean isTouched) {
-        this.calculateMouseStates(targetId, isTouched);
+    private void calculateButtonState(int pointer, String targetId, boolean isTouched) {
+        this.calculateMouseStates(pointer, targetId, isTouched);
 
         this.reactToMouse = true;
         this.stillClickedDownOnThis = false;
         
-        if (this.mouseIsDown) {
-            if (this.mouseDownOnEntity != null) {
-                if (!this.mouseDownOnEntity.equals(this.id)) {
+        if (this.mouseIsDown[pointer]) {
+            if (this.mouseDownOnEntity[pointer] != null) {
+                if (!this.mouseDownOnEntity[pointer].equals(this.id)) {
                     this.reactToMouse = false;
                 } else {
                     this.stillClickedDownOnThis = true;
@@ -75,24 +112,46 @@ public class ButtonProcess extends LightweightProcess {
         }
     }
     
-    private void handleMouseOnButton(String targetId, boolean isTouched, InputTouchEventType eventType) {
+    private void handleMouseOnButton(int pointer, String targetId, boolean isTouched,
+            InputTouchEventType eventType) {
         // DOWN event
         if (eventType == InputTouchEventType.TouchDown) {
-            this.currentState = this.downState;
+            this.pointerStates[pointer] = this.downState;
         } else {
-            if ((eventType == InputTouchEventType.TouchUp) && (this.currentState == this.downState)) {
-                ButtonClickEvent buttonClickEvent = new ButtonClickEvent();
+            if ((eventType == InputTouchEventType.TouchUp) && (this.pointerStates[pointer] == this.downState)) {
+                ButtonClickEvent buttonClickEvent = this.buttonClickEventPool.obtain();
                 buttonClickEvent.set(targetId);
 
                 this.buttonClickOutput.offer(buttonClickEvent);
+                this.offeredButtonClickEvents.add(buttonClickEvent);
             }
 
             if (isTouched) {
-                this.currentState = this.downState;
+                this.pointerStates[pointer] = this.downState;
             } else {
-                this.currentState = this.overState;
+                this.pointerStates[pointer] = this.overState;
+            }
+        }
+    }
+
+    /**
+     * @return the down state if any pointer holds the button down, otherwise
+     *         the over state if any pointer is over it
+     */
+    private RenderData combinePointerStates() {
+        RenderData state = this.baseState;
+
+        for (int pointer = 0; pointer < InputTouchEvent.MAX_POINTERS; pointer++) {
+            if (this.pointerStates[pointer] == this.downState) {
+                return this.downState;
+            }
+
+            if (this.pointerStates[pointer] == this.overState) {
+                state = this.overState;
             }
         }
+
+        return state;
     }
 
     @Override
@@ -100,31 +159,59 @@ public class ButtonProcess extends LightweightProcess {
         InputTouchEvent inputTouchEventData = null;
 
         while ((inputTouchEventData = this.touchEventInput.poll()) != null) {
+            inputTouchEventData.checkNotRecycled();
+
             final String targetId = inputTouchEventData.getTouchedRenderDataId();
             final InputTouchEventType eventType = inputTouchEventData.getInputTouchEventType();
             final boolean isTouched = inputTouchEventData.isTouched();
+            final int pointer = inputTouchEventData.getPointer();
 
-            this.calculateButtonState(targetId, isTouched);
+            this.calculateButtonState(pointer, targetId, isTouched);
 
             if (this.reactToMouse) {
                 // if the event targets THIS button
                 if ((targetId != null) && (targetId.equals(this.id))) {
-                    this.handleMouseOnButton(targetId, isTouched, eventType);
+                    this.handleMouseOnButton(pointer, targetId, isTouched, eventType);
                 } else {
                     // event doesn't target THIS button
                     if (!this.stillClickedDownOnThis) {
-                        this.currentState = this.baseState;
+                        this.pointerStates[pointer] = this.baseState;
                     }
                 }
             } else {
-                this.currentState = this.baseState;
+                this.pointerStates[pointer] = this.baseState;
             }
+
+            this.currentState = this.combinePointerStates();
         }
 
     }
 
+    /**
+     * the events offered in this iteration might still be polled in the next
+     * iteration - only the ones offered in the last iteration are recycled
+     */
+    private void recycleButtonClickEvents() {
+        for (int i = 0; i < this.previouslyOfferedButtonClickEvents.size(); i++) {
+            this.previouslyOfferedButtonClickEvents.get(i).recycle();
+        }
+
+        this.previouslyOfferedButtonClickEvents.clear();
+
+        List<ButtonClickEvent> temp = this.previouslyOfferedButtonClickEvents;
+        this.previouslyOfferedButtonClickEvents = this.offeredButtonClickEvents;
+        this.offeredButtonClickEvents = temp;
+    }
+
     @Override
     protected void postIteration() {
+        this.recycleButtonClickEvents();
+
+        if (this.offerOnlyChangedState && (this.lastOfferedState == this.currentState)) {
+            return;
+        }
+
         this.renderOutput.offer(this.currentState);
+        this.lastOfferedState = this.currentState;
     }
 }
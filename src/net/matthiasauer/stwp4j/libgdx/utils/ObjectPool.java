@@ -0,0 +1,86 @@
+package net.matthiasauer.stwp4j.libgdx.utils;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * A pool of reusable objects, to avoid allocating new objects every frame -
+ * the pools are not thread safe
+ */
+public abstract class ObjectPool<T extends PooledObject> {
+    private static boolean debug = false;
+    private final Array<T> freeObjects = new Array<T>(false, 16);
+
+    /**
+     * @param debug
+     *            if true recycled objects are never reused, using a recycled
+     *            object can therefore always be detected by
+     *            PooledObject.checkNotRecycled - only for debugging, because
+     *            then the pools don't save any allocations
+     */
+    public static void setDebug(boolean debug) {
+        ObjectPool.debug = debug;
+    }
+
+    public static boolean isDebug() {
+        return ObjectPool.debug;
+    }
+
+    protected abstract T newObject();
+
+    /**
+     * @return an object that has to be initialized using its set method
+     */
+    public T obtain() {
+        T object = null;
+
+        if (this.freeObjects.size == 0) {
+            object = this.newObject();
+        } else {
+            object = this.freeObjects.pop();
+        }
+
+        object.setPool(this);
+        object.setRecycled(false);
+
+        return object;
+    }
+
+    void recycle(PooledObject object) {
+        if (object.getPool() != this) {
+            throw new IllegalArgumentException("the object was not obtained from this pool !");
+        }
+
+        // the object has been obtained from this pool - so it is a T
+        @SuppressWarnings("unchecked")
+        final T pooledObject = (T) object;
+
+        this.free(pooledObject);
+    }
+
+    /**
+     * returns the object to the pool
+     * 
+     * @throws IllegalStateException
+     *             if the object was already recycled
+     */
+    public void free(T object) {
+        if (object.getPool() != this) {
+            throw new IllegalArgumentException("the object was not obtained from this pool !");
+        }
+
+        object.checkNotRecycled();
+        object.reset();
+        object.setRecycled(true);
+
+        if (!ObjectPool.debug) {
+            this.freeObjects.add(object);
+        }
+    }
+
+    /**
+     * @return the number of objects that can be obtained without allocating
+     */
+    public int getFree() {
+        return this.freeObjects.size;
+    }
+}
@@ -0,0 +1,67 @@
+package net.matthiasauer.stwp4j.libgdx.utils;
+
+/**
+ * Base class of objects that can be obtained from an ObjectPool. Objects that
+ * were created with new are never recycled.
+ */
+public abstract class PooledObject {
+    private ObjectPool<?> pool = null;
+    private boolean isRecycled = false;
+
+    /**
+     * @return whether the object was obtained from an ObjectPool
+     */
+    public final boolean isPooled() {
+        return this.pool != null;
+    }
+
+    /**
+     * @return whether the object was returned to its pool and must not be used
+     *         anymore
+     */
+    public final boolean isRecycled() {
+        return this.isRecycled;
+    }
+
+    /**
+     * In debug mode (see ObjectPool.setDebug) recycled objects are never
+     * reused - this method therefore detects every use of a recycled object
+     * 
+     * @throws IllegalStateException
+     *             if the object was already recycled
+     */
+    public final void checkNotRecycled() {
+        if (this.isRecycled) {
+            throw new IllegalStateException("the " + this.getClass().getSimpleName() + " was already recycled !");
+        }
+    }
+
+    /**
+     * returns the object to the pool it was obtained from - does nothing if
+     * the object was not obtained from a pool
+     */
+    public final void recycle() {
+        if (this.pool != null) {
+            this.pool.recycle(this);
+        }
+    }
+
+    /**
+     * called when the object is recycled - must release all references to
+     * other objects
+     */
+    protected void reset() {
+    }
+
+    final ObjectPool<?> getPool() {
+        return this.pool;
+    }
+
+    final void setPool(ObjectPool<?> pool) {
+        this.pool = pool;
+    }
+
+    final void setRecycled(boolean isRecycled) {
+        this.isRecycled = isRecycled;
+    }
+}
@@ -0,0 +1,33 @@
+package net.matthiasauer.stwp4j.libgdx.application;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class TestFixedTimestep {
+    private static final long STEP_NANOS = 10000000;
+
+    @Test
+    public void testStepsAreAccumulated() {
+        final FixedTimestep fixedTimestep = new FixedTimestep(0.01, 5);
+
+        assertEquals("step simulated too early", 0, fixedTimestep.advance(STEP_NANOS / 2));
+        assertEquals("incorrect alpha", 0.5, fixedTimestep.getAlpha(), 0.0001);
+        assertEquals("accumulated time lost", 2, fixedTimestep.advance(STEP_NANOS * 2));
+        assertEquals("incorrect alpha", 0.5, fixedTimestep.getAlpha(), 0.0001);
+    }
+
+    @Test
+    public void testExcessTimeIsDropped() {
+        final FixedTimestep fixedTimestep = new FixedTimestep(0.01, 5);
+
+        assertEquals("steps not capped", 5, fixedTimestep.advance(STEP_NANOS * 100 + STEP_NANOS / 4));
+        assertEquals("incorrect alpha", 0.25, fixedTimestep.getAlpha(), 0.0001);
+        assertEquals("excess time not dropped", 0, fixedTimestep.advance(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testStepMustBePositive() {
+        new FixedTimestep(0, 5);
+    }
+}
@@ -0,0 +1,55 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TestAlphaMask {
+    @Test
+    public void testBitsMatchPixels() {
+        final Random random = new Random(7);
+        final int width = 37;
+        final int height = 23;
+        final boolean[][] pixels = new boolean[width][height];
+        final AlphaMask mask = new AlphaMask(width, height);
+
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                pixels[x][y] = random.nextBoolean();
+
+                if (pixels[x][y]) {
+                    mask.setVisible(x, y);
+                }
+            }
+        }
+
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                assertEquals("incorrect pixel " + x + "/" + y, pixels[x][y], mask.isVisible(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testOutsideIsNotVisible() {
+        final AlphaMask mask = new AlphaMask(2, 2);
+
+        mask.setVisible(0, 0);
+        mask.setVisible(1, 1);
+
+        assertEquals(false, mask.isVisible(-1, 0));
+        assertEquals(false, mask.isVisible(0, -1));
+        assertEquals(false, mask.isVisible(2, 1));
+        assertEquals(false, mask.isVisible(1, 2));
+    }
+
+    @Test
+    public void testSize() {
+        assertEquals("incorrect size", 8, new AlphaMask(8, 8).getBytes());
+        assertEquals("incorrect size", 16, new AlphaMask(8, 9).getBytes());
+        // 2048 * 2048 pixels at 4 bytes per pixel are 16 MB
+        assertEquals("incorrect size", 512 * 1024, new AlphaMask(2048, 2048).getBytes());
+    }
+}
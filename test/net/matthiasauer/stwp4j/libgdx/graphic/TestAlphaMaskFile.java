@@ -0,0 +1,82 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+
+public class TestAlphaMaskFile {
+    private static final String ATLAS = "\npage.png\nsize: 8,8\nformat: RGBA8888\nfilter: Nearest,Nearest\nrepeat: none\n"
+            + "first\n  rotate: false\n  xy: 0, 0\n  size: 3, 2\n  orig: 3, 2\n  offset: 0, 0\n  index: -1\n"
+            + "second\n  rotate: false\n  xy: 4, 1\n  size: 4, 7\n  orig: 4, 7\n  offset: 0, 0\n  index: -1\n";
+
+    private File createAtlas(File directory, BufferedImage image) throws IOException {
+        final File atlasFile = new File(directory, "test.atlas");
+        final Writer writer = new FileWriter(atlasFile);
+
+        try {
+            writer.write(ATLAS);
+        } finally {
+            writer.close();
+        }
+
+        ImageIO.write(image, "png", new File(directory, "page.png"));
+
+        return atlasFile;
+    }
+
+    private File createDirectory() throws IOException {
+        final File directory = File.createTempFile("alphamasks", "");
+
+        directory.delete();
+        directory.mkdir();
+        directory.deleteOnExit();
+
+        return directory;
+    }
+
+    @Test
+    public void testWrittenMasksMatchImage() throws IOException {
+        final BufferedImage image = new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB);
+
+        for (int x = 0; x < 8; x++) {
+            for (int y = 0; y < 8; y++) {
+                // alternating alpha values below and above the threshold
+                image.setRGB(x, y, (((x * 3 + y * 5) % 4) * 60) << 24);
+            }
+        }
+
+        final File directory = this.createDirectory();
+        final File maskFile = new File(directory, "masks.bin");
+
+        AlphaMaskFileWriter.write(maskFile, 100, Arrays.asList(this.createAtlas(directory, image)));
+
+        final Map<String, AlphaMask> masks = AlphaMaskFile.map(maskFile);
+
+        assertEquals("incorrect number of masks", 2, masks.size());
+        this.assertMask(image, masks.get("first"), 0, 0, 3, 2);
+        this.assertMask(image, masks.get("second"), 4, 1, 4, 7);
+    }
+
+    private void assertMask(BufferedImage image, AlphaMask mask, int left, int top, int width, int height) {
+        assertEquals("incorrect width", width, mask.getWidth());
+        assertEquals("incorrect height", height, mask.getHeight());
+
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                final boolean visible = (image.getRGB(left + x, top + y) >>> 24) > 100;
+
+                assertEquals("incorrect pixel " + x + "/" + y, visible, mask.isVisible(x, y));
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TestBucketRenderDataQueue {
+    private SpriteRenderData createRenderData(String id, int renderOrder, boolean renderProjected) {
+        return new SpriteRenderData(id, 0, 0, 0, RenderPositionUnit.Pixels, null, renderOrder, renderProjected,
+                "tex");
+    }
+
+    private void assertOrder(BucketRenderDataQueue queue, List<RenderData> added) {
+        queue.sort();
+
+        assertEquals("incorrect size", added.size(), queue.size());
+
+        for (int i = 1; i < queue.size(); i++) {
+            final RenderData previous = queue.get(i - 1);
+            final RenderData current = queue.get(i);
+            final int result = new RenderDataComparator().compare(previous, current);
+
+            if (result > 0) {
+                throw new AssertionError("not sorted at index " + i);
+            }
+
+            if (result == 0) {
+                assertEquals("submission order not kept at index " + i, true,
+                        added.indexOf(previous) < added.indexOf(current));
+            }
+        }
+    }
+
+    private void testRandomOrders(int renderOrderRange) {
+        final BucketRenderDataQueue queue = new BucketRenderDataQueue();
+        final Random random = new Random(renderOrderRange);
+
+        // twice to make sure the arrays are reused correctly
+        for (int frame = 0; frame < 2; frame++) {
+            final List<RenderData> added = new ArrayList<RenderData>();
+            queue.beginFrame();
+
+            for (int i = 0; i < 1000; i++) {
+                final int renderOrder = random.nextInt(renderOrderRange) - renderOrderRange / 2;
+                final RenderData data = this.createRenderData("" + i, renderOrder, random.nextBoolean());
+
+                added.add(data);
+                queue.add(data);
+            }
+
+            this.assertOrder(queue, added);
+        }
+    }
+
+    @Test
+    public void testSmallRangeOfRenderOrders() {
+        this.testRandomOrders(10);
+    }
+
+    @Test
+    public void testLargeRangeOfRenderOrders() {
+        this.testRandomOrders(Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void testUnprojectedIsRenderedBeforeProjected() {
+        final BucketRenderDataQueue queue = new BucketRenderDataQueue();
+        final RenderData projected = this.createRenderData("1", 3, true);
+        final RenderData unprojected = this.createRenderData("2", 3, false);
+        final RenderData first = this.createRenderData("3", Integer.MIN_VALUE, true);
+
+        queue.add(projected);
+        queue.add(unprojected);
+        queue.add(first);
+        queue.sort();
+
+        assertSame("wrong order", first, queue.get(0));
+        assertSame("wrong order", unprojected, queue.get(1));
+        assertSame("wrong order", projected, queue.get(2));
+    }
+}
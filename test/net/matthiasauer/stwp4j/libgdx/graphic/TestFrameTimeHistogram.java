@@ -0,0 +1,53 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TestFrameTimeHistogram {
+    @Test
+    public void testBucketsAreAccurate() {
+        for (long nanos = 0; nanos < 10000000; nanos = nanos * 3 / 2 + 1) {
+            final long highestValue = FrameTimeHistogram.highestValue(FrameTimeHistogram.bucket(nanos));
+
+            assertTrue("value above its bucket : " + nanos, nanos <= highestValue);
+            assertTrue("bucket too wide : " + nanos, highestValue - nanos <= nanos / 16);
+        }
+
+        assertEquals("incorrect highest bucket", Long.MAX_VALUE,
+                FrameTimeHistogram.highestValue(FrameTimeHistogram.bucket(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void testPercentiles() {
+        final FrameTimeHistogram histogram = new FrameTimeHistogram(100);
+
+        assertEquals("empty histogram", 0, histogram.getPercentile(50));
+
+        for (int i = 1; i <= 100; i++) {
+            histogram.add(i * 1000);
+        }
+
+        assertEquals("incorrect count", 100, histogram.getCount());
+        assertEquals("incorrect median", 50000, histogram.getPercentile(50), 50000 / 16);
+        assertEquals("incorrect 99th percentile", 99000, histogram.getPercentile(99), 99000 / 16);
+        assertEquals("incorrect maximum", 100000, histogram.getPercentile(100), 100000 / 16);
+    }
+
+    @Test
+    public void testOldestFramesAreRemoved() {
+        final FrameTimeHistogram histogram = new FrameTimeHistogram(10);
+
+        for (int i = 0; i < 10; i++) {
+            histogram.add(1000000);
+        }
+
+        for (int i = 0; i < 10; i++) {
+            histogram.add(10);
+        }
+
+        assertEquals("incorrect count", 10, histogram.getCount());
+        assertEquals("old frames weren't removed", 10, histogram.getPercentile(100));
+    }
+}
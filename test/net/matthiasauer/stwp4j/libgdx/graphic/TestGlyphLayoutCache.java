@@ -0,0 +1,158 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFont.BitmapFontData;
+import com.badlogic.gdx.graphics.g2d.BitmapFont.Glyph;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+
+public class TestGlyphLayoutCache {
+    /**
+     * @return a font with glyphs for 'a' to 'z' that doesn't need a texture
+     */
+    private BitmapFont createFont() {
+        final BitmapFont font = new BitmapFont(new BitmapFontData(),
+                new Array<TextureRegion>(new TextureRegion[] { new TextureRegion() }), false);
+
+        // the glyphs are added after the font loaded its (missing) regions
+        for (char c = 'a'; c <= 'z'; c++) {
+            final Glyph glyph = new Glyph();
+            glyph.id = c;
+            glyph.width = 8;
+            glyph.height = 10;
+            glyph.xadvance = 9;
+            font.getData().setGlyph(c, glyph);
+        }
+
+        return font;
+    }
+
+    @Test
+    public void testHitReturnsSameLayout() {
+        final RenderStatistics statistics = new RenderStatistics();
+        final GlyphLayoutCache cache = new GlyphLayoutCache(statistics, 4, Long.MAX_VALUE);
+        final BitmapFont font = this.createFont();
+
+        assertSame("layout not reused", cache.get(font, "abc"), cache.get(font, new String("abc")));
+        assertEquals("incorrect hits", 1, statistics.getGlyphLayoutCacheHits());
+        assertEquals("incorrect misses", 1, statistics.getGlyphLayoutCacheMisses());
+    }
+
+    @Test
+    public void testFontIsPartOfTheKey() {
+        final RenderStatistics statistics = new RenderStatistics();
+        final GlyphLayoutCache cache = new GlyphLayoutCache(statistics, 4, Long.MAX_VALUE);
+
+        assertNotSame("layouts of different fonts shared", cache.get(this.createFont(), "abc"),
+                cache.get(this.createFont(), "abc"));
+        assertEquals("incorrect misses", 2, statistics.getGlyphLayoutCacheMisses());
+    }
+
+    @Test
+    public void testLayoutIsCorrect() {
+        final GlyphLayoutCache cache = new GlyphLayoutCache(new RenderStatistics(), 1, Long.MAX_VALUE);
+        final BitmapFont font = this.createFont();
+        final float width = cache.get(font, "abcd").width;
+
+        // the evicted layout is reused for the new text
+        cache.get(font, "ab");
+
+        assertEquals("incorrect width after reuse", width, cache.get(font, "abcd").width, 0.0001f);
+    }
+
+    @Test
+    public void testClockEvictsUnreferencedEntry() {
+        final RenderStatistics statistics = new RenderStatistics();
+        final GlyphLayoutCache cache = new GlyphLayoutCache(statistics, 2, Long.MAX_VALUE);
+        final BitmapFont font = this.createFont();
+
+        cache.get(font, "a");
+        cache.get(font, "b");
+        // 'a' gets a second chance
+        cache.get(font, "a");
+        cache.get(font, "c");
+
+        assertEquals("incorrect size", 2, cache.size());
+        assertEquals("incorrect evictions", 1, statistics.getGlyphLayoutCacheEvictions());
+
+        cache.get(font, "a");
+        assertEquals("'a' was evicted", 2, statistics.getGlyphLayoutCacheHits());
+    }
+
+    @Test
+    public void testByteBudget() {
+        final RenderStatistics statistics = new RenderStatistics();
+        final GlyphLayoutCache cache = new GlyphLayoutCache(statistics, 64, 512);
+        final BitmapFont font = this.createFont();
+
+        for (int i = 0; i < 64; i++) {
+            cache.get(font, "abcdefghij" + (char) ('a' + (i % 26)) + (char) ('a' + (i / 26)));
+        }
+
+        assertTrue("byte budget exceeded", cache.getUsedBytes() <= 512);
+        assertTrue("nothing cached", cache.size() > 0);
+        assertEquals("incorrect evictions", 64 - cache.size(), statistics.getGlyphLayoutCacheEvictions());
+    }
+
+    @Test
+    public void testInsertedEntrySurvivesTheByteBudget() {
+        final RenderStatistics statistics = new RenderStatistics();
+        final GlyphLayoutCache cache = new GlyphLayoutCache(statistics, 8, 1024);
+        final BitmapFont font = this.createFont();
+        final Random random = new Random(8);
+
+        for (int i = 0; i < 2000; i++) {
+            final StringBuilder text = new StringBuilder();
+            final int length = 1 + random.nextInt(random.nextBoolean() ? 3 : 80);
+
+            for (int j = 0; j < length; j++) {
+                text.append((char) ('a' + random.nextInt(3)));
+            }
+
+            cache.get(font, text.toString());
+
+            final int hits = statistics.getGlyphLayoutCacheHits();
+
+            cache.get(font, text.toString());
+
+            assertEquals("inserted entry evicted by its own insertion", hits + 1,
+                    statistics.getGlyphLayoutCacheHits());
+            assertTrue("byte budget exceeded", cache.getUsedBytes() <= 1024);
+        }
+    }
+
+    @Test
+    public void testManyEntriesStayReachable() {
+        final RenderStatistics statistics = new RenderStatistics();
+        final GlyphLayoutCache cache = new GlyphLayoutCache(statistics, 100, Long.MAX_VALUE);
+        final BitmapFont font = this.createFont();
+
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 150; i++) {
+                cache.get(font, "" + (char) ('a' + (i % 26)) + (char) ('a' + (i / 26)));
+            }
+        }
+
+        for (int i = 100; i < 150; i++) {
+            final int hits = statistics.getGlyphLayoutCacheHits();
+            final String text = "" + (char) ('a' + (i % 26)) + (char) ('a' + (i / 26));
+            final float width = cache.get(font, text).width;
+
+            // either found or laid out again - but always the correct layout
+            assertEquals("incorrect layout for " + text, new GlyphLayout(font, text).width, width, 0.0001f);
+            assertTrue(statistics.getGlyphLayoutCacheHits() >= hits);
+        }
+
+        assertEquals("incorrect size", 100, cache.size());
+    }
+}
@@ -0,0 +1,35 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class TestInteractionMode {
+    @Test
+    public void testDefaults() {
+        assertEquals(InteractionMode.PixelPerfect,
+                new SpriteRenderData("id", 0, 0, 0, RenderPositionUnit.Pixels, null, 0, true, "tex")
+                        .getInteractionMode());
+        assertEquals(InteractionMode.BoundingBox,
+                new TextRenderData("id", 0, 0, 0, RenderPositionUnit.Pixels, null, 0, true, "text", null)
+                        .getInteractionMode());
+    }
+
+    @Test
+    public void testSetResetsTheMode() {
+        final SpriteRenderData data = new SpriteRenderData();
+
+        data.set("id", 0, 0, 0, RenderPositionUnit.Pixels, null, 0, true, "tex")
+                .setInteractionMode(InteractionMode.None);
+        assertEquals(InteractionMode.None, data.getInteractionMode());
+
+        // reusing the RenderData restores the default
+        data.set("id", 0, 0, 0, RenderPositionUnit.Pixels, null, 0, true, "tex");
+        assertEquals(InteractionMode.PixelPerfect, data.getInteractionMode());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullMode() {
+        new SpriteRenderData().setInteractionMode(null);
+    }
+}
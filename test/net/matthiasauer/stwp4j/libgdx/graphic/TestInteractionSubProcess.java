@@ -0,0 +1,343 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.utils.viewport.ScreenViewport;
+import com.badlogic.gdx.utils.viewport.Viewport;
+
+public class TestInteractionSubProcess {
+    private static final int WIDTH = 200;
+    private static final int HEIGHT = 100;
+    private Input originalInput;
+    private Graphics originalGraphics;
+    private RenderStatistics statistics;
+    private RenderFrameBuffer buffer;
+
+    /**
+     * @return a proxy of the interface that returns the screen size and
+     *         defaults otherwise
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T createHeadless(Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                final Class<?> returnType = method.getReturnType();
+
+                if (method.getName().equals("getWidth")) {
+                    return WIDTH;
+                } else if (method.getName().equals("getHeight")) {
+                    return HEIGHT;
+                }
+
+                return createDefault(returnType);
+            }
+        });
+    }
+
+    private static Object createDefault(Class<?> type) {
+        if ((type == void.class) || !type.isPrimitive()) {
+            return null;
+        } else if (type == boolean.class) {
+            return false;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == float.class) {
+            return 0f;
+        } else if (type == double.class) {
+            return 0d;
+        }
+
+        return 0;
+    }
+
+    @Before
+    public void setUp() {
+        this.originalInput = Gdx.input;
+        this.originalGraphics = Gdx.graphics;
+        Gdx.input = createHeadless(Input.class);
+        Gdx.graphics = createHeadless(Graphics.class);
+        this.statistics = new RenderStatistics();
+        this.buffer = new RenderFrameBuffer();
+    }
+
+    @After
+    public void tearDown() {
+        Gdx.input = this.originalInput;
+        Gdx.graphics = this.originalGraphics;
+    }
+
+    private InteractionSubProcess create(RenderProcessSettings settings) {
+        final OrthographicCamera camera = new OrthographicCamera();
+        final Viewport viewport = new ScreenViewport(camera);
+
+        // the matrices of the camera aren't updated - they need the natives
+        camera.viewportWidth = WIDTH;
+        camera.viewportHeight = HEIGHT;
+        viewport.setScreenBounds(0, 0, WIDTH, HEIGHT);
+        viewport.setWorldSize(WIDTH, HEIGHT);
+
+        return new InteractionSubProcess(camera, viewport, null, true, settings, this.statistics);
+    }
+
+    /**
+     * @return the events published by the iteration
+     */
+    private List<InputTouchEvent> publish(InteractionSubProcess process) {
+        final List<InputTouchEvent> events = new ArrayList<InputTouchEvent>();
+        InputTouchEvent event = null;
+
+        // the events of the previous iterations aren't used anymore
+        this.buffer.releaseInputTouchEvents();
+        process.postIteration(this.buffer);
+
+        while ((event = this.buffer.pollInputTouchEvent()) != null) {
+            events.add(event);
+        }
+
+        return events;
+    }
+
+    private InteractionSubProcess createCoalescing() {
+        return this.create(new RenderProcessSettings().setInputEventCoalescing(true));
+    }
+
+    /**
+     * draws a frame with a touchable box of 20x20 around the unprojected
+     * position (x, y) and publishes the events of the iteration
+     */
+    private List<InputTouchEvent> drawFrame(InteractionSubProcess process, String id, float x, float y) {
+        final SpriteRenderData data = new SpriteRenderData(id, 0, 0, 0, RenderPositionUnit.Pixels, null, 0, false,
+                "tex");
+
+        data.setInteractionMode(InteractionMode.BoundingBox);
+        process.preIteration();
+        process.addRenderedData(process.obtainRenderedData().set(x - 10, y - 10, 20, 20, 1, data, null));
+
+        return this.publish(process);
+    }
+
+    @Test
+    public void testUnchangedSceneReusesThePick() {
+        final InteractionSubProcess process = this.create(new RenderProcessSettings());
+
+        // the center of the screen is the unprojected position (0, 0)
+        process.mouseMoved(WIDTH / 2, HEIGHT / 2);
+        assertEquals("incorrect touched RenderData", "box",
+                this.drawFrame(process, "box", 0, 0).get(0).getTouchedRenderDataId());
+
+        // the event is repeated and the scene is equal, not the same objects
+        assertEquals("incorrect touched RenderData", "box",
+                this.drawFrame(process, new String("box"), 0, 0).get(0).getTouchedRenderDataId());
+        assertEquals("incorrect number of picks", 1, this.statistics.getPickedInputEvents());
+        assertEquals("incorrect number of cache hits", 1, this.statistics.getPickCacheHits());
+    }
+
+    @Test
+    public void testChangedSceneInvalidatesThePick() {
+        final InteractionSubProcess process = this.create(new RenderProcessSettings());
+
+        process.mouseMoved(WIDTH / 2, HEIGHT / 2);
+        this.drawFrame(process, "box", 0, 0);
+
+        assertNull("moved RenderData still touched",
+                this.drawFrame(process, "box", 15, 0).get(0).getTouchedRenderDataId());
+        assertEquals("incorrect touched RenderData", "other",
+                this.drawFrame(process, "other", 0, 0).get(0).getTouchedRenderDataId());
+        assertEquals("incorrect number of picks", 3, this.statistics.getPickedInputEvents());
+        assertEquals("incorrect number of cache hits", 0, this.statistics.getPickCacheHits());
+    }
+
+    @Test
+    public void testIdsWithTheSameHashCodeInvalidateThePick() {
+        final InteractionSubProcess process = this.create(new RenderProcessSettings());
+
+        assertEquals("the ids must collide", "Aa".hashCode(), "BB".hashCode());
+
+        process.mouseMoved(WIDTH / 2, HEIGHT / 2);
+        this.drawFrame(process, "Aa", 0, 0);
+
+        assertEquals("stale touched RenderData", "BB",
+                this.drawFrame(process, "BB", 0, 0).get(0).getTouchedRenderDataId());
+    }
+
+    @Test
+    public void testRemovedRenderDataInvalidatesThePick() {
+        final InteractionSubProcess process = this.create(new RenderProcessSettings());
+
+        process.mouseMoved(WIDTH / 2, HEIGHT / 2);
+        this.drawFrame(process, "box", 0, 0);
+        process.preIteration();
+
+        assertNull("removed RenderData still touched", this.publish(process).get(0).getTouchedRenderDataId());
+        assertEquals("incorrect number of cache hits", 0, this.statistics.getPickCacheHits());
+    }
+
+    @Test
+    public void testMovedPointerInvalidatesThePick() {
+        final InteractionSubProcess process = this.create(new RenderProcessSettings());
+
+        process.mouseMoved(WIDTH / 2, HEIGHT / 2);
+        this.drawFrame(process, "box", 0, 0);
+        process.mouseMoved(0, 0);
+
+        assertNull("RenderData touched by the moved pointer",
+                this.drawFrame(process, "box", 0, 0).get(0).getTouchedRenderDataId());
+        assertEquals("incorrect number of cache hits", 0, this.statistics.getPickCacheHits());
+    }
+
+    /**
+     * @return the id of the touched RenderData per pointer position of a scene
+     *         of thin, mostly rotated boxes around the center of the screen -
+     *         the circles around the rotated boxes overlap, so a lot of
+     *         candidates are tested
+     */
+    private List<String> pickScene(InteractionSubProcess process, int boxes) {
+        final List<String> touched = new ArrayList<String>();
+        final Random random = new Random(42);
+        final SpriteRenderData[] data = new SpriteRenderData[boxes];
+        final float[] bounds = new float[boxes * 4];
+
+        for (int i = 0; i < boxes; i++) {
+            final float rotation = (random.nextInt(4) == 0) ? 0 : random.nextFloat() * 360;
+
+            data[i] = new SpriteRenderData("box" + i, 0, 0, rotation, RenderPositionUnit.Pixels, null, 0, false,
+                    "tex");
+            data[i].setInteractionMode(InteractionMode.BoundingBox);
+            bounds[i * 4] = random.nextFloat() * 60 - 30;
+            bounds[i * 4 + 1] = random.nextFloat() * 60 - 30;
+            bounds[i * 4 + 2] = 1 + random.nextFloat() * 40;
+            bounds[i * 4 + 3] = 1 + random.nextFloat();
+        }
+
+        for (int screenX = WIDTH / 2 - 30; screenX <= WIDTH / 2 + 30; screenX += 5) {
+            for (int screenY = HEIGHT / 2 - 30; screenY <= HEIGHT / 2 + 30; screenY += 5) {
+                process.mouseMoved(screenX, screenY);
+                process.preIteration();
+
+                for (int i = 0; i < boxes; i++) {
+                    process.addRenderedData(process.obtainRenderedData().set(bounds[i * 4], bounds[i * 4 + 1],
+                            bounds[i * 4 + 2], bounds[i * 4 + 3], 1, data[i], null));
+                }
+
+                touched.add(this.publish(process).get(0).getTouchedRenderDataId());
+            }
+        }
+
+        return touched;
+    }
+
+    @Test
+    public void testParallelPickingFindsTheSameRenderData() {
+        final int boxes = 5000;
+        final List<String> serial = this.pickScene(
+                this.create(new RenderProcessSettings().setParallelPickingThreshold(Integer.MAX_VALUE)), boxes);
+
+        assertEquals("the serial picking was parallel", 0, this.statistics.getParallelPicks());
+
+        final List<String> parallel = this.pickScene(
+                this.create(new RenderProcessSettings().setParallelPickingThreshold(1)), boxes);
+
+        assertTrue("the picking wasn't parallel", this.statistics.getParallelPicks() > 0);
+        assertEquals("incorrect touched RenderData", serial, parallel);
+    }
+
+    @Test
+    public void testLastPositionOfTheMovementWins() {
+        final InteractionSubProcess process = this.createCoalescing();
+
+        process.mouseMoved(1, 2);
+        process.mouseMoved(3, 4);
+        process.mouseMoved(5, 6);
+
+        final List<InputTouchEvent> events = this.publish(process);
+
+        assertEquals("incorrect number of events", 1, events.size());
+        assertEquals("incorrect x", 5, events.get(0).getScreenX());
+        assertEquals("incorrect y", 6, events.get(0).getScreenY());
+        assertEquals("incorrect number of coalesced events", 2, this.statistics.getCoalescedInputEvents());
+    }
+
+    @Test
+    public void testEventsOfDifferentPointersArentMerged() {
+        final InteractionSubProcess process = this.createCoalescing();
+
+        process.touchDragged(1, 1, 1);
+        process.touchDragged(2, 2, 2);
+        process.touchDragged(3, 3, 1);
+
+        final List<InputTouchEvent> events = this.publish(process);
+
+        assertEquals("incorrect number of events", 2, events.size());
+        assertEquals("incorrect pointer", 1, events.get(0).getPointer());
+        assertEquals("incorrect x", 3, events.get(0).getScreenX());
+        assertEquals("incorrect pointer", 2, events.get(1).getPointer());
+        assertEquals("incorrect x", 2, events.get(1).getScreenX());
+    }
+
+    @Test
+    public void testEventsOfDifferentTypesArentMerged() {
+        final InteractionSubProcess process = this.createCoalescing();
+
+        process.mouseMoved(1, 1);
+        process.touchDragged(2, 2, 0);
+        process.mouseMoved(3, 3);
+        process.touchDown(4, 4, 0, 0);
+        process.touchDown(5, 5, 0, 0);
+        process.touchUp(6, 6, 0, 0);
+        process.touchUp(7, 7, 0, 0);
+
+        final List<InputTouchEvent> events = this.publish(process);
+
+        assertEquals("incorrect number of events", 7, events.size());
+
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals("incorrect x", i + 1, events.get(i).getScreenX());
+        }
+
+        assertEquals("incorrect number of coalesced events", 0, this.statistics.getCoalescedInputEvents());
+    }
+
+    @Test
+    public void testEventsOfDifferentArgumentsArentMerged() {
+        final InteractionSubProcess process = this.createCoalescing();
+
+        process.saveEvent(1, 1, InputTouchEventType.Dragged, 0, 0);
+        process.saveEvent(2, 2, InputTouchEventType.Dragged, 1, 0);
+        process.saveEvent(3, 3, InputTouchEventType.Dragged, 1, 0);
+
+        final List<InputTouchEvent> events = this.publish(process);
+
+        assertEquals("incorrect number of events", 2, events.size());
+        assertEquals("incorrect argument", 0, events.get(0).getArgument());
+        assertEquals("incorrect argument", 1, events.get(1).getArgument());
+        assertEquals("incorrect x", 3, events.get(1).getScreenX());
+    }
+
+    @Test
+    public void testEventsArentMergedWithoutCoalescing() {
+        final InteractionSubProcess process = this.create(new RenderProcessSettings());
+
+        process.mouseMoved(1, 1);
+        process.mouseMoved(2, 2);
+
+        assertEquals("the events were merged", 2, this.publish(process).size());
+    }
+}
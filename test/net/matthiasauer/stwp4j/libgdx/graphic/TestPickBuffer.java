@@ -0,0 +1,91 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+public class TestPickBuffer {
+    @Test
+    public void testFrontRenderedDataIsPicked() {
+        final PickBuffer buffer = new PickBuffer(null, 1);
+
+        buffer.setArea(-100, -100, 100, 100, 1);
+        buffer.add(0, -50, -50, 100, 100, 0, 0, 0, null);
+        buffer.add(3, 0, 0, 20, 20, 0, 10, 10, null);
+
+        assertEquals(3, buffer.pick(10.5f, 10.5f));
+        assertEquals(0, buffer.pick(-10.5f, -10.5f));
+        assertEquals(-1, buffer.pick(80.5f, 80.5f));
+        // outside of the area
+        assertEquals(-1, buffer.pick(150, 0));
+
+        buffer.clear();
+
+        assertEquals(-1, buffer.pick(10.5f, 10.5f));
+    }
+
+    @Test
+    public void testRotationIsHonoured() {
+        final PickBuffer buffer = new PickBuffer(null, 1);
+
+        buffer.setArea(-100, -100, 100, 100, 1);
+        // a thin bar rotated by 90 degrees around its center
+        buffer.add(0, -40, -5, 80, 10, 90, 0, 0, null);
+
+        assertEquals(0, buffer.pick(0.5f, 30.5f));
+        assertEquals(0, buffer.pick(0.5f, -30.5f));
+        assertEquals(-1, buffer.pick(30.5f, 0.5f));
+    }
+
+    @Test
+    public void testAlphaMaskIsHonoured() {
+        final PickBuffer buffer = new PickBuffer(null, 1);
+        final AlphaMask mask = new AlphaMask(10, 10);
+
+        // only the top left pixel is visible
+        mask.setVisible(0, 0);
+        buffer.setArea(0, 0, 10, 10, 1);
+        buffer.add(0, 0, 0, 10, 10, 0, 5, 5, mask);
+
+        assertEquals(0, buffer.pick(0.5f, 9.5f));
+        assertEquals(-1, buffer.pick(0.5f, 0.5f));
+        assertEquals(-1, buffer.pick(9.5f, 9.5f));
+    }
+
+    @Test
+    public void testBandsMatchSingleThread() {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final Random random = new Random(5);
+        final PickBuffer single = new PickBuffer(null, 1);
+        final PickBuffer parallel = new PickBuffer(executor, 4);
+
+        try {
+            single.setArea(-500, -500, 500, 500, 4);
+            parallel.setArea(-500, -500, 500, 500, 4);
+
+            for (int i = 0; i < 300; i++) {
+                final float x = random.nextFloat() * 1000 - 500;
+                final float y = random.nextFloat() * 1000 - 500;
+                final float width = random.nextFloat() * 100;
+                final float height = random.nextFloat() * 100;
+                final float rotation = random.nextFloat() * 360;
+
+                single.add(i, x, y, width, height, rotation, x + width / 2, y + height / 2, null);
+                parallel.add(i, x, y, width, height, rotation, x + width / 2, y + height / 2, null);
+            }
+
+            for (int query = 0; query < 2000; query++) {
+                final float x = random.nextFloat() * 1000 - 500;
+                final float y = random.nextFloat() * 1000 - 500;
+
+                assertEquals(single.pick(x, y), parallel.pick(x, y));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
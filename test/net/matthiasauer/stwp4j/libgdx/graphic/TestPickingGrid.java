@@ -0,0 +1,72 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TestPickingGrid {
+    private List<Integer> candidates(PickingGrid grid, float x, float y) {
+        final List<Integer> result = new ArrayList<Integer>();
+        int candidate;
+
+        grid.query(x, y);
+
+        while ((candidate = grid.nextCandidate()) != -1) {
+            result.add(candidate);
+        }
+
+        return result;
+    }
+
+    @Test
+    public void testCandidatesMatchBruteForce() {
+        final Random random = new Random(3);
+        final PickingGrid grid = new PickingGrid();
+        final float[][] boxes = new float[500][];
+
+        for (int i = 0; i < boxes.length; i++) {
+            final float x = random.nextFloat() * 1000 - 500;
+            final float y = random.nextFloat() * 1000 - 500;
+            // a few boxes cover most of the area
+            final float size = (i % 50 == 0) ? 800 : random.nextFloat() * 60;
+
+            boxes[i] = new float[] { x, y, x + size, y + size * 0.5f };
+            // draw indices of the other space are skipped
+            grid.add(i * 2, boxes[i][0], boxes[i][1], boxes[i][2], boxes[i][3]);
+        }
+
+        for (int query = 0; query < 2000; query++) {
+            final float x = random.nextFloat() * 1400 - 700;
+            final float y = random.nextFloat() * 1400 - 700;
+            final List<Integer> expected = new ArrayList<Integer>();
+
+            for (int i = boxes.length - 1; i >= 0; i--) {
+                if ((x >= boxes[i][0]) && (x <= boxes[i][2]) && (y >= boxes[i][1]) && (y <= boxes[i][3])) {
+                    expected.add(i * 2);
+                }
+            }
+
+            assertEquals("incorrect candidates at " + x + "/" + y, expected, this.candidates(grid, x, y));
+        }
+    }
+
+    @Test
+    public void testClearRemovesBoxes() {
+        final PickingGrid grid = new PickingGrid();
+
+        grid.add(0, 0, 0, 10, 10);
+        assertEquals(1, this.candidates(grid, 5, 5).size());
+
+        grid.clear();
+        assertEquals(0, this.candidates(grid, 5, 5).size());
+
+        grid.add(0, 20, 20, 30, 30);
+        grid.add(1, 25, 25, 26, 26);
+        assertEquals(0, this.candidates(grid, 5, 5).size());
+        assertEquals(2, this.candidates(grid, 25.5f, 25.5f).size());
+    }
+}
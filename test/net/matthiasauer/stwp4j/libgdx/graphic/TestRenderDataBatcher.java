@@ -0,0 +1,117 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.graphics.Color;
+
+public class TestRenderDataBatcher {
+    private final RenderDataBatcher batcher = new RenderDataBatcher(new RenderDataBatcher.TextureKeys() {
+        @Override
+        public Object getTextureKey(RenderData data) {
+            return ((SpriteRenderData) data).getTextureName();
+        }
+    });
+
+    private SpriteRenderData createRenderData(String id, int renderOrder, boolean renderProjected, Color tint,
+            String texture) {
+        return new SpriteRenderData(id, 0, 0, 0, RenderPositionUnit.Pixels, tint, renderOrder, renderProjected,
+                texture);
+    }
+
+    private BucketRenderDataQueue sort(RenderData... data) {
+        final BucketRenderDataQueue queue = new BucketRenderDataQueue();
+
+        queue.beginFrame();
+
+        for (RenderData element : data) {
+            queue.add(element);
+        }
+
+        queue.sort();
+
+        return queue;
+    }
+
+    private void assertIds(String expected, int size) {
+        final StringBuilder ids = new StringBuilder();
+
+        for (int i = 0; i < size; i++) {
+            ids.append(this.batcher.get(i).getId());
+        }
+
+        assertEquals("incorrect batched order", expected, ids.toString());
+    }
+
+    @Test
+    public void testLayerIsGroupedByTextureInSubmissionOrder() {
+        final BucketRenderDataQueue queue = this.sort(
+                this.createRenderData("a", 0, true, null, "x"),
+                this.createRenderData("b", 0, true, null, "y"),
+                this.createRenderData("c", 0, true, null, "x"),
+                this.createRenderData("d", 0, true, null, "y"),
+                this.createRenderData("e", 0, true, null, "z"));
+
+        this.batcher.batch(queue);
+
+        this.assertIds("acbde", queue.size());
+    }
+
+    @Test
+    public void testRenderDataDoesntMoveBetweenLayers() {
+        final BucketRenderDataQueue queue = this.sort(
+                this.createRenderData("a", 0, true, null, "x"),
+                this.createRenderData("b", 0, true, null, "y"),
+                this.createRenderData("c", 1, true, null, "x"),
+                this.createRenderData("d", 1, false, null, "y"),
+                this.createRenderData("e", 1, false, null, "x"));
+
+        this.batcher.batch(queue);
+
+        for (int i = 0; i < queue.size(); i++) {
+            assertEquals("incorrect renderOrder at index " + i, queue.get(i).getRenderOrder(),
+                    this.batcher.get(i).getRenderOrder());
+            assertEquals("incorrect renderProjected at index " + i, queue.get(i).isRenderProjected(),
+                    this.batcher.get(i).isRenderProjected());
+        }
+    }
+
+    @Test
+    public void testTintDoesntSplitTheGroups() {
+        final BucketRenderDataQueue queue = this.sort(
+                this.createRenderData("a", 0, true, Color.RED, "x"),
+                this.createRenderData("b", 0, true, Color.BLUE, "x"),
+                this.createRenderData("c", 0, true, Color.RED, "x"),
+                this.createRenderData("d", 0, true, Color.BLUE, "y"));
+
+        this.batcher.batch(queue);
+
+        this.assertIds("abcd", queue.size());
+    }
+
+    @Test
+    public void testUnknownTexturesAreDrawnFirst() {
+        final BucketRenderDataQueue queue = this.sort(
+                this.createRenderData("a", 0, true, null, "x"),
+                this.createRenderData("b", 0, true, null, null));
+
+        this.batcher.batch(queue);
+
+        this.assertIds("ba", queue.size());
+    }
+
+    @Test
+    public void testBatcherIsReused() {
+        final SpriteRenderData single = this.createRenderData("a", 0, true, null, "x");
+
+        this.batcher.batch(this.sort(
+                this.createRenderData("a", 0, true, null, "x"),
+                this.createRenderData("b", 0, true, null, "y"),
+                this.createRenderData("c", 0, true, null, "x")));
+        this.batcher.batch(this.sort(single));
+
+        assertSame("incorrect batched RenderData", single, this.batcher.get(0));
+    }
+}
@@ -0,0 +1,177 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.math.Vector2;
+
+public class TestRenderFrameBuffer {
+    private SpriteRenderData obtain(String id) {
+        return RenderDataPools.SPRITES.obtain().set(id, 0, 0, 0, RenderPositionUnit.Pixels, null, 0, true, "texture");
+    }
+
+    @Test
+    public void testNewestFrameIsAcquired() {
+        final RenderFrameBuffer buffer = new RenderFrameBuffer();
+        final SpriteRenderData first = this.obtain("first");
+        final SpriteRenderData second = this.obtain("second");
+
+        assertFalse("frame acquired before it was published", buffer.acquire());
+
+        buffer.add(first);
+        buffer.publish();
+        buffer.add(second);
+        buffer.publish();
+
+        assertTrue("published frame not acquired", buffer.acquire());
+        assertEquals("incorrect frame size", 1, buffer.getFrame().size());
+        assertSame("older frame acquired", second, buffer.getFrame().get(0));
+        assertTrue("replaced frame not recycled", first.isRecycled());
+        assertFalse("frame acquired twice", buffer.acquire());
+        assertSame("acquired frame changed", second, buffer.getFrame().get(0));
+    }
+
+    @Test
+    public void testDrawnFrameIsRecycledWhenItsBufferIsReused() {
+        final RenderFrameBuffer buffer = new RenderFrameBuffer();
+        final SpriteRenderData drawn = this.obtain("drawn");
+
+        buffer.add(drawn);
+        buffer.publish();
+        buffer.acquire();
+        buffer.publish();
+        buffer.acquire();
+
+        assertFalse("frame recycled while it could still be drawn", drawn.isRecycled());
+
+        buffer.publish();
+
+        assertTrue("drawn frame not recycled", drawn.isRecycled());
+    }
+
+    @Test
+    public void testInputTouchEventsAreCopied() {
+        final RenderFrameBuffer buffer = new RenderFrameBuffer();
+        final InputTouchEvent event = new InputTouchEvent().set(1, 2, InputTouchEventType.TouchDown, 3, 4, true,
+                new Vector2(5, 6), new Vector2(7, 8));
+
+        event.setTouchedRenderDataId("id");
+        buffer.offerInputTouchEvent(event);
+        event.set(0, 0, InputTouchEventType.Moved, 0, false, Vector2.Zero, Vector2.Zero);
+
+        final InputTouchEvent copy = buffer.pollInputTouchEvent();
+
+        assertEquals("incorrect type", InputTouchEventType.TouchDown, copy.getInputTouchEventType());
+        assertEquals("incorrect pointer", 4, copy.getPointer());
+        assertEquals("incorrect projected position", new Vector2(5, 6), copy.getPosition(true));
+        assertEquals("incorrect touched RenderData", "id", copy.getTouchedRenderDataId());
+        assertNull("event polled twice", buffer.pollInputTouchEvent());
+    }
+
+    private static InputTouchEvent createEvent(int screenX) {
+        return new InputTouchEvent().set(screenX, 0, InputTouchEventType.Moved, 0, false, Vector2.Zero,
+                Vector2.Zero);
+    }
+
+    @Test
+    public void testPolledInputTouchEventsAreReusedAfterTheFollowingRelease() {
+        final RenderFrameBuffer buffer = new RenderFrameBuffer();
+        final List<InputTouchEvent> polled = new ArrayList<InputTouchEvent>();
+
+        for (int i = 0; i < 1000; i++) {
+            buffer.releaseInputTouchEvents();
+            buffer.offerInputTouchEvent(createEvent(i));
+
+            final InputTouchEvent event = buffer.pollInputTouchEvent();
+
+            assertEquals("incorrect event", i, event.getScreenX());
+            polled.add(event);
+
+            if (i > 0) {
+                assertEquals("event reused before it was released", i - 1, polled.get(i - 1).getScreenX());
+            }
+        }
+
+        assertSame("the events weren't reused", polled.get(0), polled.get(256));
+    }
+
+    @Test
+    public void testInputTouchEventsWaitForTheSimulation() {
+        final RenderFrameBuffer buffer = new RenderFrameBuffer();
+        final int events = 600;
+
+        for (int i = 0; i < events; i++) {
+            buffer.offerInputTouchEvent(createEvent(i));
+        }
+
+        int next = 0;
+        InputTouchEvent event = null;
+
+        while (next < events) {
+            // the GL thread writes the waiting events when it acquires a frame
+            buffer.acquire();
+            buffer.releaseInputTouchEvents();
+
+            while ((event = buffer.pollInputTouchEvent()) != null) {
+                assertEquals("incorrect order", next++, event.getScreenX());
+            }
+        }
+
+        buffer.acquire();
+        assertNull("event polled twice", buffer.pollInputTouchEvent());
+    }
+
+    @Test
+    public void testFramesArePassedBetweenThreads() throws InterruptedException {
+        final RenderFrameBuffer buffer = new RenderFrameBuffer();
+        final int frames = 10000;
+        final Thread simulation = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 1; i <= frames; i++) {
+                    for (int j = 0; j < i % 7; j++) {
+                        buffer.add(new SpriteRenderData("frame" + i, 0, 0, 0, RenderPositionUnit.Pixels, null, 0,
+                                true, "texture"));
+                    }
+
+                    buffer.publish();
+                }
+            }
+        });
+
+        simulation.start();
+
+        int lastFrame = 0;
+        boolean finished = false;
+
+        while (!finished) {
+            // checked before acquiring so the last frame isn't missed
+            finished = !simulation.isAlive();
+
+            if (buffer.acquire() && !buffer.getFrame().isEmpty()) {
+                final String id = buffer.getFrame().get(0).getId();
+                final int frame = Integer.parseInt(id.substring("frame".length()));
+
+                assertTrue("older frame acquired", frame > lastFrame);
+                assertEquals("incomplete frame", frame % 7, buffer.getFrame().size());
+
+                for (int i = 0; i < buffer.getFrame().size(); i++) {
+                    assertEquals("frames mixed", id, buffer.getFrame().get(i).getId());
+                }
+
+                lastFrame = frame;
+            }
+        }
+
+        assertEquals("last frame not acquired", frames, lastFrame);
+        simulation.join();
+    }
+}
@@ -0,0 +1,157 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TestRetainedRenderDataQueue {
+    private SpriteRenderData createRenderData(String id, int renderOrder) {
+        return new SpriteRenderData(id, 0, 0, 0, RenderPositionUnit.Pixels, null, renderOrder, true, "tex");
+    }
+
+    @Test
+    public void testRenderDataIsRetainedBetweenFrames() {
+        final RetainedRenderDataQueue queue = new RetainedRenderDataQueue();
+        final RenderData first = this.createRenderData("1", 2);
+        final RenderData second = this.createRenderData("2", 1);
+
+        queue.add(first);
+        queue.add(second);
+        queue.sort();
+
+        queue.beginFrame();
+        queue.sort();
+
+        assertEquals("incorrect size", 2, queue.size());
+        assertSame("wrong order", second, queue.get(0));
+        assertSame("wrong order", first, queue.get(1));
+    }
+
+    @Test
+    public void testUpdateReplacesRenderDataWithTheSameId() {
+        final RetainedRenderDataQueue queue = new RetainedRenderDataQueue();
+        final RenderData first = this.createRenderData("1", 1);
+        final RenderData second = this.createRenderData("2", 1);
+        final RenderData updated = this.createRenderData("1", 1);
+
+        queue.add(first);
+        queue.add(second);
+        queue.sort();
+
+        queue.add(updated);
+        queue.sort();
+
+        assertEquals("incorrect size", 2, queue.size());
+        assertSame("the update must keep the position", updated, queue.get(0));
+        assertSame("wrong order", second, queue.get(1));
+
+        final RenderData moved = this.createRenderData("1", 3);
+        queue.add(moved);
+        queue.sort();
+
+        assertSame("wrong order", second, queue.get(0));
+        assertSame("the changed renderOrder was ignored", moved, queue.get(1));
+    }
+
+    @Test
+    public void testRemove() {
+        final RetainedRenderDataQueue queue = new RetainedRenderDataQueue();
+        final RenderData first = this.createRenderData("1", 1);
+        final RenderData second = this.createRenderData("2", 1);
+
+        queue.add(first);
+        queue.add(second);
+        queue.sort();
+
+        assertTrue("nothing removed", queue.remove("1"));
+        assertFalse("unknown id removed something", queue.remove("3"));
+        queue.sort();
+
+        assertEquals("incorrect size", 1, queue.size());
+        assertSame("wrong RenderData", second, queue.get(0));
+    }
+
+    @Test
+    public void testReplacedPooledRenderDataIsRecycled() {
+        final RetainedRenderDataQueue queue = new RetainedRenderDataQueue();
+        final SpriteRenderData first = RenderDataPools.SPRITES.obtain().set("1", 0, 0, 0, RenderPositionUnit.Pixels,
+                null, 1, true, "tex");
+        final SpriteRenderData second = RenderDataPools.SPRITES.obtain().set("1", 0, 0, 0, RenderPositionUnit.Pixels,
+                null, 1, true, "tex");
+
+        queue.add(first);
+        queue.sort();
+        queue.add(second);
+        queue.sort();
+
+        assertTrue("the replaced RenderData wasn't recycled", first.isRecycled());
+        assertFalse("the current RenderData was recycled", second.isRecycled());
+
+        queue.remove("1");
+
+        assertTrue("the removed RenderData wasn't recycled", second.isRecycled());
+    }
+
+    @Test
+    public void testIncrementalOrderMatchesAFullSort() {
+        final RetainedRenderDataQueue queue = new RetainedRenderDataQueue();
+        final Map<String, RenderData> added = new LinkedHashMap<String, RenderData>();
+        final Random random = new Random(3);
+
+        for (int i = 0; i < 2000; i++) {
+            final String id = "" + random.nextInt(200);
+
+            if (random.nextInt(5) == 0) {
+                assertEquals("incorrect result of remove", added.remove(id) != null, queue.remove(id));
+            } else {
+                final RenderData data = this.createRenderData(id, random.nextInt(6));
+
+                // replacing keeps the position in which the id was added first
+                added.put(id, data);
+                queue.add(data);
+            }
+        }
+
+        final List<RenderData> expected = new ArrayList<RenderData>(added.values());
+
+        // stable - RenderData with the same renderOrder keeps the order of the ids
+        Collections.sort(expected, new RenderDataComparator());
+        queue.sort();
+
+        assertEquals("incorrect size", expected.size(), queue.size());
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame("incorrect order at index " + i, expected.get(i), queue.get(i));
+        }
+    }
+
+    @Test
+    public void testChangedRenderOrderOfPooledRenderDataIsSorted() {
+        final RetainedRenderDataQueue queue = new RetainedRenderDataQueue();
+        final SpriteRenderData other = this.createRenderData("2", 1);
+
+        queue.add(RenderDataPools.SPRITES.obtain().set("1", 0, 0, 0, RenderPositionUnit.Pixels, null, 2, true,
+                "tex"));
+        queue.add(other);
+        queue.sort();
+
+        final SpriteRenderData moved = RenderDataPools.SPRITES.obtain().set("1", 0, 0, 0,
+                RenderPositionUnit.Pixels, null, 0, true, "tex");
+
+        queue.add(moved);
+        queue.sort();
+
+        assertSame("the changed renderOrder was ignored", moved, queue.get(0));
+        assertSame("wrong order", other, queue.get(1));
+    }
+}
@@ -0,0 +1,102 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.gdx.graphics.OrthographicCamera;
+
+public class TestViewportCuller {
+    private OrthographicCamera camera;
+    private RenderStatistics statistics;
+    private ViewportCuller culler;
+
+    @Before
+    public void setUp() {
+        // visible area from (-50, -25) to (150, 75) if projected
+        this.camera = new OrthographicCamera();
+        this.camera.viewportWidth = 200;
+        this.camera.viewportHeight = 100;
+        this.camera.position.set(50, 25, 0);
+        this.statistics = new RenderStatistics();
+        this.culler = new ViewportCuller(this.camera, this.statistics, true);
+        this.culler.update(true);
+    }
+
+    @Test
+    public void testPartiallyVisibleBoxesAreVisible() {
+        assertTrue("box overlapping the left edge culled", this.culler.isVisible(-60, 0, 20, 10, -50, 5, 0));
+        assertTrue("box overlapping the right edge culled", this.culler.isVisible(140, 0, 20, 10, 150, 5, 0));
+        assertTrue("box overlapping the bottom edge culled", this.culler.isVisible(0, -30, 10, 10, 5, -25, 0));
+        assertTrue("box overlapping the top edge culled", this.culler.isVisible(0, 70, 10, 10, 5, 75, 0));
+        assertTrue("box containing the viewport culled", this.culler.isVisible(-100, -100, 400, 400, 0, 0, 0));
+        assertEquals("incorrect culled count", 0, this.statistics.getCulled());
+    }
+
+    @Test
+    public void testBoxesTouchingTheEdgesAreVisible() {
+        assertTrue("box touching the left edge culled", this.culler.isVisible(-60, 0, 10, 10, -55, 5, 0));
+        assertTrue("box touching the right edge culled", this.culler.isVisible(150, 0, 10, 10, 155, 5, 0));
+        assertTrue("box touching the bottom edge culled", this.culler.isVisible(0, -35, 10, 10, 5, -30, 0));
+        assertTrue("box touching the top edge culled", this.culler.isVisible(0, 75, 10, 10, 5, 80, 0));
+    }
+
+    @Test
+    public void testBoxesOutsideAreCulled() {
+        assertFalse("box left of the viewport visible", this.culler.isVisible(-61, 0, 10, 10, -56, 5, 0));
+        assertFalse("box right of the viewport visible", this.culler.isVisible(151, 0, 10, 10, 156, 5, 0));
+        assertFalse("box below the viewport visible", this.culler.isVisible(0, -36, 10, 10, 5, -31, 0));
+        assertFalse("box above the viewport visible", this.culler.isVisible(0, 76, 10, 10, 5, 81, 0));
+        assertEquals("incorrect culled count", 4, this.statistics.getCulled());
+    }
+
+    @Test
+    public void testRotatedBoxesUseTheCircleAroundTheOrigin() {
+        // a 40x2 bar rotated by 90 degrees around its left end reaches 40 up
+        assertTrue("rotated box reaching into the viewport culled",
+                this.culler.isVisible(0, 100, 40, 2, 0, 100, 90));
+        assertFalse("unrotated box reaching into the viewport not culled",
+                this.culler.isVisible(0, 100, 40, 2, 0, 100, 0));
+        assertTrue("rotated box touching the viewport culled", this.culler.isVisible(-80, 0, 30, 0, -80, 0, 45));
+        assertFalse("rotated box outside the circle visible", this.culler.isVisible(-81, 0, 30, 0, -81, 0, 45));
+    }
+
+    @Test
+    public void testZoomScalesTheVisibleArea() {
+        this.camera.zoom = 2;
+        this.culler.update(true);
+
+        // visible area from (-150, -75) to (250, 125)
+        assertTrue("box inside the zoomed viewport culled", this.culler.isVisible(240, 0, 20, 10, 250, 5, 0));
+        assertFalse("box outside the zoomed viewport visible", this.culler.isVisible(251, 0, 10, 10, 256, 5, 0));
+
+        this.camera.zoom = 0.5f;
+        this.culler.update(true);
+
+        // visible area from (0, 0) to (100, 50)
+        assertTrue("box touching the zoomed viewport culled", this.culler.isVisible(-10, 0, 10, 10, -5, 5, 0));
+        assertFalse("box outside the zoomed viewport visible", this.culler.isVisible(-11, 0, 10, 10, -6, 5, 0));
+    }
+
+    @Test
+    public void testUnprojectedBoundsIgnoreTheCameraPosition() {
+        this.culler.update(false);
+
+        // visible area from (-100, -50) to (100, 50)
+        assertTrue("box inside the unprojected viewport culled", this.culler.isVisible(-100, 0, 10, 10, 0, 0, 0));
+        assertFalse("box outside the unprojected viewport visible", this.culler.isVisible(101, 0, 10, 10, 0, 0, 0));
+    }
+
+    @Test
+    public void testDisabledCullerDoesntCull() {
+        final ViewportCuller disabled = new ViewportCuller(this.camera, this.statistics, false);
+
+        disabled.update(true);
+
+        assertTrue("disabled culler culled", disabled.isVisible(1000, 1000, 10, 10, 1000, 1000, 0));
+        assertEquals("incorrect culled count", 0, this.statistics.getCulled());
+    }
+}
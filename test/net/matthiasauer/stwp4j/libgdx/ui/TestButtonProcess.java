@@ -35,8 +35,13 @@ public class TestButtonProcess {
 
     private void fireEvent(ChannelOutPort<InputTouchEvent> outPort, String id, InputTouchEventType type,
             boolean touched) {
+        this.fireEvent(outPort, id, type, touched, 0);
+    }
+
+    private void fireEvent(ChannelOutPort<InputTouchEvent> outPort, String id, InputTouchEventType type,
+            boolean touched, int pointer) {
         final InputTouchEvent event = new InputTouchEvent();
-        event.set(type, 0, touched, new Vector2(), new Vector2());
+        event.set(0, 0, type, 0, pointer, touched, new Vector2(), new Vector2());
         event.setTouchedRenderDataId(id);
         outPort.offer(event);
     }
@@ -387,4 +392,52 @@ public class TestButtonProcess {
         expect(events3, "1", "tex#down");
         expect(events3, "2", "tex#base");
     }
+
+    @Test
+    public void testPointersAreTrackedSeparately() {
+        Scheduler scheduler = new Scheduler();
+
+        final Channel<RenderData> renderChannel = scheduler.createMultiplexChannel("#1", RenderData.class, false,
+                false);
+        final Channel<InputTouchEvent> touchEventChannel = scheduler.createMultiplexChannel("#2", InputTouchEvent.class,
+                false, false);
+        final Channel<ButtonClickEvent> buttonClickEventChannel = scheduler.createMultiplexChannel("#4",
+                ButtonClickEvent.class, false, true);
+        scheduler.addProcess(new ButtonProcess(renderChannel.createOutPort(), touchEventChannel.createInPort(),
+                buttonClickEventChannel.createOutPort(), this.createRenderData("1", "tex#base"),
+                this.createRenderData("1", "tex#over"), this.createRenderData("1", "tex#down")));
+        scheduler.addProcess(new ButtonProcess(renderChannel.createOutPort(), touchEventChannel.createInPort(),
+                buttonClickEventChannel.createOutPort(), this.createRenderData("2", "tex#base"),
+                this.createRenderData("2", "tex#over"), this.createRenderData("2", "tex#down")));
+        final ChannelInPort<RenderData> renderInput = renderChannel.createInPort();
+        final ChannelOutPort<InputTouchEvent> touchOutput = touchEventChannel.createOutPort();
+        final ChannelInPort<ButtonClickEvent> buttonClickOutput = buttonClickEventChannel.createInPort();
+
+        // both fingers press a button
+        this.fireEvent(touchOutput, "1", InputTouchEventType.TouchDown, true, 0);
+        this.fireEvent(touchOutput, "2", InputTouchEventType.TouchDown, true, 1);
+        List<SpriteRenderData> events1 = this.performIterationAndExpect(scheduler, renderInput, "tex#down", "tex#down");
+        expect(events1, "1", "tex#down");
+        expect(events1, "2", "tex#down");
+
+        // the second finger is lifted - only its button is clicked
+        this.fireEvent(touchOutput, "2", InputTouchEventType.TouchUp, false, 1);
+        List<SpriteRenderData> events2 = this.performIterationAndExpect(scheduler, renderInput, "tex#down", "tex#over");
+        expect(events2, "1", "tex#down");
+        expect(events2, "2", "tex#over");
+
+        ButtonClickEvent buttonClickEvent = buttonClickOutput.poll();
+
+        assertNotNull("no buttonClickEvent generated !", buttonClickEvent);
+        assertEquals("incorrect id", "2", buttonClickEvent.getId());
+        assertNull("more than one buttonClickEvent generated !", buttonClickOutput.poll());
+
+        // the first finger is dragged onto the other button - it is still
+        // captured by the button it pressed
+        this.fireEvent(touchOutput, "2", InputTouchEventType.Dragged, true, 0);
+        List<SpriteRenderData> events3 = this.performIterationAndExpect(scheduler, renderInput, "tex#down", "tex#over");
+        expect(events3, "1", "tex#down");
+        expect(events3, "2", "tex#over");
+        assertNull("buttonClickEvent generated !", buttonClickOutput.poll());
+    }
 }
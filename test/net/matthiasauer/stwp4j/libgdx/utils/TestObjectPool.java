@@ -0,0 +1,95 @@
+package net.matthiasauer.stwp4j.libgdx.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class TestObjectPool {
+    private static class Element extends PooledObject {
+        private String value;
+
+        @Override
+        protected void reset() {
+            this.value = null;
+        }
+    }
+
+    private static class ElementPool extends ObjectPool<Element> {
+        @Override
+        protected Element newObject() {
+            return new Element();
+        }
+    }
+
+    @After
+    public void disableDebug() {
+        ObjectPool.setDebug(false);
+    }
+
+    @Test
+    public void testRecycledObjectsAreReused() {
+        final ElementPool pool = new ElementPool();
+        final Element element = pool.obtain();
+        element.value = "value";
+
+        element.recycle();
+
+        assertTrue("the element wasn't recycled", element.isRecycled());
+        assertEquals("the element wasn't reset", null, element.value);
+        assertEquals("the element is not free", 1, pool.getFree());
+        assertSame("the element wasn't reused", element, pool.obtain());
+        assertFalse("the reused element is still recycled", element.isRecycled());
+    }
+
+    @Test
+    public void testObjectsNotFromAPoolAreNotRecycled() {
+        final Element element = new Element();
+
+        element.recycle();
+
+        assertFalse("the element was recycled", element.isRecycled());
+        assertFalse("the element is pooled", element.isPooled());
+    }
+
+    @Test
+    public void testRecyclingTwiceFails() {
+        final ElementPool pool = new ElementPool();
+        final Element element = pool.obtain();
+
+        element.recycle();
+
+        try {
+            element.recycle();
+        } catch (IllegalStateException e) {
+            return;
+        }
+
+        fail("no exception thrown !");
+    }
+
+    @Test
+    public void testDebugModeDetectsUseAfterRecycle() {
+        ObjectPool.setDebug(true);
+
+        final ElementPool pool = new ElementPool();
+        final Element element = pool.obtain();
+
+        element.recycle();
+
+        assertNotSame("the recycled element was reused", element, pool.obtain());
+
+        try {
+            element.checkNotRecycled();
+        } catch (IllegalStateException e) {
+            return;
+        }
+
+        fail("no exception thrown !");
+    }
+}
@@ -0,0 +1,146 @@
+package net.matthiasauer.stwp4j.libgdx.graphic;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.imageio.ImageIO;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData.Page;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData.Region;
+
+/**
+ * Build time tool that writes the alpha masks of all regions of texture
+ * atlases into an AlphaMaskFile - the file is then used at runtime instead of
+ * decoding the pages. Used by the buildAlphaMasks task of the build - it is
+ * part of the tools source set, because java.awt and javax.imageio aren't
+ * available on Android.
+ */
+public final class AlphaMaskFileWriter {
+    private AlphaMaskFileWriter() {
+    }
+
+    /**
+     * @param args
+     *            the output file, the alpha threshold and the atlas files
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            throw new IllegalArgumentException("usage : <output file> <alpha threshold> <atlas file>...");
+        }
+
+        final List<File> atlasFiles = new ArrayList<File>();
+
+        for (String atlasFile : Arrays.asList(args).subList(2, args.length)) {
+            atlasFiles.add(new File(atlasFile));
+        }
+
+        write(new File(args[0]), Integer.parseInt(args[1]), atlasFiles);
+    }
+
+    public static void write(File outputFile, int alphaThreshold, List<File> atlasFiles) throws IOException {
+        final List<String> names = new ArrayList<String>();
+        final List<AlphaMask> masks = new ArrayList<AlphaMask>();
+        final Set<String> namesOfAllAtlases = new HashSet<String>();
+
+        for (File atlasFile : atlasFiles) {
+            final FileHandle atlasFileHandle = new FileHandle(atlasFile);
+            final TextureAtlasData data = new TextureAtlasData(atlasFileHandle, atlasFileHandle.parent(), false);
+            final Map<Page, BufferedImage> images = new HashMap<Page, BufferedImage>();
+            final Set<String> namesOfAtlas = new HashSet<String>();
+
+            for (Page page : data.getPages()) {
+                images.put(page, ImageIO.read(page.textureFile.file()));
+            }
+
+            for (Region region : data.getRegions()) {
+                // like the TextureLoader only the first region of a name is
+                // used
+                if (!namesOfAtlas.add(region.name)) {
+                    continue;
+                }
+
+                if (!namesOfAllAtlases.add(region.name)) {
+                    throw new IllegalArgumentException(
+                            "the region '" + region.name + "' exists in more than one TextureAtlas !");
+                }
+
+                names.add(region.name);
+                masks.add(createMask(images.get(region.page), region, alphaThreshold));
+            }
+        }
+
+        writeFile(outputFile, names, masks);
+    }
+
+    private static AlphaMask createMask(BufferedImage image, Region region, int alphaThreshold) {
+        // the size of the region inside of the page
+        final int width = region.rotate ? region.height : region.width;
+        final int height = region.rotate ? region.width : region.height;
+        final AlphaMask mask = new AlphaMask(width, height);
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if ((image.getRGB(region.left + x, region.top + y) >>> 24) > alphaThreshold) {
+                    mask.setVisible(x, y);
+                }
+            }
+        }
+
+        return mask;
+    }
+
+    private static void writeFile(File outputFile, List<String> names, List<AlphaMask> masks) throws IOException {
+        final ByteArrayOutputStream header = new ByteArrayOutputStream();
+        final DataOutputStream headerOutput = new DataOutputStream(header);
+        int offset = 0;
+
+        headerOutput.writeInt(AlphaMaskFile.MAGIC);
+        headerOutput.writeInt(AlphaMaskFile.VERSION);
+        headerOutput.writeInt(names.size());
+
+        for (int i = 0; i < names.size(); i++) {
+            final byte[] name = names.get(i).getBytes(AlphaMaskFile.NAME_CHARSET);
+            final AlphaMask mask = masks.get(i);
+
+            headerOutput.writeInt(name.length);
+            headerOutput.write(name);
+            headerOutput.writeInt(mask.getWidth());
+            headerOutput.writeInt(mask.getHeight());
+            headerOutput.writeInt(offset);
+
+            offset += AlphaMask.wordCount(mask.getWidth(), mask.getHeight());
+        }
+
+        // the bits start at a multiple of 8 bytes
+        while (header.size() != AlphaMaskFile.align(header.size())) {
+            headerOutput.writeByte(0);
+        }
+
+        final DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(outputFile)));
+
+        try {
+            header.writeTo(output);
+
+            for (AlphaMask mask : masks) {
+                mask.writeTo(output);
+            }
+        } finally {
+            output.close();
+        }
+    }
+}